@@ -1,6 +1,6 @@
 "use client"
 
-import { useState, useEffect } from "react"
+import { useState, useEffect, useRef } from "react"
 import { Card, CardContent, CardHeader, CardTitle } from "@/components/ui/card"
 import { Badge } from "@/components/ui/badge"
 import { Button } from "@/components/ui/button"
@@ -11,12 +11,15 @@ import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from "@
 import { Tabs, TabsContent, TabsList, TabsTrigger } from "@/components/ui/tabs"
 import { Search, RefreshCw, Car, TrendingUp, ArrowUp, ArrowDown, Calendar, Download, Plus, Filter, Eye, Edit, Trash2 } from "lucide-react"
 import { useToast } from "@/hooks/use-toast"
-import { vehicleLogApi, VehicleLogPage, VehicleLog } from "@/lib/api/vehicle-log-api"
+import { vehicleLogApi, VehicleLogCursorPage, VehicleLog } from "@/lib/api/vehicle-log-api"
 
 export default function VehicleEntryExitPage() {
   const [logs, setLogs] = useState<VehicleLog[]>([])
-  const [currentPage, setCurrentPage] = useState(0)
-  const [totalPages, setTotalPages] = useState(0)
+  const [pageIndex, setPageIndex] = useState(0)
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [prevCursor, setPrevCursor] = useState<string | null>(null)
+  const [hasNext, setHasNext] = useState(false)
+  const [hasPrevious, setHasPrevious] = useState(false)
   const [totalElements, setTotalElements] = useState(0)
   const [pageSize, setPageSize] = useState(10)
   const [loading, setLoading] = useState(true)
@@ -30,47 +33,105 @@ export default function VehicleEntryExitPage() {
   // Filter bar state
   const [isFilterBarOpen, setIsFilterBarOpen] = useState(false)
   
+  // Ids on screen, so a log both loaded and streamed is only counted once
+  const shownIds = useRef(new Set<string>())
+  
   const { toast } = useToast()
 
+  // Any change to the query starts again from the newest page
   useEffect(() => {
     loadData()
-  }, [currentPage, pageSize, periodFilter])
+  }, [pageSize, periodFilter, searchTerm, typeFilter, vehicleTypeFilter, startDate, endDate])
 
+  // The newest page follows the live stream; older pages stay as loaded so their cursors remain valid.
+  // Plate searches and custom date ranges are not live, the stream cannot filter on them.
   useEffect(() => {
-    if (searchTerm || typeFilter !== "all" || vehicleTypeFilter !== "all" || (startDate && endDate)) {
-      handleSearch()
-    } else {
-      loadData()
+    if (loading || pageIndex !== 0 || searchTerm || (startDate && endDate)) return
+    return vehicleLogApi.subscribeVehicleLogs(
+      {
+        type: typeFilter !== "all" ? typeFilter : undefined,
+        vehicleType: vehicleTypeFilter !== "all" ? vehicleTypeFilter : undefined,
+      },
+      handleLiveLog,
+      () => loadData()
+    )
+  }, [loading, pageIndex, periodFilter, searchTerm, typeFilter, vehicleTypeFilter, startDate, endDate])
+
+  const handleLiveLog = (log: VehicleLog) => {
+    if (shownIds.current.has(log.id)) return
+    // Older than the last row on screen: it belongs to a later page, which will pick it up
+    const oldest = logs[logs.length - 1]
+    if (hasNext && oldest && new Date(log.entryExitTime) < new Date(oldest.entryExitTime)) return
+    shownIds.current.add(log.id)
+    setLogs(prevLogs => [log, ...prevLogs].sort((a, b) =>
+      new Date(b.entryExitTime).getTime() - new Date(a.entryExitTime).getTime()
+    ))
+    setTotalElements(prevTotal => prevTotal + 1)
+  }
+
+  const isSearching = () => {
+    return Boolean(searchTerm || typeFilter !== "all" || vehicleTypeFilter !== "all" || (startDate && endDate))
+  }
+
+  // Default search range when no dates are set, based on the period
+  const getPeriodRange = () => {
+    const now = new Date()
+    let start: Date
+    const end = new Date(now.getFullYear(), now.getMonth(), now.getDate(), 23, 59, 59)
+
+    switch (periodFilter) {
+      case 'weekly':
+        const startOfWeek = new Date(now)
+        startOfWeek.setDate(now.getDate() - now.getDay())
+        start = new Date(startOfWeek.getFullYear(), startOfWeek.getMonth(), startOfWeek.getDate())
+        break
+      case 'monthly':
+        start = new Date(now.getFullYear(), now.getMonth(), 1)
+        break
+      default:
+        start = new Date(now.getFullYear(), now.getMonth(), now.getDate())
     }
-  }, [searchTerm, typeFilter, vehicleTypeFilter, startDate, endDate])
+    return { start, end }
+  }
 
-  const loadData = async () => {
+  // Loads the page after (or before) the given cursor; no cursor loads the newest page.
+  // The total is only counted for the first page and kept while paging.
+  const loadData = async (cursor: string | null = null, index = 0) => {
     try {
       setLoading(true)
-      let response: VehicleLogPage
+      const params = { cursor, size: pageSize, includeTotal: cursor === null }
+      let response: VehicleLogCursorPage
 
-      switch (periodFilter) {
-        case 'daily':
-          response = await vehicleLogApi.getTodayLogs(currentPage, pageSize)
-          break
-        case 'weekly':
-          response = await vehicleLogApi.getWeeklyLogs(currentPage, pageSize)
-          break
-        case 'monthly':
-          response = await vehicleLogApi.getMonthlyLogs(currentPage, pageSize)
-          break
-        default:
-          response = await vehicleLogApi.getAllVehicleLogs(currentPage, pageSize)
+      if (isSearching()) {
+        const { start, end } = getPeriodRange()
+        response = await vehicleLogApi.scrollVehicleLogs('search', {
+          ...params,
+          licensePlate: searchTerm || undefined,
+          type: typeFilter !== "all" ? typeFilter : undefined,
+          vehicleType: vehicleTypeFilter !== "all" ? vehicleTypeFilter : undefined,
+          startDate: startDate || start.toISOString(),
+          endDate: endDate || end.toISOString(),
+        })
+      } else {
+        const scope = periodFilter === 'weekly' ? 'weekly' : periodFilter === 'monthly' ? 'monthly' : 'today'
+        response = await vehicleLogApi.scrollVehicleLogs(scope, params)
       }
 
       setLogs(response.content)
-      setTotalPages(response.totalPages)
-      setTotalElements(response.totalElements)
+      shownIds.current = new Set(response.content.map(log => log.id))
+      setNextCursor(response.nextCursor)
+      setPrevCursor(response.prevCursor)
+      setHasNext(response.hasNext)
+      setHasPrevious(response.hasPrevious)
+      setPageIndex(response.hasPrevious ? index : 0)
+      if (response.totalElements !== null) {
+        setTotalElements(response.totalElements)
+      }
     } catch (error) {
       console.error('Error loading vehicle logs:', error)
       toast({
         title: "Lỗi",
-        description: "Không thể tải dữ liệu thông tin ra vào",
+        description: isSearching() ? "Không thể tìm kiếm dữ liệu" : "Không thể tải dữ liệu thông tin ra vào",
         variant: "destructive",
       })
     } finally {
@@ -78,67 +139,16 @@ export default function VehicleEntryExitPage() {
     }
   }
 
-  const handleSearch = async () => {
-    if (!startDate || !endDate) {
-      // If no date range is set, use default ranges based on period
-      const now = new Date()
-      let start: Date, end: Date
-
-      switch (periodFilter) {
-        case 'daily':
-          start = new Date(now.getFullYear(), now.getMonth(), now.getDate())
-          end = new Date(now.getFullYear(), now.getMonth(), now.getDate(), 23, 59, 59)
-          break
-        case 'weekly':
-          const startOfWeek = new Date(now)
-          startOfWeek.setDate(now.getDate() - now.getDay())
-          start = new Date(startOfWeek.getFullYear(), startOfWeek.getMonth(), startOfWeek.getDate())
-          end = new Date(now.getFullYear(), now.getMonth(), now.getDate(), 23, 59, 59)
-          break
-        case 'monthly':
-          start = new Date(now.getFullYear(), now.getMonth(), 1)
-          end = new Date(now.getFullYear(), now.getMonth(), now.getDate(), 23, 59, 59)
-          break
-        default:
-          start = new Date(now.getFullYear(), now.getMonth(), now.getDate())
-          end = new Date(now.getFullYear(), now.getMonth(), now.getDate(), 23, 59, 59)
-      }
-
-      try {
-        setLoading(true)
-        const response = await vehicleLogApi.searchVehicleLogs({
-          licensePlate: searchTerm || undefined,
-          type: typeFilter !== "all" ? typeFilter : undefined,
-          vehicleType: vehicleTypeFilter !== "all" ? vehicleTypeFilter : undefined,
-          startDate: startDate || start.toISOString(),
-          endDate: endDate || end.toISOString(),
-          page: currentPage,
-          size: pageSize
-        })
-
-        setLogs(response.content)
-        setTotalPages(response.totalPages)
-        setTotalElements(response.totalElements)
-      } catch (error) {
-        console.error('Error searching vehicle logs:', error)
-        toast({
-          title: "Lỗi",
-          description: "Không thể tìm kiếm dữ liệu",
-          variant: "destructive",
-        })
-      } finally {
-        setLoading(false)
-      }
-    }
+  const handleNextPage = () => {
+    if (hasNext) loadData(nextCursor, pageIndex + 1)
   }
 
-  const handlePageChange = (page: number) => {
-    setCurrentPage(page)
+  const handlePreviousPage = () => {
+    if (hasPrevious) loadData(prevCursor, pageIndex - 1)
   }
 
   const handlePageSizeChange = (size: number) => {
     setPageSize(size)
-    setCurrentPage(0)
   }
 
   const handleExport = () => {
@@ -205,7 +215,7 @@ export default function VehicleEntryExitPage() {
             <Download className="h-4 w-4 mr-2" />
             Xuất Excel
           </Button>
-          <Button onClick={loadData} variant="outline" className="shadow-sm hover:shadow-md transition-all duration-200">
+          <Button onClick={() => loadData()} variant="outline" className="shadow-sm hover:shadow-md transition-all duration-200">
             <RefreshCw className="h-4 w-4 mr-2" />
             Làm mới
           </Button>
@@ -251,7 +261,7 @@ export default function VehicleEntryExitPage() {
           <Button 
             variant="outline" 
             size="sm" 
-            onClick={loadData} 
+            onClick={() => loadData()} 
             className="flex items-center gap-2 shadow-sm hover:shadow-md transition-all duration-200 hover:bg-blue-50 hover:border-blue-300"
           >
             <RefreshCw className="h-4 w-4" />
@@ -444,44 +454,28 @@ export default function VehicleEntryExitPage() {
         </div>
 
         {/* Pagination */}
-        {totalPages > 1 && (
+        {(hasNext || hasPrevious) && (
           <div className="flex items-center justify-between px-6 py-4 border-t border-gray-100 bg-gray-50/50">
             <div className="text-sm text-gray-600 flex items-center gap-2">
               <span className="w-2 h-2 bg-gray-400 rounded-full"></span>
-              Hiển thị <span className="font-medium text-gray-800">{currentPage * pageSize + 1}</span> đến <span className="font-medium text-gray-800">{Math.min((currentPage + 1) * pageSize, totalElements)}</span> của <span className="font-medium text-gray-800">{totalElements}</span> bản ghi
+              Hiển thị <span className="font-medium text-gray-800">{pageIndex * pageSize + 1}</span> đến <span className="font-medium text-gray-800">{pageIndex * pageSize + logs.length}</span> của <span className="font-medium text-gray-800">{totalElements}</span> bản ghi
             </div>
             <div className="flex items-center gap-2">
               <Button
                 variant="outline"
                 size="sm"
-                onClick={() => handlePageChange(currentPage - 1)}
-                disabled={currentPage === 0}
+                onClick={handlePreviousPage}
+                disabled={!hasPrevious || loading}
                 className="shadow-sm hover:shadow-md transition-all duration-200"
               >
                 ← Trước
               </Button>
-              <div className="flex items-center gap-1">
-                {Array.from({ length: Math.min(5, totalPages) }, (_, i) => {
-                  const page = currentPage < 3 ? i : currentPage - 2 + i
-                  if (page >= totalPages) return null
-                  return (
-                    <Button
-                      key={page}
-                      variant={currentPage === page ? "default" : "outline"}
-                      size="sm"
-                      onClick={() => handlePageChange(page)}
-                      className="w-9 h-9 p-0 shadow-sm hover:shadow-md transition-all duration-200"
-                    >
-                      {page + 1}
-                    </Button>
-                  )
-                })}
-              </div>
+              <span className="text-sm text-gray-600 px-2">Trang {pageIndex + 1}</span>
               <Button
                 variant="outline"
                 size="sm"
-                onClick={() => handlePageChange(currentPage + 1)}
-                disabled={currentPage >= totalPages - 1}
+                onClick={handleNextPage}
+                disabled={!hasNext || loading}
                 className="shadow-sm hover:shadow-md transition-all duration-200"
               >
                 Sau →
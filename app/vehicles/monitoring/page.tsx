@@ -126,28 +126,7 @@ export default function VehicleMonitoringPage() {
       // Set the new log as selected to show its details
       setSelectedLog(newLogEntry)
       
-      // Refresh logs in the background to get the real data from server
-      setTimeout(async () => {
-        try {
-          const [logsData] = await Promise.all([
-            vehicleLogApi.getTodayLogs(0, 50)
-          ])
-          setLogs(logsData.content)
-          
-          // Try to find and select the real log entry that matches our synthetic one
-          const realLogEntry = logsData.content.find(log => 
-            log.licensePlateNumber === licensePlateNumber &&
-            log.type === type &&
-            Math.abs(new Date(log.entryExitTime).getTime() - new Date(timestamp).getTime()) < 60000 // Within 1 minute
-          )
-          
-          if (realLogEntry) {
-            setSelectedLog(realLogEntry)
-          }
-        } catch (error) {
-          console.error('Error refreshing logs:', error)
-        }
-      }, 2000) // Refresh after 2 seconds
+      // The stored log arrives on the live stream and replaces this entry (see handleLiveLog)
       
       toast({
         title: "Thông tin quân nhân",
@@ -167,6 +146,25 @@ export default function VehicleMonitoringPage() {
     }
   }
 
+  // Same vehicle check as a synthetic entry added above: same plate and type within a minute
+  const isSameCheck = (synthetic: VehicleLog, log: VehicleLog) => {
+    return synthetic.id.startsWith('temp-') &&
+      synthetic.licensePlateNumber === log.licensePlateNumber &&
+      synthetic.type === log.type &&
+      Math.abs(new Date(synthetic.entryExitTime).getTime() - new Date(log.entryExitTime).getTime()) < 60000
+  }
+
+  // Logs created on the server, pushed as they are stored
+  const handleLiveLog = (log: VehicleLog) => {
+    setLogs(prevLogs => {
+      if (prevLogs.some(existing => existing.id === log.id)) return prevLogs
+      return [log, ...prevLogs.filter(existing => !isSameCheck(existing, log))].sort((a, b) =>
+        new Date(b.entryExitTime).getTime() - new Date(a.entryExitTime).getTime()
+      )
+    })
+    setSelectedLog(prevSelected => prevSelected && isSameCheck(prevSelected, log) ? log : prevSelected)
+  }
+
   // Initialize WebSocket connection
   const { isConnected, connectionError, reconnect } = useWebSocket(handleVehicleCheck)
 
@@ -178,8 +176,12 @@ export default function VehicleMonitoringPage() {
       setCurrentTime(new Date())
     }, 1000)
     
+    // Reload when the stream could not replay the logs missed while disconnected
+    const unsubscribe = vehicleLogApi.subscribeVehicleLogs({}, handleLiveLog, loadData)
+    
     return () => {
       clearInterval(clockInterval)
+      unsubscribe()
     }
   }, [])
 
@@ -200,7 +202,7 @@ export default function VehicleMonitoringPage() {
       // Debug:('Loading today\'s vehicle logs...')
       
       const [logsData, statsData] = await Promise.all([
-        vehicleLogApi.getTodayLogs(0, 100), // Increased size to get more today's logs
+        vehicleLogApi.scrollVehicleLogs('today', { size: 100 }), // Newest 100; later logs arrive on the stream
         vehicleLogApi.getTodayStatistics()
       ])
       
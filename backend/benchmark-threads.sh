@@ -0,0 +1,90 @@
+#!/bin/bash
+
+# Compare request handling on platform threads (default) and virtual threads.
+#
+# Builds the API and the gate load test once, then for each mode starts the API against the
+# local database, runs the same mixed load and prints the throughput and latency summary:
+#   - gate checks from ../loadtest: every car is a registered plate taken from the allow-list,
+#     read once at entry and once at exit, so each check is a status UPDATE plus a log INSERT
+#     rather than an in-memory answer for a plate already inside
+#   - dashboard polling with `hey` (https://github.com/rakyll/hey)
+# Requires PostgreSQL on localhost:5432 with approved vehicles, and `hey` on the PATH.
+# Gate checks change vehicle statuses and write log rows; use a database you can reset.
+# A plate picked again while its car is still inside is denied from memory, so keep the
+# arrival rate well below (approved vehicles / 0.5 s dwell); the report's approved/rejected
+# counts show how many checks took the database path.
+#
+# Usage: TOKEN=<jwt> ./benchmark-threads.sh [cars-per-second] [duration-s]
+#   TOKEN is the token from POST /api/auth/login; the allow-list and the dashboard need it
+
+set -e
+
+CARS_PER_SECOND=${1:-100}
+DURATION_S=${2:-60}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+JAR=target/vehicle-management-api-0.0.1-SNAPSHOT.jar
+LOADTEST_JAR=../loadtest/target/gate-loadtest-0.0.1-SNAPSHOT.jar
+
+if [ -z "$TOKEN" ]; then
+    echo "TOKEN is required: log in with POST /api/auth/login and pass the returned token"
+    exit 1
+fi
+
+if ! command -v hey > /dev/null; then
+    echo "hey is required: go install github.com/rakyll/hey@latest"
+    exit 1
+fi
+
+echo "🏗️ Building..."
+mvn -q -B package -DskipTests
+(cd ../loadtest && mvn -q -B package)
+
+# One reading per passage and no unknown or misread plates, so every check reaches the database
+gate_load() {
+    java -jar "$LOADTEST_JAR" --base-url="$BASE_URL" --token="$TOKEN" \
+        --cars-per-second="$1" --duration-s="$2" --resends=1-1 --resend-interval-ms=0 \
+        --dwell-ms=500 --unknown-ratio=0 --ocr-noise=0 --subscribers=0 "${@:3}"
+}
+
+run_mode() {
+    local mode=$1
+    local virtual=$2
+
+    echo ""
+    echo "=== ${mode} threads (spring.threads.virtual.enabled=${virtual}) ==="
+    java -jar "$JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$virtual" \
+        --logging.level.com.vehiclemanagement=WARN --logging.level.org.springframework.web=WARN \
+        --logging.level.org.hibernate.SQL=WARN --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN \
+        --gate.dedup.window-ms=0 > "benchmark-${mode}.log" 2>&1 &
+    local pid=$!
+
+    until curl -sf "${BASE_URL}/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    # Warm up JIT and connection pool
+    gate_load 20 10 > /dev/null
+
+    hey -z "${DURATION_S}s" -c 100 -H "Authorization: Bearer ${TOKEN}" \
+        "${BASE_URL}/api/vehicle-logs/statistics/today" > "benchmark-${mode}-dashboard.txt" &
+    local dashboard=$!
+
+    gate_load "$CARS_PER_SECOND" "$DURATION_S" --report="benchmark-${mode}-gate.txt" > /dev/null
+
+    wait "$dashboard"
+
+    echo "Gate checks:"
+    cat "benchmark-${mode}-gate.txt"
+    echo "Dashboard:"
+    grep -E "Requests/sec|Average|99%|\[[0-9]+\]" "benchmark-${mode}-dashboard.txt"
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+run_mode platform false
+run_mode virtual true
+
+echo ""
+echo "✅ Full reports: benchmark-*-gate.txt, benchmark-*-dashboard.txt"
@@ -0,0 +1,75 @@
+package com.vehiclemanagement.benchmark;
+
+import com.vehiclemanagement.util.LicensePlateUtil;
+import com.vehiclemanagement.util.PlateMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory plate resolution as VehicleAccessIndex does it: normalize, exact map lookup,
+ * and the OCR-tolerant PlateMatcher fallback for misread plates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlateLookupBenchmark {
+
+    @Param({"1000", "100000"})
+    private int vehicles;
+
+    private final Map<String, String> entriesByPlate = new ConcurrentHashMap<>();
+    private final PlateMatcher plateMatcher = new PlateMatcher();
+    private String[] detections;
+    private String[] misreads;
+
+    @Setup
+    public void setUp() {
+        List<String> plates = Plates.canonical(vehicles, 11);
+        plates.forEach(plate -> {
+            entriesByPlate.put(plate, plate);
+            plateMatcher.add(plate);
+        });
+        detections = new String[1024];
+        misreads = new String[1024];
+        for (int i = 0; i < detections.length; i++) {
+            String plate = plates.get(i % plates.size());
+            detections[i] = Plates.formatted(plate, i);
+            // Last digit read as a letter, e.g. 8 -> B, 0 -> O
+            char last = plate.charAt(plate.length() - 1);
+            char misread = last == '8' ? 'B' : last == '0' ? 'O' : last == '5' ? 'S' : last == '1' ? 'I' : 'X';
+            misreads[i] = plate.substring(0, plate.length() - 1) + misread;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String exactLookup(Cursor cursor) {
+        return entriesByPlate.get(LicensePlateUtil.normalize(detections[cursor.next++ & 1023]));
+    }
+
+    @Benchmark
+    public PlateMatcher.Match fuzzyMatch(Cursor cursor) {
+        return plateMatcher.match(misreads[cursor.next++ & 1023]);
+    }
+}
@@ -0,0 +1,55 @@
+package com.vehiclemanagement.benchmark;
+
+import com.vehiclemanagement.util.LicensePlateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plate canonicalization on the gate hot path: the original regex implementation against
+ * LicensePlateUtil.normalize. Run with -prof gc to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlateNormalizationBenchmark {
+
+    @Param({"canonical", "formatted"})
+    private String input;
+
+    private String[] plates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> canonical = Plates.canonical(1024, 7);
+        plates = new String[canonical.size()];
+        for (int i = 0; i < plates.length; i++) {
+            plates[i] = "canonical".equals(input) ? canonical.get(i) : Plates.formatted(canonical.get(i), i);
+        }
+    }
+
+    @Benchmark
+    public String regex() {
+        return plates[next++ & 1023].replaceAll("[-._\\s]", "").toUpperCase();
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return LicensePlateUtil.normalize(plates[next++ & 1023]);
+    }
+}
@@ -0,0 +1,127 @@
+package com.vehiclemanagement.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plate lookup in PostgreSQL: the original expression over REPLACE(UPPER(...)), which cannot
+ * use an index, against the indexed license_plate_normalized column added in V33.
+ *
+ * Uses -Dbenchmark.jdbc.url/user/password if given, otherwise a throwaway container.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PlateSqlLookupBenchmark {
+
+    private static final String REPLACE_LOOKUP =
+            "SELECT id FROM bench_vehicles WHERE " +
+            "REPLACE(REPLACE(REPLACE(REPLACE(UPPER(license_plate), '-', ''), '.', ''), ' ', ''), '_', '') = " +
+            "REPLACE(REPLACE(REPLACE(REPLACE(UPPER(?), '-', ''), '.', ''), ' ', ''), '_', '')";
+
+    private static final String INDEXED_LOOKUP =
+            "SELECT id FROM bench_vehicles WHERE license_plate_normalized = ?";
+
+    @Param({"1000", "50000"})
+    private int vehicles;
+
+    private PostgreSQLContainer<?> container;
+    private Connection connection;
+    private PreparedStatement replaceLookup;
+    private PreparedStatement indexedLookup;
+    private List<String> plates;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc.url");
+        if (url == null) {
+            container = new PostgreSQLContainer<>("postgres:15-alpine");
+            container.start();
+            connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        } else {
+            connection = DriverManager.getConnection(url,
+                    System.getProperty("benchmark.jdbc.user", "postgres"),
+                    System.getProperty("benchmark.jdbc.password", "password"));
+        }
+
+        plates = Plates.canonical(vehicles, 13);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_vehicles");
+            statement.execute("CREATE TABLE bench_vehicles (" +
+                    "id BIGSERIAL PRIMARY KEY, " +
+                    "license_plate VARCHAR(20) NOT NULL, " +
+                    "license_plate_normalized VARCHAR(20) NOT NULL UNIQUE)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_vehicles (license_plate, license_plate_normalized) VALUES (?, ?)")) {
+            for (int i = 0; i < plates.size(); i++) {
+                insert.setString(1, Plates.formatted(plates.get(i), i));
+                insert.setString(2, plates.get(i));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE bench_vehicles");
+        }
+
+        replaceLookup = connection.prepareStatement(REPLACE_LOOKUP);
+        indexedLookup = connection.prepareStatement(INDEXED_LOOKUP);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_vehicles");
+        }
+        connection.close();
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public long replaceLookup() throws SQLException {
+        String plate = plates.get(next++ % plates.size());
+        replaceLookup.setString(1, Plates.formatted(plate, next));
+        return firstId(replaceLookup);
+    }
+
+    @Benchmark
+    public long indexedLookup() throws SQLException {
+        String plate = plates.get(next++ % plates.size());
+        indexedLookup.setString(1, plate);
+        return firstId(indexedLookup);
+    }
+
+    private static long firstId(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        }
+    }
+}
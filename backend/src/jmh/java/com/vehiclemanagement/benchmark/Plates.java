@@ -0,0 +1,54 @@
+package com.vehiclemanagement.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic plate fixtures shared by the benchmarks.
+ */
+final class Plates {
+
+    private Plates() {
+    }
+
+    /**
+     * Distinct canonical plates in the Vietnamese layout (e.g. "76M51443")
+     */
+    static List<String> canonical(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> plates = new ArrayList<>(count);
+        Set<String> seen = new HashSet<>();
+        while (plates.size() < count) {
+            StringBuilder plate = new StringBuilder();
+            plate.append(10 + random.nextInt(89));
+            plate.append((char) ('A' + random.nextInt(26)));
+            plate.append(random.nextInt(10));
+            int digits = random.nextBoolean() ? 4 : 5;
+            for (int i = 0; i < digits; i++) {
+                plate.append(random.nextInt(10));
+            }
+            if (seen.add(plate.toString())) {
+                plates.add(plate.toString());
+            }
+        }
+        return plates;
+    }
+
+    /**
+     * The same plate as the OCR or an operator would type it ("76m5-144.3")
+     */
+    static String formatted(String canonical, int variant) {
+        String dashed = canonical.substring(0, 4) + "-" + canonical.substring(4);
+        switch (variant % 3) {
+            case 0:
+                return dashed;
+            case 1:
+                return dashed.toLowerCase();
+            default:
+                return canonical.substring(0, 4) + "-" + canonical.substring(4, 7) + "." + canonical.substring(7);
+        }
+    }
+}
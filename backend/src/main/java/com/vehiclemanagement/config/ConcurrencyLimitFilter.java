@@ -0,0 +1,47 @@
+package com.vehiclemanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Caps the number of API requests running at once.
+ *
+ * With virtual threads Jetty no longer bounds concurrency, so a rush would have every
+ * request queue inside HikariCP and time out there after 30s. Requests wait here instead,
+ * in arrival order, for a permit of the shared ConcurrencyLimiter, and get a fast 503 if
+ * none frees up within the acquire timeout.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private final ConcurrencyLimiter limiter;
+    
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        
+        if (!limiter.tryAcquire()) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, please retry");
+            return;
+        }
+        
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.vehiclemanagement.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permits for work that needs a database connection, sized to the connection pool.
+ *
+ * Shared by the HTTP requests (ConcurrencyLimitFilter) and the STOMP gate checks, so the
+ * two paths together never hold more connections than HikariCP has. Waiters are served in
+ * arrival order and give up after the acquire timeout.
+ */
+public class ConcurrencyLimiter {
+    
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    
+    public ConcurrencyLimiter(int maxConcurrent, long acquireTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+    
+    /**
+     * Wait up to the acquire timeout for a permit; call release() once done if this returns true
+     */
+    public boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    public void release() {
+        permits.release();
+    }
+    
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+    
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+}
@@ -0,0 +1,47 @@
+package com.vehiclemanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Extra wiring for spring.threads.virtual.enabled=true.
+ *
+ * Spring Boot already moves Jetty requests and @Scheduled jobs onto virtual threads;
+ * WebSocketConfig does the same for the STOMP channels. This adds the limiter that keeps
+ * the now unbounded concurrency of both within what the connection pool can serve.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(
+            @Value("${app.concurrency-limit.max-concurrent-requests:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrentRequests,
+            @Value("${app.concurrency-limit.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+            MeterRegistry meterRegistry) {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(maxConcurrentRequests, acquireTimeoutMs);
+        Gauge.builder("http.concurrency.limit.available", limiter, ConcurrencyLimiter::getAvailablePermits)
+                .description("Request and STOMP gate-check permits currently free")
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.limit.queued", limiter, ConcurrencyLimiter::getQueueLength)
+                .description("Requests and STOMP gate checks waiting for a permit")
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(concurrencyLimiter));
+        registration.addUrlPatterns("/api/*");
+        // Before security so waiting requests do not hold anything else
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
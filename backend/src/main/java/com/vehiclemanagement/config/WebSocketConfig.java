@@ -1,7 +1,10 @@
 package com.vehiclemanagement.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,12 +13,18 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker to carry the messages back to the client
-        config.enableSimpleBroker("/topic");
+        // "/queue" carries per-session replies to gate checks (/user/queue/gate-check)
+        config.enableSimpleBroker("/topic", "/queue");
         // Designate the "/app" prefix for messages bound for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
+        // Deliver a session's replies and broadcasts in the order they were sent, whatever the outbound executor
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -24,5 +33,40 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*") // Allow all origins for development
                 .withSockJS(); // Enable SockJS fallback options
+        // Handle a session's messages one at a time in arrival order, so a gate PC's entry is
+        // checked before the exit it sent next; different sessions still run in parallel
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreadsEnabled) {
+            // Gate checks take a permit of the ConcurrencyLimiter the HTTP requests use (GateCheckMessageController)
+            registration.taskExecutor(virtualThreadExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreadsEnabled) {
+            registration.taskExecutor(virtualThreadExecutor("ws-outbound-"));
+        }
+    }
+
+    /**
+     * A new virtual thread per message, like VirtualThreadTaskExecutor: no pool size to cap
+     * concurrency and no queue for messages to wait in. ChannelRegistration only takes a
+     * ThreadPoolTaskExecutor, so this is one with no core threads, no limit and no queue.
+     * Per-session order is kept by preserveReceiveOrder/preservePublishOrder, not by the executor.
+     */
+    private ThreadPoolTaskExecutor virtualThreadExecutor(String namePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(Integer.MAX_VALUE);
+        executor.setQueueCapacity(0);
+        executor.setKeepAliveSeconds(1);
+        executor.setThreadNamePrefix(namePrefix);
+        executor.setThreadFactory(Thread.ofVirtual().name(namePrefix, 0).factory());
+        return executor;
     }
 }
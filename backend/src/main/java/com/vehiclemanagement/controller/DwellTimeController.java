@@ -0,0 +1,97 @@
+package com.vehiclemanagement.controller;
+
+import com.vehiclemanagement.dto.DwellIntervalDto;
+import com.vehiclemanagement.dto.DwellStatsDto;
+import com.vehiclemanagement.service.DwellTimeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/dwell")
+@Tag(name = "Dwell Time", description = "Time on site, from entries paired with their exits")
+public class DwellTimeController {
+
+    @Autowired
+    private DwellTimeService dwellTimeService;
+
+    @GetMapping("/by-employee")
+    @Operation(summary = "Dwell time by employee", description = "Completed visits per vehicle owner; unregistered vehicles are grouped under a null key")
+    public ResponseEntity<List<DwellStatsDto>> getByEmployee(
+            @Parameter(description = "First day (yyyy-MM-dd); defaults to 29 days before endDate") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd); defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return statistics(DwellTimeService.GroupBy.EMPLOYEE, startDate, endDate);
+    }
+
+    @GetMapping("/by-department")
+    @Operation(summary = "Dwell time by department", description = "Completed visits per owner's department at the time of entry")
+    public ResponseEntity<List<DwellStatsDto>> getByDepartment(
+            @Parameter(description = "First day (yyyy-MM-dd); defaults to 29 days before endDate") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd); defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return statistics(DwellTimeService.GroupBy.DEPARTMENT, startDate, endDate);
+    }
+
+    @GetMapping("/by-vehicle-type")
+    @Operation(summary = "Dwell time by vehicle type", description = "Completed visits per registered vehicle type (car, motorbike, truck, bus)")
+    public ResponseEntity<List<DwellStatsDto>> getByVehicleType(
+            @Parameter(description = "First day (yyyy-MM-dd); defaults to 29 days before endDate") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd); defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return statistics(DwellTimeService.GroupBy.VEHICLE_TYPE, startDate, endDate);
+    }
+
+    @GetMapping("/by-category")
+    @Operation(summary = "Dwell time by vehicle category", description = "Completed visits of internal and external vehicles")
+    public ResponseEntity<List<DwellStatsDto>> getByCategory(
+            @Parameter(description = "First day (yyyy-MM-dd); defaults to 29 days before endDate") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd); defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return statistics(DwellTimeService.GroupBy.VEHICLE_CATEGORY, startDate, endDate);
+    }
+
+    @GetMapping("/by-day")
+    @Operation(summary = "Dwell time by day", description = "Completed visits per day of entry")
+    public ResponseEntity<List<DwellStatsDto>> getByDay(
+            @Parameter(description = "First day (yyyy-MM-dd); defaults to 29 days before endDate") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd); defaults to today") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return statistics(DwellTimeService.GroupBy.DAY, startDate, endDate);
+    }
+
+    @GetMapping("/overstays")
+    @Operation(summary = "Get overstaying vehicles", description = "Vehicles inside for longer than minHours, longest stay first")
+    public ResponseEntity<Page<DwellIntervalDto>> getOverstays(
+            @Parameter(description = "Minimum time inside, in hours") @RequestParam(defaultValue = "12") long minHours,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(dwellTimeService.getOverstays(Duration.ofHours(minHours), PageRequest.of(page, size)));
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild dwell intervals", description = "Re-pair entries and exits of a date range from the raw logs (after logs were edited or deleted)")
+    public ResponseEntity<Object> rebuildIntervals(
+            @Parameter(description = "First day (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        long written = dwellTimeService.rebuildIntervals(startDate, endDate);
+        return ResponseEntity.ok(new Object() {
+            public final LocalDate from = startDate;
+            public final LocalDate to = endDate;
+            public final long intervalCount = written;
+        });
+    }
+
+    private ResponseEntity<List<DwellStatsDto>> statistics(DwellTimeService.GroupBy groupBy, LocalDate startDate, LocalDate endDate) {
+        LocalDate to = endDate != null ? endDate : LocalDate.now();
+        LocalDate from = startDate != null ? startDate : to.minusDays(29);
+        return ResponseEntity.ok(dwellTimeService.getStatistics(groupBy, from, to));
+    }
+}
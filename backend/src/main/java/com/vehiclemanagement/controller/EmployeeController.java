@@ -6,6 +6,7 @@ import com.vehiclemanagement.entity.Employee;
 import com.vehiclemanagement.exception.ResourceNotFoundException;
 import com.vehiclemanagement.repository.EmployeeRepository;
 import com.vehiclemanagement.service.EmployeeService;
+import com.vehiclemanagement.service.ExcelReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,13 +16,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.MediaType;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -37,6 +43,9 @@ public class EmployeeController {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private ExcelReportService excelReportService;
+
     @GetMapping
     @Operation(summary = "Get all employees with pagination", description = "Retrieve a paginated list of all employees")
     public ResponseEntity<Page<EmployeeDto>> getAllEmployees(
@@ -60,6 +69,17 @@ public class EmployeeController {
         return ResponseEntity.ok(employees);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export employees to Excel", description = "Stream all employees as an XLSX workbook")
+    public ResponseEntity<StreamingResponseBody> exportEmployees() {
+        String filename = "danh_sach_nhan_vien_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
+        StreamingResponseBody body = outputStream -> excelReportService.writeEmployees(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExcelReportService.CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get employee by ID", description = "Retrieve a specific employee by their ID")
     public ResponseEntity<EmployeeDto> getEmployeeById(@PathVariable UUID id) {
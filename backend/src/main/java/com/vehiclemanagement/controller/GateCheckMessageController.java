@@ -0,0 +1,112 @@
+package com.vehiclemanagement.controller;
+
+import com.vehiclemanagement.config.ConcurrencyLimiter;
+import com.vehiclemanagement.dto.VehicleCheckBatchRequest;
+import com.vehiclemanagement.dto.VehicleCheckResponse;
+import com.vehiclemanagement.service.GateCheckDeduplicator;
+import com.vehiclemanagement.service.GateCheckMetrics;
+import com.vehiclemanagement.service.VehicleService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Gate checks over the STOMP connection gate PCs already keep for /topic/vehicle-check.
+ *
+ * Clients send detections to /app/gate-check and subscribe to /user/queue/gate-check;
+ * replies go to the sending session only, so one persistent connection replaces an HTTP
+ * request per detection.
+ *
+ * With virtual threads, checks share the ConcurrencyLimiter of the HTTP requests, so STOMP
+ * traffic cannot exhaust the connection pool either; a check that gets no permit in time is
+ * answered with a busy reply, like the HTTP 503.
+ *
+ * Replies of all detections share the user queue and may arrive in any order, so each one
+ * carries the detection's plate, type and correlation id, failures included.
+ */
+@Controller
+public class GateCheckMessageController {
+    
+    @Autowired
+    private VehicleService vehicleService;
+    
+    @Autowired
+    private GateCheckDeduplicator gateCheckDeduplicator;
+    
+    // Only present with virtual threads; the platform inbound pool bounds concurrency otherwise
+    @Autowired
+    private ObjectProvider<ConcurrencyLimiter> concurrencyLimiter;
+    
+    @MessageMapping("/gate-check")
+    @SendToUser(destinations = "/queue/gate-check", broadcast = false)
+    public VehicleCheckResponse checkVehicle(@Valid @Payload VehicleCheckBatchRequest.Detection detection) {
+        VehicleCheckResponse cached = gateCheckDeduplicator.find(
+                detection.getLicensePlateNumber(), detection.getGateLocation(), detection.getType());
+        if (cached != null) {
+            return reply(cached, detection);
+        }
+        ConcurrencyLimiter limiter = concurrencyLimiter.getIfAvailable();
+        if (limiter == null) {
+            return check(detection);
+        }
+        if (!limiter.tryAcquire()) {
+            return failure("Máy chủ đang bận, vui lòng thử lại", detection);
+        }
+        try {
+            return check(detection);
+        } finally {
+            limiter.release();
+        }
+    }
+    
+    private VehicleCheckResponse check(VehicleCheckBatchRequest.Detection detection) {
+        try {
+            return reply(vehicleService.checkVehicleAccess(detection.getLicensePlateNumber(), detection.getType(),
+                    detection.getGateLocation(), GateCheckMetrics.SOURCE_STOMP), detection);
+        } catch (Exception e) {
+            return failure("Xe không tồn tại hoặc có lỗi xảy ra", detection);
+        }
+    }
+    
+    @MessageExceptionHandler(MethodArgumentNotValidException.class)
+    @SendToUser(destinations = "/queue/gate-check", broadcast = false)
+    public VehicleCheckResponse handleInvalidDetection(MethodArgumentNotValidException ex) {
+        // The payload was read, only validation failed, so it can still be echoed
+        Object target = ex.getBindingResult() != null ? ex.getBindingResult().getTarget() : null;
+        return failure("Dữ liệu nhận dạng không hợp lệ",
+                target instanceof VehicleCheckBatchRequest.Detection detection ? detection : null);
+    }
+    
+    // Only payloads that could not be read at all get here; there is nothing to echo
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/gate-check", broadcast = false)
+    public VehicleCheckResponse handleException(Exception ex) {
+        return failure("Xe không tồn tại hoặc có lỗi xảy ra", null);
+    }
+    
+    private static VehicleCheckResponse failure(String message, VehicleCheckBatchRequest.Detection detection) {
+        if (detection == null) {
+            return new VehicleCheckResponse(false, message, null, null);
+        }
+        VehicleCheckResponse response = new VehicleCheckResponse(false, message,
+                detection.getLicensePlateNumber(), detection.getType());
+        response.setCorrelationId(detection.getCorrelationId());
+        return response;
+    }
+    
+    // Copy, since deduplicated responses are shared between replies
+    private static VehicleCheckResponse reply(VehicleCheckResponse response, VehicleCheckBatchRequest.Detection detection) {
+        VehicleCheckResponse copy = new VehicleCheckResponse(response.isApproved(), response.getMessage(),
+                response.getLicensePlateNumber(), response.getType(), response.getImagePath());
+        copy.setMatchedLicensePlate(response.getMatchedLicensePlate());
+        copy.setMatchConfidence(response.getMatchConfidence());
+        copy.setCorrelationId(detection.getCorrelationId());
+        return copy;
+    }
+}
@@ -0,0 +1,42 @@
+package com.vehiclemanagement.controller;
+
+import com.vehiclemanagement.dto.OccupancyDto;
+import com.vehiclemanagement.service.OccupancyTracker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/occupancy")
+@Tag(name = "Occupancy", description = "Vehicles currently inside, kept live from entry/exit events")
+public class OccupancyController {
+    
+    @Autowired
+    private OccupancyTracker occupancyTracker;
+    
+    @GetMapping
+    @Operation(summary = "Get live occupancy", description = "Vehicles inside per gate area and vehicle category, served from memory; changes are also pushed to /topic/occupancy")
+    public ResponseEntity<OccupancyDto> getOccupancy() {
+        return ResponseEntity.ok(occupancyTracker.getOccupancy());
+    }
+    
+    @GetMapping("/vehicles")
+    @Operation(summary = "Get vehicles inside", description = "Plates currently inside, most recent entry first")
+    public ResponseEntity<List<OccupancyDto.PresentVehicle>> getPresentVehicles(
+            @Parameter(description = "Only vehicles that entered through this gate") @RequestParam(required = false) String gateLocation) {
+        return ResponseEntity.ok(occupancyTracker.getPresentVehicles(gateLocation));
+    }
+    
+    @GetMapping("/vehicles/{licensePlate}")
+    @Operation(summary = "Check if a vehicle is inside", description = "404 if the plate is not inside")
+    public ResponseEntity<OccupancyDto.PresentVehicle> getPresentVehicle(@PathVariable String licensePlate) {
+        return occupancyTracker.findPresentVehicle(licensePlate)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
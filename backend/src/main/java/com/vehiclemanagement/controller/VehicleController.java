@@ -1,10 +1,14 @@
 package com.vehiclemanagement.controller;
 
+import com.vehiclemanagement.dto.GateAllowListDto;
 import com.vehiclemanagement.dto.VehicleDto;
 import com.vehiclemanagement.dto.VehicleCreateResponse;
+import com.vehiclemanagement.dto.VehicleCheckBatchRequest;
 import com.vehiclemanagement.dto.VehicleCheckResponse;
 import com.vehiclemanagement.dto.VehicleStatisticsDto;
 import com.vehiclemanagement.entity.Vehicle;
+import com.vehiclemanagement.service.ExcelReportService;
+import com.vehiclemanagement.service.GateCheckDeduplicator;
 import com.vehiclemanagement.service.VehicleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,11 +19,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,6 +42,12 @@ public class VehicleController {
     @Autowired
     private VehicleService vehicleService;
     
+    @Autowired
+    private GateCheckDeduplicator gateCheckDeduplicator;
+    
+    @Autowired
+    private ExcelReportService excelReportService;
+    
     @GetMapping
     @Operation(summary = "Get all vehicles", description = "Retrieve all vehicles with optional pagination and sorting")
     public ResponseEntity<Page<VehicleDto>> getAllVehicles(
@@ -53,6 +70,17 @@ public class VehicleController {
         return ResponseEntity.ok(vehicles);
     }
     
+    @GetMapping("/export")
+    @Operation(summary = "Export vehicles to Excel", description = "Stream all vehicles with their owners as an XLSX workbook")
+    public ResponseEntity<StreamingResponseBody> exportVehicles() {
+        String filename = "danh_sach_xe_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx";
+        StreamingResponseBody body = outputStream -> excelReportService.writeVehicles(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExcelReportService.CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get vehicle by ID", description = "Retrieve a specific vehicle by its ID")
     public ResponseEntity<VehicleDto> getVehicleById(@PathVariable UUID id) {
@@ -193,9 +221,16 @@ public class VehicleController {
             @Parameter(description = "License plate number to check", required = true)
             @RequestParam String licensePlateNumber,
             @Parameter(description = "Type of access: entry or exit", required = true)
-            @RequestParam String type) {
+            @RequestParam String type,
+            @Parameter(description = "Gate the detection came from (defaults to the main gate)")
+            @RequestParam(required = false) String gateLocation) {
         try {
-            VehicleCheckResponse response = vehicleService.checkVehicleAccess(licensePlateNumber, type);
+            // Camera resends of the same plate at the same gate are answered without re-running the check
+            VehicleCheckResponse cached = gateCheckDeduplicator.find(licensePlateNumber, gateLocation, type);
+            if (cached != null) {
+                return ResponseEntity.ok(cached);
+            }
+            VehicleCheckResponse response = vehicleService.checkVehicleAccess(licensePlateNumber, type, gateLocation);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             VehicleCheckResponse response = new VehicleCheckResponse(false, "Xe không tồn tại hoặc có lỗi xảy ra", licensePlateNumber, type);
@@ -203,6 +238,27 @@ public class VehicleController {
         }
     }
     
+    @PostMapping("/check-vehicle/batch")
+    @Operation(summary = "Check vehicle access in batch", description = "Check a burst of detections from multiple gate cameras in one request; results are returned in request order")
+    public ResponseEntity<List<VehicleCheckResponse>> checkVehicleBatch(@Valid @RequestBody VehicleCheckBatchRequest request) {
+        List<VehicleCheckResponse> responses = vehicleService.checkVehicleAccessBatch(request.getDetections());
+        return ResponseEntity.ok(responses);
+    }
+    
+    @GetMapping("/allow-list")
+    @Operation(summary = "Get gate allow-list", description = "Authorized plates for offline gate decisions; pass the last version as 'since' to get only the changes")
+    public ResponseEntity<GateAllowListDto> getGateAllowList(
+            @Parameter(description = "Version token from the previous sync")
+            @RequestParam(required = false) String since,
+            WebRequest webRequest) {
+        String version = vehicleService.getGateAllowListVersion();
+        if (webRequest.checkNotModified(version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version).build();
+        }
+        GateAllowListDto allowList = vehicleService.getGateAllowList(since);
+        return ResponseEntity.ok().eTag(allowList.getVersion()).body(allowList);
+    }
+    
     @PostMapping("/upload-image/{vehicleId}")
     @Operation(summary = "Upload vehicle image", description = "Upload an image for a specific vehicle")
     public ResponseEntity<String> uploadVehicleImage(
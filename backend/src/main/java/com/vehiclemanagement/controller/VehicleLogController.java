@@ -1,21 +1,39 @@
 package com.vehiclemanagement.controller;
 
+import com.vehiclemanagement.dto.CursorPageDto;
+import com.vehiclemanagement.dto.VehicleLogBulkRequest;
+import com.vehiclemanagement.dto.VehicleLogBulkResponse;
 import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.dto.VehicleLogFilter;
 import com.vehiclemanagement.entity.VehicleLog;
+import com.vehiclemanagement.service.ExcelReportService;
+import com.vehiclemanagement.service.VehicleLogExportService;
+import com.vehiclemanagement.service.VehicleLogIngestService;
 import com.vehiclemanagement.service.VehicleLogService;
+import com.vehiclemanagement.service.VehicleLogStream;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,6 +45,18 @@ public class VehicleLogController {
     @Autowired
     private VehicleLogService vehicleLogService;
     
+    @Autowired
+    private VehicleLogExportService vehicleLogExportService;
+    
+    @Autowired
+    private ExcelReportService excelReportService;
+    
+    @Autowired
+    private VehicleLogIngestService vehicleLogIngestService;
+    
+    @Autowired
+    private VehicleLogStream vehicleLogStream;
+    
     @GetMapping
     @Operation(summary = "Get all vehicle logs", description = "Retrieve all vehicle logs with optional pagination and sorting")
     public ResponseEntity<Page<VehicleLogDto>> getAllVehicleLogs(
@@ -42,6 +72,15 @@ public class VehicleLogController {
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/cursor")
+    @Operation(summary = "Get all vehicle logs with a cursor", description = "Keyset-paginated logs, newest first; page through with nextCursor/prevCursor")
+    public ResponseEntity<CursorPageDto<VehicleLogDto>> getAllVehicleLogsByCursor(
+            @Parameter(description = "Cursor from a previous page (nextCursor/prevCursor); omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Also return the total number of matching logs") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(vehicleLogService.scrollAllVehicleLogs(cursor, size, includeTotal));
+    }
+    
     @GetMapping("/list")
     @Operation(summary = "Get all vehicle logs as list", description = "Retrieve all vehicle logs without pagination")
     public ResponseEntity<List<VehicleLogDto>> getAllVehicleLogsList() {
@@ -49,6 +88,66 @@ public class VehicleLogController {
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/export")
+    @Operation(summary = "Export vehicle logs", description = "Stream vehicle logs matching the search filters as CSV, NDJSON or XLSX, newest first")
+    public ResponseEntity<StreamingResponseBody> exportVehicleLogs(
+            @Parameter(description = "Output format (csv/ndjson/xlsx)") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "License plate number") @RequestParam(required = false) String licensePlate,
+            @Parameter(description = "Log type (entry/exit)") @RequestParam(required = false) String type,
+            @Parameter(description = "Vehicle type (internal/external)") @RequestParam(required = false) String vehicleType,
+            @Parameter(description = "Driver name") @RequestParam(required = false) String driverName,
+            @Parameter(description = "Start date and time") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date and time") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        
+        VehicleLogFilter filter = VehicleLogFilter.builder()
+                .licensePlate(licensePlate)
+                .type(parseLogType(type))
+                .vehicleType(parseVehicleCategory(vehicleType))
+                .driverName(driverName)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+        String filename = "nhat_ky_xe_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        
+        MediaType contentType;
+        StreamingResponseBody body;
+        switch (format.toLowerCase()) {
+            case "csv":
+                filename += ".csv";
+                contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+                body = outputStream -> vehicleLogExportService.export(filter, VehicleLogExportService.Format.CSV, outputStream);
+                break;
+            case "ndjson":
+                filename += ".ndjson";
+                contentType = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+                body = outputStream -> vehicleLogExportService.export(filter, VehicleLogExportService.Format.NDJSON, outputStream);
+                break;
+            case "xlsx":
+                filename += ".xlsx";
+                contentType = MediaType.parseMediaType(ExcelReportService.CONTENT_TYPE);
+                body = outputStream -> excelReportService.writeVehicleLogs(filter, outputStream);
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid export format: " + format + ". Valid values are: csv, ndjson, xlsx");
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream new vehicle logs", description = "Server-sent events: a 'vehicle-log' event per log created from now on; reconnecting with Last-Event-ID replays the missed ones, or sends a 'reset' event when they are no longer buffered")
+    public SseEmitter streamVehicleLogs(
+            @Parameter(description = "Only logs of this gate") @RequestParam(required = false) String gateLocation,
+            @Parameter(description = "Log type (entry/exit)") @RequestParam(required = false) String type,
+            @Parameter(description = "Vehicle category (internal/external)") @RequestParam(required = false) String vehicleType,
+            @Parameter(description = "Resume after this event id, for clients that cannot set the Last-Event-ID header") @RequestParam(required = false) String lastEventId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader) {
+        VehicleLogStream.Filter filter = new VehicleLogStream.Filter(gateLocation, parseLogType(type), parseVehicleCategory(vehicleType));
+        return vehicleLogStream.subscribe(filter, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get vehicle log by ID", description = "Retrieve a specific vehicle log by its ID")
     public ResponseEntity<VehicleLogDto> getVehicleLogById(@PathVariable UUID id) {
@@ -67,6 +166,15 @@ public class VehicleLogController {
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/today/cursor")
+    @Operation(summary = "Get today's vehicle logs with a cursor", description = "Keyset-paginated logs for today, newest first")
+    public ResponseEntity<CursorPageDto<VehicleLogDto>> getTodayLogsByCursor(
+            @Parameter(description = "Cursor from a previous page (nextCursor/prevCursor); omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Also return the total number of matching logs") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(vehicleLogService.scrollTodayLogs(cursor, size, includeTotal));
+    }
+    
     @GetMapping("/weekly")
     @Operation(summary = "Get this week's vehicle logs", description = "Retrieve vehicle logs for the current week")
     public ResponseEntity<Page<VehicleLogDto>> getWeeklyLogs(
@@ -78,6 +186,15 @@ public class VehicleLogController {
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/weekly/cursor")
+    @Operation(summary = "Get this week's vehicle logs with a cursor", description = "Keyset-paginated logs for the current week, newest first")
+    public ResponseEntity<CursorPageDto<VehicleLogDto>> getWeeklyLogsByCursor(
+            @Parameter(description = "Cursor from a previous page (nextCursor/prevCursor); omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Also return the total number of matching logs") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(vehicleLogService.scrollWeeklyLogs(cursor, size, includeTotal));
+    }
+    
     @GetMapping("/monthly")
     @Operation(summary = "Get this month's vehicle logs", description = "Retrieve vehicle logs for the current month")
     public ResponseEntity<Page<VehicleLogDto>> getMonthlyLogs(
@@ -89,6 +206,15 @@ public class VehicleLogController {
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/monthly/cursor")
+    @Operation(summary = "Get this month's vehicle logs with a cursor", description = "Keyset-paginated logs for the current month, newest first")
+    public ResponseEntity<CursorPageDto<VehicleLogDto>> getMonthlyLogsByCursor(
+            @Parameter(description = "Cursor from a previous page (nextCursor/prevCursor); omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Also return the total number of matching logs") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(vehicleLogService.scrollMonthlyLogs(cursor, size, includeTotal));
+    }
+    
     @GetMapping("/date-range")
     @Operation(summary = "Get vehicle logs by date range", description = "Retrieve vehicle logs within a specific date range")
     public ResponseEntity<Page<VehicleLogDto>> getVehicleLogsByDateRange(
@@ -102,6 +228,17 @@ public class VehicleLogController {
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/date-range/cursor")
+    @Operation(summary = "Get vehicle logs by date range with a cursor", description = "Keyset-paginated logs within a date range, newest first")
+    public ResponseEntity<CursorPageDto<VehicleLogDto>> getVehicleLogsByDateRangeByCursor(
+            @Parameter(description = "Start date and time") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date and time") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Cursor from a previous page (nextCursor/prevCursor); omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Also return the total number of matching logs") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(vehicleLogService.scrollVehicleLogs(null, null, null, null, startDate, endDate, cursor, size, includeTotal));
+    }
+    
     @GetMapping("/search")
     @Operation(summary = "Search vehicle logs", description = "Search vehicle logs with various filters")
     public ResponseEntity<Page<VehicleLogDto>> searchVehicleLogs(
@@ -114,31 +251,28 @@ public class VehicleLogController {
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
         
-        // Convert string parameters to enums, handling both uppercase and lowercase
-        VehicleLog.LogType logType = null;
-        if (type != null && !type.trim().isEmpty()) {
-            try {
-                logType = VehicleLog.LogType.valueOf(type.toLowerCase());
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Invalid log type: " + type + ". Valid values are: entry, exit");
-            }
-        }
-        
-        VehicleLog.VehicleCategory vehicleCategoryType = null;
-        if (vehicleType != null && !vehicleType.trim().isEmpty()) {
-            try {
-                vehicleCategoryType = VehicleLog.VehicleCategory.valueOf(vehicleType.toLowerCase());
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Invalid vehicle type: " + vehicleType + ". Valid values are: internal, external");
-            }
-        }
-        
         Pageable pageable = PageRequest.of(page, size, Sort.by("entryExitTime").descending());
         Page<VehicleLogDto> logs = vehicleLogService.searchVehicleLogs(
-                licensePlate, logType, vehicleCategoryType, driverName, startDate, endDate, pageable);
+                licensePlate, parseLogType(type), parseVehicleCategory(vehicleType), driverName, startDate, endDate, pageable);
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/search/cursor")
+    @Operation(summary = "Search vehicle logs with a cursor", description = "Keyset-paginated search with the same filters as /search, newest first")
+    public ResponseEntity<CursorPageDto<VehicleLogDto>> searchVehicleLogsByCursor(
+            @Parameter(description = "License plate number") @RequestParam(required = false) String licensePlate,
+            @Parameter(description = "Log type (entry/exit)") @RequestParam(required = false) String type,
+            @Parameter(description = "Vehicle type (internal/external)") @RequestParam(required = false) String vehicleType,
+            @Parameter(description = "Driver name") @RequestParam(required = false) String driverName,
+            @Parameter(description = "Start date and time") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date and time") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(description = "Cursor from a previous page (nextCursor/prevCursor); omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Also return the total number of matching logs") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(vehicleLogService.scrollVehicleLogs(licensePlate, parseLogType(type),
+                parseVehicleCategory(vehicleType), driverName, startDate, endDate, cursor, size, includeTotal));
+    }
+    
     @PostMapping
     @Operation(summary = "Create vehicle log", description = "Create a new vehicle entry/exit log")
     public ResponseEntity<VehicleLogDto> createVehicleLog(@RequestBody VehicleLogDto vehicleLogDto) {
@@ -146,6 +280,13 @@ public class VehicleLogController {
         return ResponseEntity.ok(createdLog);
     }
     
+    @PostMapping("/bulk")
+    @Operation(summary = "Bulk create vehicle logs", description = "Sync a gate PC's offline backlog; events already stored (same clientEventId) are skipped and each event's outcome is returned in request order")
+    public ResponseEntity<VehicleLogBulkResponse> createVehicleLogsBulk(@Valid @RequestBody VehicleLogBulkRequest request) {
+        VehicleLogBulkResponse response = vehicleLogIngestService.ingest(request.getEvents());
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{id}")
     @Operation(summary = "Update vehicle log", description = "Update an existing vehicle log")
     public ResponseEntity<VehicleLogDto> updateVehicleLog(@PathVariable UUID id, @RequestBody VehicleLogDto vehicleLogDto) {
@@ -170,6 +311,20 @@ public class VehicleLogController {
         });
     }
     
+    @PostMapping("/statistics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild statistics", description = "Recompute the statistics rollups for a date range from the raw logs (backfills, bulk corrections)")
+    public ResponseEntity<Object> rebuildStatistics(
+            @Parameter(description = "First day (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        long events = vehicleLogService.rebuildStatistics(startDate, endDate);
+        return ResponseEntity.ok(new Object() {
+            public final LocalDate from = startDate;
+            public final LocalDate to = endDate;
+            public final long eventCount = events;
+        });
+    }
+    
     @GetMapping("/employee-info")
     @Operation(summary = "Get employee info by license plate", description = "Get employee and vehicle information by license plate number and entry/exit type")
     public ResponseEntity<Object> getEmployeeInfoByLicensePlate(
@@ -186,4 +341,27 @@ public class VehicleLogController {
         Object employeeInfo = vehicleLogService.getEmployeeInfoByLicensePlate(licensePlateNumber, logType);
         return ResponseEntity.ok(employeeInfo);
     }
+    
+    // Convert string parameters to enums, handling both uppercase and lowercase
+    private VehicleLog.LogType parseLogType(String type) {
+        if (type == null || type.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return VehicleLog.LogType.valueOf(type.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid log type: " + type + ". Valid values are: entry, exit");
+        }
+    }
+    
+    private VehicleLog.VehicleCategory parseVehicleCategory(String vehicleType) {
+        if (vehicleType == null || vehicleType.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return VehicleLog.VehicleCategory.valueOf(vehicleType.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid vehicle type: " + vehicleType + ". Valid values are: internal, external");
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.vehiclemanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of a keyset-paginated listing")
+public class CursorPageDto<T> {
+
+    private List<T> content;
+
+    @Schema(description = "Requested page size")
+    private int size;
+
+    @Schema(description = "Pass as 'cursor' to get the next (older) page; null on the last page")
+    private String nextCursor;
+
+    @Schema(description = "Pass as 'cursor' to get the previous (newer) page; null on the first page")
+    private String prevCursor;
+
+    private boolean hasNext;
+
+    private boolean hasPrevious;
+
+    @Schema(description = "Total number of matching rows; only computed when includeTotal=true")
+    private Long totalElements;
+}
@@ -0,0 +1,37 @@
+package com.vehiclemanagement.dto;
+
+import com.vehiclemanagement.entity.Vehicle;
+import com.vehiclemanagement.entity.VehicleDwellInterval;
+import com.vehiclemanagement.entity.VehicleLog;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "An entry and the exit paired with it")
+public class DwellIntervalDto {
+
+    private Long id;
+    private String licensePlateNumber;
+    private UUID vehicleId;
+    private UUID employeeId;
+    private String department;
+    private Vehicle.VehicleType vehicleType;
+    private VehicleLog.VehicleCategory vehicleCategory;
+    private LocalDateTime entryTime;
+    private String entryGate;
+    private LocalDateTime exitTime;
+    private String exitGate;
+    private VehicleDwellInterval.Status status;
+
+    @Schema(description = "Time on site; for open intervals, up to now")
+    private long dwellSeconds;
+}
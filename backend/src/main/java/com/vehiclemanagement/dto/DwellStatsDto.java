@@ -0,0 +1,31 @@
+package com.vehiclemanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Time on site for one group (employee, department, vehicle type or day)")
+public class DwellStatsDto {
+
+    @Schema(description = "Group value (employee UUID, department, vehicle type or yyyy-MM-dd); null for vehicles without one")
+    private String key;
+
+    private String label;
+
+    @Schema(description = "Completed visits (entry paired with an exit)")
+    private long visits;
+
+    private long averageSeconds;
+
+    private long medianSeconds;
+
+    private long maxSeconds;
+
+    private long totalSeconds;
+}
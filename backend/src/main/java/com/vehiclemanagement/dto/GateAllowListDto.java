@@ -0,0 +1,32 @@
+package com.vehiclemanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Authorized plates for offline gate decisions, as a full snapshot or a delta")
+public class GateAllowListDto {
+    
+    @Schema(description = "Version token; send it back as 'since' (or If-None-Match) on the next sync", example = "lx3k9a2b-42")
+    private String version;
+    
+    @Schema(description = "True if 'plates' is the complete list and replaces the local copy, false if it is a delta")
+    private boolean full;
+    
+    @Schema(description = "Normalized plates, sorted: the whole list for a snapshot, the added plates for a delta")
+    private List<String> plates;
+    
+    @Schema(description = "Normalized plates to drop from the local copy (delta only)")
+    private List<String> removedPlates;
+    
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,65 @@
+package com.vehiclemanagement.dto;
+
+import com.vehiclemanagement.entity.VehicleLog;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Vehicles currently inside, per gate area and vehicle category")
+public class OccupancyDto {
+
+    @Schema(description = "Vehicles inside in total")
+    private long total;
+
+    private long internal;
+
+    private long external;
+
+    @Schema(description = "Counts per gate area; the area is the gate a vehicle last entered through")
+    private List<GateArea> gates;
+
+    @Schema(description = "Increases with every change; equal versions mean equal counts")
+    private long version;
+
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GateArea {
+
+        @Schema(description = "Gate location as logged; empty for logs without one")
+        private String gateLocation;
+
+        private long total;
+
+        private long internal;
+
+        private long external;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "A vehicle currently inside")
+    public static class PresentVehicle {
+
+        private String licensePlateNumber;
+
+        private String gateLocation;
+
+        private VehicleLog.VehicleCategory vehicleType;
+
+        @Schema(description = "Time of the entry that brought the vehicle in")
+        private LocalDateTime enteredAt;
+    }
+}
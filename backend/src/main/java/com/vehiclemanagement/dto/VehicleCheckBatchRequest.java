@@ -0,0 +1,53 @@
+package com.vehiclemanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch of plate detections from one or more gate cameras")
+public class VehicleCheckBatchRequest {
+
+    @Schema(description = "Detections in the order they were captured")
+    @NotEmpty(message = "At least one detection is required")
+    @Size(max = 500, message = "At most 500 detections per batch")
+    @Valid
+    private List<Detection> detections;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Single plate detection")
+    public static class Detection {
+
+        @Schema(description = "License plate number of the vehicle", example = "76M5-1443")
+        @NotBlank(message = "License plate number cannot be blank")
+        private String licensePlateNumber;
+
+        @Schema(description = "Type of request: entry or exit", example = "entry", allowableValues = {"entry", "exit"})
+        @NotBlank(message = "Type cannot be blank")
+        private String type;
+
+        @Schema(description = "Gate the camera belongs to", example = "Cổng chính")
+        private String gateLocation;
+
+        @Schema(description = "Camera that produced the detection", example = "cam-1")
+        private String cameraId;
+
+        @Schema(description = "Capture time on the gate PC; defaults to the server time")
+        private LocalDateTime timestamp;
+
+        @Schema(description = "Client id for the detection, echoed in the STOMP reply", example = "cam-1-000123")
+        private String correlationId;
+    }
+}
@@ -20,6 +20,15 @@ public class VehicleCheckResponse {
     @Schema(description = "Path to the uploaded image", example = "/images/entry/76M5-1443_2025-09-14_23-45-30.jpg")
     private String imagePath;
 
+    @Schema(description = "Registered license plate the detection was matched to", example = "76M5-1443")
+    private String matchedLicensePlate;
+
+    @Schema(description = "Confidence of the plate match (1.0 for an exact match)", example = "0.96")
+    private Double matchConfidence;
+
+    @Schema(description = "Client id of the detection this replies to, when one was sent", example = "cam-1-000123")
+    private String correlationId;
+
     // Constructors
     public VehicleCheckResponse() {}
 
@@ -78,4 +87,28 @@ public class VehicleCheckResponse {
     public void setImagePath(String imagePath) {
         this.imagePath = imagePath;
     }
+
+    public String getMatchedLicensePlate() {
+        return matchedLicensePlate;
+    }
+
+    public void setMatchedLicensePlate(String matchedLicensePlate) {
+        this.matchedLicensePlate = matchedLicensePlate;
+    }
+
+    public Double getMatchConfidence() {
+        return matchConfidence;
+    }
+
+    public void setMatchConfidence(Double matchConfidence) {
+        this.matchConfidence = matchConfidence;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
 }
@@ -42,6 +42,10 @@ public class VehicleDto {
     private Integer capacity;
     private String notes;
     private String imagePath;
+    
+    // Version the client last read; an update carrying an older one is refused
+    private Long version;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -63,6 +67,7 @@ public class VehicleDto {
         this.capacity = vehicle.getCapacity();
         this.notes = vehicle.getNotes();
         this.imagePath = vehicle.getImagePath();
+        this.version = vehicle.getVersion();
         this.createdAt = vehicle.getCreatedAt();
         this.updatedAt = vehicle.getUpdatedAt();
     }
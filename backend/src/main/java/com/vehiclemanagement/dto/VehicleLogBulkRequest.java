@@ -0,0 +1,61 @@
+package com.vehiclemanagement.dto;
+
+import com.vehiclemanagement.entity.VehicleLog;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Backlog of gate events recorded while a gate PC was offline")
+public class VehicleLogBulkRequest {
+
+    // Items are checked one by one so a bad event is reported instead of failing the whole batch
+    @Schema(description = "Events in the order they were captured")
+    @NotEmpty(message = "At least one event is required")
+    @Size(max = 5000, message = "At most 5000 events per batch")
+    private List<Event> events;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Single gate event")
+    public static class Event {
+
+        @Schema(description = "Id assigned by the gate PC; resending the same id is ignored", example = "gate1-000123")
+        private String clientEventId;
+
+        @Schema(description = "License plate number of the vehicle", example = "76M5-1443")
+        private String licensePlateNumber;
+
+        @Schema(description = "Capture time on the gate PC")
+        private LocalDateTime entryExitTime;
+
+        @Schema(description = "Type of event: entry or exit", example = "entry")
+        private VehicleLog.LogType type;
+
+        @Schema(description = "Vehicle category; defaults to internal for registered plates, external otherwise")
+        private VehicleLog.VehicleCategory vehicleType;
+
+        private String driverName;
+
+        private String purpose;
+
+        @Schema(description = "Gate the event was captured at", example = "Cổng chính")
+        private String gateLocation;
+
+        private UUID securityGuardId;
+
+        private String notes;
+
+        private String imagePath;
+    }
+}
@@ -0,0 +1,46 @@
+package com.vehiclemanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk vehicle log ingest")
+public class VehicleLogBulkResponse {
+
+    private int created;
+    private int duplicates;
+    private int rejected;
+
+    @Schema(description = "One result per event, in request order")
+    private List<ItemResult> results;
+
+    public enum Status {
+        CREATED, DUPLICATE, REJECTED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+
+        @Schema(description = "Position of the event in the request")
+        private int index;
+
+        private String clientEventId;
+
+        private Status status;
+
+        @Schema(description = "Id of the created log; null unless status is CREATED")
+        private UUID logId;
+
+        @Schema(description = "Reason the event was rejected")
+        private String message;
+    }
+}
@@ -0,0 +1,26 @@
+package com.vehiclemanagement.dto;
+
+import com.vehiclemanagement.entity.VehicleLog;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Search criteria for vehicle log exports; same semantics as findWithFilters, null means no filter
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleLogFilter {
+
+    private String licensePlate;
+    private VehicleLog.LogType type;
+    private VehicleLog.VehicleCategory vehicleType;
+    private String driverName;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+}
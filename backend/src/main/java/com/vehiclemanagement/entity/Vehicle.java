@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import com.vehiclemanagement.util.LicensePlateUtil;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -33,6 +34,9 @@ public class Vehicle {
     @NotBlank(message = "License plate is required")
     private String licensePlate;
     
+    @Column(name = "license_plate_normalized", unique = true, nullable = false)
+    private String licensePlateNormalized;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "vehicle_type", nullable = false)
     @NotNull(message = "Vehicle type is required")
@@ -73,8 +77,19 @@ public class Vehicle {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Left null for new vehicles so Spring Data treats them as new; Hibernate starts it at 0
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    @PrePersist
+    public void prePersist() {
+        this.licensePlateNormalized = LicensePlateUtil.normalize(this.licensePlate);
+    }
+    
     @PreUpdate
     public void preUpdate() {
+        this.licensePlateNormalized = LicensePlateUtil.normalize(this.licensePlate);
         this.updatedAt = LocalDateTime.now();
     }
     
@@ -0,0 +1,76 @@
+package com.vehiclemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entry paired with the exit that followed it; written by the database (V40 trigger), read-only here
+ */
+@Entity
+@Immutable
+@Table(name = "vehicle_dwell_intervals")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleDwellInterval {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "license_plate_normalized")
+    private String licensePlateNormalized;
+    
+    @Column(name = "license_plate_number")
+    private String licensePlateNumber;
+    
+    @Column(name = "vehicle_id")
+    private UUID vehicleId;
+    
+    @Column(name = "employee_id")
+    private UUID employeeId;
+    
+    private String department;
+    
+    // Registered vehicle's type when it entered; null for unregistered plates
+    @Enumerated(EnumType.STRING)
+    @Column(name = "vehicle_type")
+    private Vehicle.VehicleType vehicleType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "vehicle_category")
+    private VehicleLog.VehicleCategory vehicleCategory;
+    
+    @Column(name = "entry_log_id")
+    private UUID entryLogId;
+    
+    @Column(name = "entry_time")
+    private LocalDateTime entryTime;
+    
+    @Column(name = "entry_gate")
+    private String entryGate;
+    
+    @Column(name = "exit_log_id")
+    private UUID exitLogId;
+    
+    @Column(name = "exit_time")
+    private LocalDateTime exitTime;
+    
+    @Column(name = "exit_gate")
+    private String exitGate;
+    
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    
+    @Column(name = "dwell_seconds")
+    private Long dwellSeconds;
+    
+    public enum Status {
+        open, closed, abandoned
+    }
+}
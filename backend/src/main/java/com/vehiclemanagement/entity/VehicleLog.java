@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import com.vehiclemanagement.util.LicensePlateUtil;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -17,8 +18,16 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@NamedEntityGraph(name = VehicleLog.DTO_GRAPH, attributeNodes = {
+        @NamedAttributeNode("vehicle"),
+        @NamedAttributeNode("employee"),
+        @NamedAttributeNode("securityGuard")
+})
 public class VehicleLog {
     
+    // Associations read by VehicleLogDto, fetched with the log by listing queries instead of one select per row
+    public static final String DTO_GRAPH = "VehicleLog.dto";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -27,6 +36,9 @@ public class VehicleLog {
     @NotBlank(message = "License plate number is required")
     private String licensePlateNumber;
     
+    @Column(name = "license_plate_normalized", nullable = false)
+    private String licensePlateNormalized;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     private Vehicle vehicle;
@@ -66,6 +78,10 @@ public class VehicleLog {
     @Column(name = "image_path")
     private String imagePath;
     
+    // Set by bulk ingest so a resent gate backlog is not logged twice
+    @Column(name = "client_event_id", updatable = false)
+    private String clientEventId;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -74,8 +90,14 @@ public class VehicleLog {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    @PrePersist
+    public void prePersist() {
+        this.licensePlateNormalized = LicensePlateUtil.normalize(this.licensePlateNumber);
+    }
+    
     @PreUpdate
     public void preUpdate() {
+        this.licensePlateNormalized = LicensePlateUtil.normalize(this.licensePlateNumber);
         this.updatedAt = LocalDateTime.now();
     }
     
@@ -0,0 +1,64 @@
+package com.vehiclemanagement.repository;
+
+import com.vehiclemanagement.entity.VehicleDwellInterval;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dwell statistics over the stored intervals (V40). Aggregates only count closed intervals
+ * whose entry falls in [start, end) and return rows of
+ * [group key, label, visits, average seconds, median seconds, max seconds, total seconds].
+ */
+@Repository
+public interface VehicleDwellIntervalRepository extends JpaRepository<VehicleDwellInterval, Long> {
+    
+    String AGGREGATES = "COUNT(*), CAST(AVG(d.dwell_seconds) AS BIGINT), " +
+                        "CAST(percentile_cont(0.5) WITHIN GROUP (ORDER BY d.dwell_seconds) AS BIGINT), " +
+                        "MAX(d.dwell_seconds), CAST(SUM(d.dwell_seconds) AS BIGINT) ";
+    
+    String CLOSED_IN_RANGE = "WHERE d.status = 'closed' AND d.entry_time >= :start AND d.entry_time < :end ";
+    
+    @Query(value = "SELECT CAST(d.employee_id AS VARCHAR), MAX(e.name), " + AGGREGATES +
+                   "FROM vehicle_dwell_intervals d LEFT JOIN employees e ON e.id = d.employee_id " +
+                   CLOSED_IN_RANGE + "GROUP BY d.employee_id ORDER BY 3 DESC", nativeQuery = true)
+    List<Object[]> aggregateByEmployee(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query(value = "SELECT d.department, d.department, " + AGGREGATES +
+                   "FROM vehicle_dwell_intervals d " +
+                   CLOSED_IN_RANGE + "GROUP BY d.department ORDER BY 3 DESC", nativeQuery = true)
+    List<Object[]> aggregateByDepartment(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query(value = "SELECT d.vehicle_type, d.vehicle_type, " + AGGREGATES +
+                   "FROM vehicle_dwell_intervals d " +
+                   CLOSED_IN_RANGE + "GROUP BY d.vehicle_type ORDER BY 3 DESC", nativeQuery = true)
+    List<Object[]> aggregateByVehicleType(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query(value = "SELECT d.vehicle_category, d.vehicle_category, " + AGGREGATES +
+                   "FROM vehicle_dwell_intervals d " +
+                   CLOSED_IN_RANGE + "GROUP BY d.vehicle_category ORDER BY 3 DESC", nativeQuery = true)
+    List<Object[]> aggregateByVehicleCategory(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query(value = "SELECT CAST(CAST(d.entry_time AS DATE) AS VARCHAR), CAST(CAST(d.entry_time AS DATE) AS VARCHAR), " + AGGREGATES +
+                   "FROM vehicle_dwell_intervals d " +
+                   CLOSED_IN_RANGE + "GROUP BY CAST(d.entry_time AS DATE) ORDER BY 1", nativeQuery = true)
+    List<Object[]> aggregateByDay(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // Intervals in a status that started before the cutoff, oldest first (open: vehicles still inside)
+    Page<VehicleDwellInterval> findByStatusAndEntryTimeBeforeOrderByEntryTimeAsc(VehicleDwellInterval.Status status,
+                                                                                 LocalDateTime cutoff,
+                                                                                 Pageable pageable);
+    
+    /**
+     * Re-pair the entries in [start, end) from vehicle_log
+     * @return Number of intervals written
+     */
+    @Query(value = "SELECT rebuild_vehicle_dwell_intervals(CAST(:start AS TIMESTAMP), CAST(:end AS TIMESTAMP))", nativeQuery = true)
+    long rebuild(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
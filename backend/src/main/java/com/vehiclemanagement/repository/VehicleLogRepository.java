@@ -3,6 +3,7 @@ package com.vehiclemanagement.repository;
 import com.vehiclemanagement.entity.VehicleLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,84 +11,162 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface VehicleLogRepository extends JpaRepository<VehicleLog, UUID> {
+public interface VehicleLogRepository extends JpaRepository<VehicleLog, UUID>, VehicleLogSearchRepository {
+    
+    // Listing and search queries load the log's vehicle, owner and guard in the same select
+    // (VehicleLog.DTO_GRAPH, left joins on to-one associations, so LIMIT still applies in SQL).
+    // Their count queries read vehicle_log alone.
+    
+    @Override
+    @EntityGraph(VehicleLog.DTO_GRAPH)
+    Page<VehicleLog> findAll(Pageable pageable);
+    
+    @Override
+    @EntityGraph(VehicleLog.DTO_GRAPH)
+    List<VehicleLog> findAll();
     
     // Find by license plate
+    @EntityGraph(VehicleLog.DTO_GRAPH)
     List<VehicleLog> findByLicensePlateNumber(String licensePlateNumber);
     
     // Find latest log by license plate and type
     Optional<VehicleLog> findTopByLicensePlateNumberAndTypeOrderByEntryExitTimeDesc(String licensePlateNumber, VehicleLog.LogType type);
     
-    // Find latest log by normalized license plate and type
-    @Query("SELECT vl FROM VehicleLog vl WHERE " +
-           "REPLACE(REPLACE(REPLACE(REPLACE(UPPER(vl.licensePlateNumber), '-', ''), '.', ''), ' ', ''), '_', '') = " +
-           "REPLACE(REPLACE(REPLACE(REPLACE(UPPER(:licensePlateNumber), '-', ''), '.', ''), ' ', ''), '_', '') " +
-           "AND vl.type = :type ORDER BY vl.entryExitTime DESC")
-    List<VehicleLog> findByLicensePlateNumberNormalizedAndTypeOrderByEntryExitTimeDesc(@Param("licensePlateNumber") String licensePlateNumber, @Param("type") VehicleLog.LogType type);
+    // Find latest log by normalized license plate and type (pass LicensePlateUtil.normalize(plate))
+    Optional<VehicleLog> findTopByLicensePlateNormalizedAndTypeOrderByEntryExitTimeDesc(String licensePlateNormalized, VehicleLog.LogType type);
+    
+    // Latest log of a plate of either type, ties broken as in the occupancy rebuild
+    Optional<VehicleLog> findTopByLicensePlateNormalizedOrderByEntryExitTimeDescIdDesc(String licensePlateNormalized);
     
     // Find by vehicle ID
+    @EntityGraph(VehicleLog.DTO_GRAPH)
     List<VehicleLog> findByVehicleId(UUID vehicleId);
     
     // Find by employee ID
+    @EntityGraph(VehicleLog.DTO_GRAPH)
     List<VehicleLog> findByEmployeeId(UUID employeeId);
     
     // Find by type
+    @EntityGraph(VehicleLog.DTO_GRAPH)
     List<VehicleLog> findByType(VehicleLog.LogType type);
     
     // Find by vehicle category
+    @EntityGraph(VehicleLog.DTO_GRAPH)
     List<VehicleLog> findByVehicleType(VehicleLog.VehicleCategory vehicleType);
     
     // Find by date range
-    @Query("SELECT vl FROM VehicleLog vl WHERE vl.entryExitTime BETWEEN :startDate AND :endDate ORDER BY vl.entryExitTime DESC")
+    @Query(value = "SELECT vl FROM VehicleLog vl WHERE vl.entryExitTime BETWEEN :startDate AND :endDate ORDER BY vl.entryExitTime DESC",
+           countQuery = "SELECT COUNT(vl) FROM VehicleLog vl WHERE vl.entryExitTime BETWEEN :startDate AND :endDate")
+    @EntityGraph(VehicleLog.DTO_GRAPH)
     Page<VehicleLog> findByEntryExitTimeBetween(@Param("startDate") LocalDateTime startDate, 
                                                @Param("endDate") LocalDateTime endDate, 
                                                Pageable pageable);
     
+    // Find logs in [start, end). Day and month queries use this half-open form instead of
+    // DATE(entry_exit_time) = :date so PostgreSQL can prune vehicle_log partitions and use the indexes.
+    @Query(value = "SELECT vl FROM VehicleLog vl WHERE vl.entryExitTime >= :start AND vl.entryExitTime < :end ORDER BY vl.entryExitTime DESC",
+           countQuery = "SELECT COUNT(vl) FROM VehicleLog vl WHERE vl.entryExitTime >= :start AND vl.entryExitTime < :end")
+    @EntityGraph(VehicleLog.DTO_GRAPH)
+    Page<VehicleLog> findByEntryExitTimeRange(@Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end,
+                                              Pageable pageable);
+    
     // Find today's logs
-    @Query("SELECT vl FROM VehicleLog vl WHERE DATE(vl.entryExitTime) = :date ORDER BY vl.entryExitTime DESC")
-    Page<VehicleLog> findByDate(@Param("date") LocalDate date, Pageable pageable);
-    
-    // Search with filters
-    @Query("SELECT vl FROM VehicleLog vl WHERE " +
-           "(:licensePlate IS NULL OR LOWER(vl.licensePlateNumber) LIKE LOWER(CONCAT('%', :licensePlate, '%'))) AND " +
-           "(:type IS NULL OR vl.type = :type) AND " +
-           "(:vehicleType IS NULL OR vl.vehicleType = :vehicleType) AND " +
-           "(:driverName IS NULL OR LOWER(vl.driverName) LIKE LOWER(CONCAT('%', :driverName, '%'))) AND " +
-           "vl.entryExitTime BETWEEN :startDate AND :endDate " +
-           "ORDER BY vl.entryExitTime DESC")
-    Page<VehicleLog> findWithFilters(@Param("licensePlate") String licensePlate,
-                                    @Param("type") VehicleLog.LogType type,
-                                    @Param("vehicleType") VehicleLog.VehicleCategory vehicleType,
-                                    @Param("driverName") String driverName,
-                                    @Param("startDate") LocalDateTime startDate,
-                                    @Param("endDate") LocalDateTime endDate,
-                                    Pageable pageable);
-    
-    // Statistics queries
-    @Query("SELECT COUNT(vl) FROM VehicleLog vl WHERE vl.type = :type AND DATE(vl.entryExitTime) = :date")
-    long countByTypeAndDate(@Param("type") VehicleLog.LogType type, @Param("date") LocalDate date);
-    
-    @Query("SELECT COUNT(DISTINCT vl.licensePlateNumber) FROM VehicleLog vl WHERE DATE(vl.entryExitTime) = :date")
+    default Page<VehicleLog> findByDate(LocalDate date, Pageable pageable) {
+        return findByEntryExitTimeRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), pageable);
+    }
+    
+    // Statistics queries. These read the rollup tables maintained by trigger_vehicle_log_rollups (V36),
+    // one row per hour/gate/type/category or per day/plate, instead of counting raw log rows.
+    // Ranges are in whole hours: an hour is included when its bucket starts inside [start, end).
+    @Query(value = "SELECT CAST(COALESCE(SUM(s.event_count), 0) AS BIGINT) FROM vehicle_log_hourly_stats s " +
+                   "WHERE s.type = :type AND s.bucket_start >= :start AND s.bucket_start < :end", nativeQuery = true)
+    long sumEventsByTypeAndTimeRange(@Param("type") String type,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+    
+    default long countByTypeAndDate(VehicleLog.LogType type, LocalDate date) {
+        return sumEventsByTypeAndTimeRange(type.name(), date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+    
+    // Distinct normalized plates, so "30A-123.45" and "30A12345" count as one vehicle
+    @Query(value = "SELECT COUNT(*) FROM vehicle_log_daily_plates p WHERE p.day = :date AND p.event_count > 0", nativeQuery = true)
     long countDistinctVehiclesByDate(@Param("date") LocalDate date);
     
-    @Query("SELECT vl.vehicleType, COUNT(vl) FROM VehicleLog vl WHERE DATE(vl.entryExitTime) = :date GROUP BY vl.vehicleType")
-    List<Object[]> countByVehicleTypeAndDate(@Param("date") LocalDate date);
+    @Query(value = "SELECT s.vehicle_type, CAST(SUM(s.event_count) AS BIGINT) FROM vehicle_log_hourly_stats s " +
+                   "WHERE s.bucket_start >= :start AND s.bucket_start < :end " +
+                   "GROUP BY s.vehicle_type HAVING SUM(s.event_count) > 0", nativeQuery = true)
+    List<Object[]> sumEventsByVehicleTypeAndTimeRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    default List<Object[]> countByVehicleTypeAndDate(LocalDate date) {
+        return sumEventsByVehicleTypeAndTimeRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
     
     // Weekly statistics
-    @Query("SELECT COUNT(vl) FROM VehicleLog vl WHERE vl.type = :type AND vl.entryExitTime BETWEEN :startDate AND :endDate")
-    long countByTypeAndDateRange(@Param("type") VehicleLog.LogType type, 
-                                @Param("startDate") LocalDateTime startDate, 
-                                @Param("endDate") LocalDateTime endDate);
-    
-    // Monthly statistics  
-    @Query("SELECT DATE(vl.entryExitTime), COUNT(vl) FROM VehicleLog vl WHERE " +
-           "vl.entryExitTime BETWEEN :startDate AND :endDate " +
-           "GROUP BY DATE(vl.entryExitTime) ORDER BY DATE(vl.entryExitTime)")
+    @Query(value = "SELECT CAST(COALESCE(SUM(s.event_count), 0) AS BIGINT) FROM vehicle_log_hourly_stats s " +
+                   "WHERE s.type = :type AND s.bucket_start >= date_trunc('hour', CAST(:startDate AS TIMESTAMP)) " +
+                   "AND s.bucket_start <= :endDate", nativeQuery = true)
+    long sumEventsByTypeAndDateRange(@Param("type") String type,
+                                     @Param("startDate") LocalDateTime startDate,
+                                     @Param("endDate") LocalDateTime endDate);
+    
+    default long countByTypeAndDateRange(VehicleLog.LogType type, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumEventsByTypeAndDateRange(type.name(), startDate, endDate);
+    }
+    
+    // Monthly statistics: [day, event count] per day with events
+    @Query(value = "SELECT CAST(s.bucket_start AS DATE) AS day, CAST(SUM(s.event_count) AS BIGINT) FROM vehicle_log_hourly_stats s " +
+                   "WHERE s.bucket_start >= date_trunc('hour', CAST(:startDate AS TIMESTAMP)) AND s.bucket_start <= :endDate " +
+                   "GROUP BY 1 HAVING SUM(s.event_count) > 0 ORDER BY 1", nativeQuery = true)
     List<Object[]> getDailyStatsForPeriod(@Param("startDate") LocalDateTime startDate, 
                                          @Param("endDate") LocalDateTime endDate);
+    
+    // Day, week (ISO, from Monday) and month series of the statistics overview, each computed once for
+    // [startDay, endDay) with GROUPING SETS. Rows are [series, bucket start day, entry count, exit count], where
+    // series names the grouping set of the row: 'day', 'week' or 'month' (VehicleService.SERIES_*).
+    @Query(value = "SELECT CASE WHEN GROUPING(d.day) = 0 THEN 'day' WHEN GROUPING(d.week_start) = 0 THEN 'week' " +
+                   "ELSE 'month' END AS series, " +
+                   "COALESCE(d.day, d.week_start, d.month_start) AS bucket, " +
+                   "CAST(COALESCE(SUM(d.event_count) FILTER (WHERE d.type = 'entry'), 0) AS BIGINT) AS entry_count, " +
+                   "CAST(COALESCE(SUM(d.event_count) FILTER (WHERE d.type = 'exit'), 0) AS BIGINT) AS exit_count " +
+                   "FROM (SELECT CAST(s.bucket_start AS DATE) AS day, " +
+                   "      CAST(date_trunc('week', CAST(CAST(s.bucket_start AS DATE) AS TIMESTAMP)) AS DATE) AS week_start, " +
+                   "      CAST(date_trunc('month', CAST(CAST(s.bucket_start AS DATE) AS TIMESTAMP)) AS DATE) AS month_start, " +
+                   "      s.type, s.event_count FROM vehicle_log_hourly_stats s " +
+                   "      WHERE s.bucket_start >= CAST(:startDay AS TIMESTAMP) AND s.bucket_start < CAST(:endDay AS TIMESTAMP)) d " +
+                   "GROUP BY GROUPING SETS ((d.day), (d.week_start), (d.month_start))", nativeQuery = true)
+    List<Object[]> sumEventSeries(@Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+    
+    // Rows are [series, bucket start day, distinct plates] as in sumEventSeries; a plate seen on several days of a week or month counts once
+    @Query(value = "SELECT CASE WHEN GROUPING(d.day) = 0 THEN 'day' WHEN GROUPING(d.week_start) = 0 THEN 'week' " +
+                   "ELSE 'month' END AS series, " +
+                   "COALESCE(d.day, d.week_start, d.month_start) AS bucket, " +
+                   "COUNT(DISTINCT d.license_plate_normalized) AS unique_vehicles " +
+                   "FROM (SELECT p.day, " +
+                   "      CAST(date_trunc('week', CAST(p.day AS TIMESTAMP)) AS DATE) AS week_start, " +
+                   "      CAST(date_trunc('month', CAST(p.day AS TIMESTAMP)) AS DATE) AS month_start, " +
+                   "      p.license_plate_normalized FROM vehicle_log_daily_plates p " +
+                   "      WHERE p.day >= :startDay AND p.day < :endDay AND p.event_count > 0) d " +
+                   "GROUP BY GROUPING SETS ((d.day), (d.week_start), (d.month_start))", nativeQuery = true)
+    List<Object[]> countDistinctVehicleSeries(@Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+    
+    /**
+     * Recompute the statistics rollups for the days covering [start, end) from the raw log
+     * @return Number of events counted
+     */
+    @Query(value = "SELECT rebuild_vehicle_log_rollups(CAST(:start AS TIMESTAMP), CAST(:end AS TIMESTAMP))", nativeQuery = true)
+    long rebuildStatistics(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // Client event ids of a sync batch that are already stored; the time bounds keep the lookup to the batch's partitions
+    @Query("SELECT vl.clientEventId FROM VehicleLog vl WHERE vl.clientEventId IN :clientEventIds " +
+           "AND vl.entryExitTime >= :startTime AND vl.entryExitTime <= :endTime")
+    List<String> findExistingClientEventIds(@Param("clientEventIds") Collection<String> clientEventIds,
+                                            @Param("startTime") LocalDateTime startTime,
+                                            @Param("endTime") LocalDateTime endTime);
 }
@@ -0,0 +1,59 @@
+package com.vehiclemanagement.repository;
+
+import com.vehiclemanagement.entity.VehicleLog;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Vehicle log searches with optional filters; null filters match everything, the dates included.
+ * startDate and endDate are inclusive bounds on entryExitTime and can be set independently.
+ *
+ * The query text only contains the filters that are set. With the "(:x IS NULL OR ...)" form
+ * a plan has to work for both cases, so once PostgreSQL switches a statement to its generic
+ * plan the LIKE predicates can no longer use the trigram indexes (V39).
+ */
+public interface VehicleLogSearchRepository {
+
+    // Newest first, then the pageable's sort; loads VehicleLog.DTO_GRAPH
+    Page<VehicleLog> findWithFilters(String licensePlate,
+                                     VehicleLog.LogType type,
+                                     VehicleLog.VehicleCategory vehicleType,
+                                     String driverName,
+                                     LocalDateTime startDate,
+                                     LocalDateTime endDate,
+                                     Pageable pageable);
+
+    // Keyset paging on (entryExitTime, id), newest first: rows strictly after the cursor row.
+    // Pass PageRequest.of(0, n) to limit the result; no count query is issued.
+    List<VehicleLog> findPageBefore(String licensePlate,
+                                    VehicleLog.LogType type,
+                                    VehicleLog.VehicleCategory vehicleType,
+                                    String driverName,
+                                    LocalDateTime startDate,
+                                    LocalDateTime endDate,
+                                    LocalDateTime cursorTime,
+                                    UUID cursorId,
+                                    Pageable pageable);
+
+    // Keyset paging backwards: rows strictly before (newer than) the cursor row, oldest first
+    List<VehicleLog> findPageAfter(String licensePlate,
+                                   VehicleLog.LogType type,
+                                   VehicleLog.VehicleCategory vehicleType,
+                                   String driverName,
+                                   LocalDateTime startDate,
+                                   LocalDateTime endDate,
+                                   LocalDateTime cursorTime,
+                                   UUID cursorId,
+                                   Pageable pageable);
+
+    long countWithFilters(String licensePlate,
+                          VehicleLog.LogType type,
+                          VehicleLog.VehicleCategory vehicleType,
+                          String driverName,
+                          LocalDateTime startDate,
+                          LocalDateTime endDate);
+}
@@ -0,0 +1,129 @@
+package com.vehiclemanagement.repository;
+
+import com.vehiclemanagement.entity.VehicleLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class VehicleLogSearchRepositoryImpl implements VehicleLogSearchRepository {
+
+    private static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<VehicleLog> findWithFilters(String licensePlate, VehicleLog.LogType type,
+                                            VehicleLog.VehicleCategory vehicleType, String driverName,
+                                            LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        Filters filters = new Filters(licensePlate, type, vehicleType, driverName, startDate, endDate);
+        String jpql = QueryUtils.applySorting(
+                "SELECT vl FROM VehicleLog vl" + filters.where() + " ORDER BY vl.entryExitTime DESC",
+                pageable.getSort(), "vl");
+        List<VehicleLog> content = selectQuery(jpql, filters, pageable).getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filters));
+    }
+
+    @Override
+    public List<VehicleLog> findPageBefore(String licensePlate, VehicleLog.LogType type,
+                                           VehicleLog.VehicleCategory vehicleType, String driverName,
+                                           LocalDateTime startDate, LocalDateTime endDate,
+                                           LocalDateTime cursorTime, UUID cursorId, Pageable pageable) {
+        Filters filters = new Filters(licensePlate, type, vehicleType, driverName, startDate, endDate);
+        filters.add("vl.entryExitTime <= :cursorTime AND (vl.entryExitTime < :cursorTime OR vl.id < :cursorId)",
+                "cursorTime", cursorTime);
+        filters.bind("cursorId", cursorId);
+        return selectQuery("SELECT vl FROM VehicleLog vl" + filters.where()
+                + " ORDER BY vl.entryExitTime DESC, vl.id DESC", filters, pageable).getResultList();
+    }
+
+    @Override
+    public List<VehicleLog> findPageAfter(String licensePlate, VehicleLog.LogType type,
+                                          VehicleLog.VehicleCategory vehicleType, String driverName,
+                                          LocalDateTime startDate, LocalDateTime endDate,
+                                          LocalDateTime cursorTime, UUID cursorId, Pageable pageable) {
+        Filters filters = new Filters(licensePlate, type, vehicleType, driverName, startDate, endDate);
+        filters.add("vl.entryExitTime >= :cursorTime AND (vl.entryExitTime > :cursorTime OR vl.id > :cursorId)",
+                "cursorTime", cursorTime);
+        filters.bind("cursorId", cursorId);
+        return selectQuery("SELECT vl FROM VehicleLog vl" + filters.where()
+                + " ORDER BY vl.entryExitTime ASC, vl.id ASC", filters, pageable).getResultList();
+    }
+
+    @Override
+    public long countWithFilters(String licensePlate, VehicleLog.LogType type,
+                                 VehicleLog.VehicleCategory vehicleType, String driverName,
+                                 LocalDateTime startDate, LocalDateTime endDate) {
+        return count(new Filters(licensePlate, type, vehicleType, driverName, startDate, endDate));
+    }
+
+    private TypedQuery<VehicleLog> selectQuery(String jpql, Filters filters, Pageable pageable) {
+        TypedQuery<VehicleLog> query = entityManager.createQuery(jpql, VehicleLog.class);
+        // Same graph as the @EntityGraph listing queries; count queries read vehicle_log alone
+        query.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(VehicleLog.DTO_GRAPH));
+        filters.parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    private long count(Filters filters) {
+        TypedQuery<Long> query = entityManager.createQuery(
+                "SELECT COUNT(vl) FROM VehicleLog vl" + filters.where(), Long.class);
+        filters.parameters.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private static final class Filters {
+        private final StringBuilder predicates = new StringBuilder();
+        private final Map<String, Object> parameters = new HashMap<>();
+
+        private Filters(String licensePlate, VehicleLog.LogType type, VehicleLog.VehicleCategory vehicleType,
+                        String driverName, LocalDateTime startDate, LocalDateTime endDate) {
+            if (startDate != null) {
+                add("vl.entryExitTime >= :startDate", "startDate", startDate);
+            }
+            if (endDate != null) {
+                add("vl.entryExitTime <= :endDate", "endDate", endDate);
+            }
+            if (licensePlate != null) {
+                add("LOWER(vl.licensePlateNumber) LIKE LOWER(CONCAT('%', :licensePlate, '%'))",
+                        "licensePlate", licensePlate);
+            }
+            if (type != null) {
+                add("vl.type = :type", "type", type);
+            }
+            if (vehicleType != null) {
+                add("vl.vehicleType = :vehicleType", "vehicleType", vehicleType);
+            }
+            if (driverName != null) {
+                add("LOWER(vl.driverName) LIKE LOWER(CONCAT('%', :driverName, '%'))", "driverName", driverName);
+            }
+        }
+
+        private void add(String predicate, String name, Object value) {
+            predicates.append(predicates.length() > 0 ? " AND " : "").append(predicate);
+            bind(name, value);
+        }
+
+        private String where() {
+            return predicates.length() > 0 ? " WHERE " + predicates : "";
+        }
+
+        private void bind(String name, Object value) {
+            parameters.put(name, value);
+        }
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,8 +19,11 @@ public interface VehicleRepository extends JpaRepository<Vehicle, UUID> {
     
     Optional<Vehicle> findByLicensePlate(String licensePlate);
     
-    @Query("SELECT v FROM Vehicle v WHERE REPLACE(REPLACE(REPLACE(REPLACE(UPPER(v.licensePlate), '-', ''), '.', ''), ' ', ''), '_', '') = REPLACE(REPLACE(REPLACE(REPLACE(UPPER(:licensePlate), '-', ''), '.', ''), ' ', ''), '_', '')")
-    Optional<Vehicle> findByLicensePlateNormalized(@Param("licensePlate") String licensePlate);
+    // Lookup by the stored normalized plate (unique index); pass LicensePlateUtil.normalize(plate)
+    Optional<Vehicle> findByLicensePlateNormalized(String licensePlateNormalized);
+    
+    // Resolves a whole batch of normalized plates in one query
+    List<Vehicle> findByLicensePlateNormalizedIn(Collection<String> licensePlatesNormalized);
     
     List<Vehicle> findByEmployeeId(UUID employeeId);
     
@@ -26,11 +31,24 @@ public interface VehicleRepository extends JpaRepository<Vehicle, UUID> {
     
     List<Vehicle> findByStatus(Vehicle.VehicleStatus status);
     
-    @Query("SELECT v FROM Vehicle v WHERE " +
-           "LOWER(v.licensePlate) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(v.brand) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(v.model) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(v.employee.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    // An OR across vehicles and employees cannot use the per-table trigram indexes (V39), so the
+    // vehicle matches and the owner-name matches are looked up separately and combined with UNION
+    @Query(value = "SELECT v FROM Vehicle v WHERE v.id IN (" +
+                   "SELECT m.id FROM Vehicle m WHERE " +
+                   "LOWER(m.licensePlate) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                   "LOWER(m.brand) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                   "LOWER(m.model) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+                   "UNION " +
+                   "SELECT o.id FROM Vehicle o WHERE o.employee.id IN (" +
+                   "SELECT e.id FROM Employee e WHERE LOWER(e.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))))",
+           countQuery = "SELECT COUNT(v) FROM Vehicle v WHERE v.id IN (" +
+                        "SELECT m.id FROM Vehicle m WHERE " +
+                        "LOWER(m.licensePlate) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                        "LOWER(m.brand) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                        "LOWER(m.model) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+                        "UNION " +
+                        "SELECT o.id FROM Vehicle o WHERE o.employee.id IN (" +
+                        "SELECT e.id FROM Employee e WHERE LOWER(e.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))))")
     Page<Vehicle> findBySearchTerm(@Param("searchTerm") String searchTerm, Pageable pageable);
     
     @Query("SELECT v FROM Vehicle v WHERE " +
@@ -53,8 +71,7 @@ public interface VehicleRepository extends JpaRepository<Vehicle, UUID> {
     
     boolean existsByLicensePlate(String licensePlate);
     
-    @Query("SELECT CASE WHEN COUNT(v) > 0 THEN true ELSE false END FROM Vehicle v WHERE REPLACE(REPLACE(REPLACE(REPLACE(UPPER(v.licensePlate), '-', ''), '.', ''), ' ', ''), '_', '') = REPLACE(REPLACE(REPLACE(REPLACE(UPPER(:licensePlate), '-', ''), '.', ''), ' ', ''), '_', '')")
-    boolean existsByLicensePlateNormalized(@Param("licensePlate") String licensePlate);
+    boolean existsByLicensePlateNormalized(String licensePlateNormalized);
     
     @Query("SELECT COUNT(v) FROM Vehicle v WHERE v.status = :status")
     long countByStatus(@Param("status") Vehicle.VehicleStatus status);
@@ -65,6 +82,87 @@ public interface VehicleRepository extends JpaRepository<Vehicle, UUID> {
     @Query("SELECT v.fuelType, COUNT(v) FROM Vehicle v WHERE v.fuelType IS NOT NULL GROUP BY v.fuelType")
     List<Object[]> countByFuelType();
     
+    /**
+     * Vehicle counts for the statistics overview in one pass: the total, and per status, type and fuel type.
+     * Rows are [grouping set, status, vehicle type, fuel type, count]; the grouping set ('total', 'status',
+     * 'vehicle_type' or 'fuel_type', see VehicleService.COUNT_BY_*) tells the rows apart, since the grouped
+     * columns themselves may be null.
+     */
+    @Query(value = "SELECT CASE WHEN GROUPING(v.status) = 0 THEN 'status' WHEN GROUPING(v.vehicle_type) = 0 THEN 'vehicle_type' " +
+                   "WHEN GROUPING(v.fuel_type) = 0 THEN 'fuel_type' ELSE 'total' END AS grouping_set, " +
+                   "v.status, v.vehicle_type, v.fuel_type, COUNT(*) AS vehicle_count FROM vehicles v " +
+                   "GROUP BY GROUPING SETS ((), (v.status), (v.vehicle_type), (v.fuel_type))", nativeQuery = true)
+    List<Object[]> countByStatusTypeAndFuelType();
+    
     @Query("SELECT v FROM Vehicle v WHERE v.employee.id = :employeeId")
     List<Vehicle> findByEmployee(@Param("employeeId") UUID employeeId);
+    
+    // Used to warm the in-memory access index in a single query
+    @Query("SELECT v FROM Vehicle v JOIN FETCH v.employee")
+    List<Vehicle> findAllWithEmployee();
+    
+    // Conditional bulk transition; returns the rows that changed, without those that left fromStatus concurrently
+    @Query(value = "WITH updated AS (" +
+                   "    UPDATE vehicles SET status = :toStatus, version = version + 1" +
+                   "    WHERE id IN (:ids) AND status = :fromStatus" +
+                   "    RETURNING id, version) " +
+                   "SELECT id AS \"id\", version AS \"version\" FROM updated",
+           nativeQuery = true)
+    @Transactional
+    List<UpdatedVersion> transitionStatusByIds(@Param("ids") List<UUID> ids,
+                                     @Param("fromStatus") String fromStatus,
+                                     @Param("toStatus") String toStatus);
+    
+    // Daily reset in one statement; returns the rows that changed so the access index can follow
+    @Query(value = "WITH updated AS (" +
+                   "    UPDATE vehicles SET status = 'rejected', version = version + 1" +
+                   "    WHERE status <> 'rejected'" +
+                   "    RETURNING id, version) " +
+                   "SELECT id AS \"id\", version AS \"version\" FROM updated",
+           nativeQuery = true)
+    @Transactional
+    List<UpdatedVersion> rejectAllNotRejected();
+    
+    /**
+     * Move a vehicle to toStatus only if it is currently in one of fromStatuses, in one statement.
+     * The row-level lock taken by the UPDATE serializes concurrent gate lanes; the outer SELECT
+     * reports the status seen at statement start so a failed transition can be explained
+     * without a second query. Empty if the vehicle does not exist.
+     */
+    @Query(value = "WITH updated AS (" +
+                   "    UPDATE vehicles SET status = :toStatus, version = version + 1" +
+                   "    WHERE id = :id AND status IN (:fromStatuses)" +
+                   "    RETURNING id, status, version) " +
+                   "SELECT v.status AS \"previousStatus\", u.status AS \"newStatus\", " +
+                   "       COALESCE(u.version, v.version) AS \"version\" " +
+                   "FROM vehicles v LEFT JOIN updated u ON u.id = v.id " +
+                   "WHERE v.id = :id",
+           nativeQuery = true)
+    @Transactional
+    Optional<StatusTransition> transitionStatus(@Param("id") UUID id,
+                                                @Param("fromStatuses") Collection<String> fromStatuses,
+                                                @Param("toStatus") String toStatus);
+    
+    /** A row changed by a bulk status update, with the version it was written at */
+    interface UpdatedVersion {
+        
+        UUID getId();
+        
+        Long getVersion();
+    }
+    
+    interface StatusTransition {
+        
+        /** Status before the statement ran */
+        String getPreviousStatus();
+        
+        /** Status after the transition, or null if the condition did not hold */
+        String getNewStatus();
+        
+        Long getVersion();
+        
+        default boolean isTransitioned() {
+            return getNewStatus() != null;
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.DwellIntervalDto;
+import com.vehiclemanagement.dto.DwellStatsDto;
+import com.vehiclemanagement.entity.VehicleDwellInterval;
+import com.vehiclemanagement.repository.VehicleDwellIntervalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Time-on-site statistics. Entries and exits are paired by the database as logs are inserted
+ * (see V40), so every query here reads the stored intervals, not the raw log.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DwellTimeService {
+
+    public enum GroupBy {
+        EMPLOYEE, DEPARTMENT, VEHICLE_TYPE, VEHICLE_CATEGORY, DAY
+    }
+
+    @Autowired
+    private VehicleDwellIntervalRepository dwellIntervalRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Completed visits whose entry falls on a day in [startDate, endDate], grouped
+     */
+    public List<DwellStatsDto> getStatistics(GroupBy groupBy, LocalDate startDate, LocalDate endDate) {
+        BiFunction<LocalDateTime, LocalDateTime, List<Object[]>> query = switch (groupBy) {
+            case EMPLOYEE -> dwellIntervalRepository::aggregateByEmployee;
+            case DEPARTMENT -> dwellIntervalRepository::aggregateByDepartment;
+            case VEHICLE_TYPE -> dwellIntervalRepository::aggregateByVehicleType;
+            case VEHICLE_CATEGORY -> dwellIntervalRepository::aggregateByVehicleCategory;
+            case DAY -> dwellIntervalRepository::aggregateByDay;
+        };
+        return query.apply(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()).stream()
+                .map(DwellTimeService::toStats)
+                .toList();
+    }
+
+    /**
+     * Vehicles inside for longer than minDuration, longest stay first
+     */
+    public Page<DwellIntervalDto> getOverstays(Duration minDuration, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        return dwellIntervalRepository.findByStatusAndEntryTimeBeforeOrderByEntryTimeAsc(
+                        VehicleDwellInterval.Status.open, now.minus(minDuration), pageable)
+                .map(interval -> toDto(interval, now));
+    }
+
+    /**
+     * Re-pair entries and exits for the days [startDate, endDate] from the raw log,
+     * e.g. after logs were edited or deleted (inserts are paired as they arrive, in any order)
+     * Runs one day per transaction, so the plates being re-paired are only held off for a day's worth.
+     * @return Number of intervals written
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuildIntervals(LocalDate startDate, LocalDate endDate) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long written = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            written += transaction.execute(status -> dwellIntervalRepository.rebuild(dayStart, dayStart.plusDays(1)));
+        }
+        return written;
+    }
+
+    private static DwellStatsDto toStats(Object[] row) {
+        return DwellStatsDto.builder()
+                .key(row[0] != null ? row[0].toString() : null)
+                .label(row[1] != null ? row[1].toString() : null)
+                .visits(toLong(row[2]))
+                .averageSeconds(toLong(row[3]))
+                .medianSeconds(toLong(row[4]))
+                .maxSeconds(toLong(row[5]))
+                .totalSeconds(toLong(row[6]))
+                .build();
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static DwellIntervalDto toDto(VehicleDwellInterval interval, LocalDateTime now) {
+        long dwellSeconds = interval.getDwellSeconds() != null
+                ? interval.getDwellSeconds()
+                : Duration.between(interval.getEntryTime(), now).getSeconds();
+        return DwellIntervalDto.builder()
+                .id(interval.getId())
+                .licensePlateNumber(interval.getLicensePlateNumber())
+                .vehicleId(interval.getVehicleId())
+                .employeeId(interval.getEmployeeId())
+                .department(interval.getDepartment())
+                .vehicleType(interval.getVehicleType())
+                .vehicleCategory(interval.getVehicleCategory())
+                .entryTime(interval.getEntryTime())
+                .entryGate(interval.getEntryGate())
+                .exitTime(interval.getExitTime())
+                .exitGate(interval.getExitGate())
+                .status(interval.getStatus())
+                .dwellSeconds(dwellSeconds)
+                .build();
+    }
+}
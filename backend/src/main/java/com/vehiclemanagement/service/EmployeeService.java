@@ -35,6 +35,9 @@ public class EmployeeService {
     @Autowired
     private ImageProcessingUtil imageProcessingUtil;
 
+    @Autowired
+    private VehicleAccessIndex vehicleAccessIndex;
+
     public Page<EmployeeDto> getAllEmployees(Pageable pageable) {
         Page<Object[]> results = employeeRepository.findAllWithVehicleType(pageable);
         return results.map(this::mapToEmployeeDto);
@@ -157,6 +160,7 @@ public class EmployeeService {
         existingEmployee.setPermissions(employeeDto.getPermissions());
 
         Employee updatedEmployee = employeeRepository.save(existingEmployee);
+        vehicleAccessIndex.updateOwnerName(updatedEmployee.getId(), updatedEmployee.getName());
         return new EmployeeDto(updatedEmployee);
     }
 
@@ -165,6 +169,8 @@ public class EmployeeService {
             throw new ResourceNotFoundException("Employee not found with id: " + id);
         }
         employeeRepository.deleteById(id);
+        // Vehicles are removed by ON DELETE CASCADE
+        vehicleAccessIndex.removeByOwner(id);
     }
 
     public boolean checkEmployeeIdExists(String employeeId) {
@@ -227,6 +233,7 @@ public class EmployeeService {
         for (UUID id : employeeIds) {
             if (employeeRepository.existsById(id)) {
                 employeeRepository.deleteById(id);
+                vehicleAccessIndex.removeByOwner(id);
             }
         }
     }
@@ -0,0 +1,309 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleLogFilter;
+import com.vehiclemanagement.entity.VehicleLog;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * XLSX reports for vehicle logs, vehicles and employees.
+ *
+ * Workbooks are written with POI's streaming SXSSF writer: only the last reports.xlsx.row-window
+ * rows of a sheet stay in memory, older rows go to a compressed temp file, and the rows come from
+ * a streaming query. Memory use is therefore the same for 500 and 500,000 rows. Sheets roll over
+ * to a new sheet when the XLSX row limit is reached.
+ */
+@Service
+public class ExcelReportService {
+
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final List<String> LOG_HEADERS = List.of(
+            "Biển số xe", "Thời gian", "Loại", "Phân loại xe", "Chủ xe", "Phòng ban", "Chức vụ",
+            "Tài xế", "Mục đích", "Cổng", "Bảo vệ", "Hãng xe", "Model", "Màu sắc", "Ghi chú");
+
+    private static final List<String> VEHICLE_HEADERS = List.of(
+            "Biển số xe", "Chủ xe", "Mã nhân viên", "Loại xe", "Hãng xe", "Model", "Màu sắc", "Năm sản xuất",
+            "Ngày đăng ký", "Ngày hết hạn", "Loại nhiên liệu", "Trạng thái", "Ghi chú");
+
+    private static final List<String> EMPLOYEE_HEADERS = List.of(
+            "Mã nhân viên", "Họ và tên", "Giới tính", "Ngày sinh", "Số điện thoại", "Email", "Đơn vị",
+            "Chức vụ", "Cấp bậc", "Trạng thái", "Ngày tạo");
+
+    private static final String SELECT_VEHICLES =
+            "SELECT v.license_plate, e.name AS employee_name, e.employee_id AS employee_code, v.vehicle_type, " +
+            "v.brand, v.model, v.color, v.year, v.registration_date, v.expiry_date, v.fuel_type, v.status, v.notes " +
+            "FROM vehicles v LEFT JOIN employees e ON e.id = v.employee_id " +
+            "ORDER BY v.license_plate";
+
+    private static final String SELECT_EMPLOYEES =
+            "SELECT e.employee_id, e.name, e.gender, e.birth_date, e.phone, e.email, e.department, e.position, " +
+            "e.rank, e.status, e.created_at FROM employees e ORDER BY e.employee_id";
+
+    @Autowired
+    private VehicleLogExportService vehicleLogExportService;
+
+    @Autowired
+    private StreamingQueryRunner streamingQueryRunner;
+
+    @Value("${reports.xlsx.row-window:100}")
+    private int rowWindow;
+
+    public void writeVehicleLogs(VehicleLogFilter filter, OutputStream outputStream) throws IOException {
+        try (SheetWriter writer = new SheetWriter("Nhật ký ra vào", LOG_HEADERS)) {
+            vehicleLogExportService.forEachLog(filter, log -> {
+                Row row = writer.nextRow();
+                writer.text(row, 0, log.getLicensePlateNumber());
+                writer.dateTime(row, 1, log.getEntryExitTime());
+                writer.text(row, 2, log.getType() == VehicleLog.LogType.entry ? "Vào" : "Ra");
+                writer.text(row, 3, log.getVehicleType() == VehicleLog.VehicleCategory.internal ? "Nội bộ" : "Bên ngoài");
+                writer.text(row, 4, log.getEmployeeName());
+                writer.text(row, 5, log.getEmployeeDepartment());
+                writer.text(row, 6, log.getEmployeePosition());
+                writer.text(row, 7, log.getDriverName());
+                writer.text(row, 8, log.getPurpose());
+                writer.text(row, 9, log.getGateLocation());
+                writer.text(row, 10, log.getSecurityGuardName());
+                writer.text(row, 11, log.getVehicleBrand());
+                writer.text(row, 12, log.getVehicleModel());
+                writer.text(row, 13, log.getVehicleColor());
+                writer.text(row, 14, log.getNotes());
+            });
+            writer.write(outputStream);
+        }
+    }
+
+    public void writeVehicles(OutputStream outputStream) throws IOException {
+        try (SheetWriter writer = new SheetWriter("Xe", VEHICLE_HEADERS)) {
+            streamingQueryRunner.query(SELECT_VEHICLES, List.of(), rs -> {
+                Row row = writer.nextRow();
+                writer.text(row, 0, rs.getString("license_plate"));
+                writer.text(row, 1, rs.getString("employee_name"));
+                writer.text(row, 2, rs.getString("employee_code"));
+                writer.text(row, 3, vehicleTypeLabel(rs.getString("vehicle_type")));
+                writer.text(row, 4, rs.getString("brand"));
+                writer.text(row, 5, rs.getString("model"));
+                writer.text(row, 6, rs.getString("color"));
+                writer.number(row, 7, getInteger(rs, "year"));
+                writer.date(row, 8, toLocalDate(rs.getDate("registration_date")));
+                writer.date(row, 9, toLocalDate(rs.getDate("expiry_date")));
+                writer.text(row, 10, fuelTypeLabel(rs.getString("fuel_type")));
+                writer.text(row, 11, vehicleStatusLabel(rs.getString("status")));
+                writer.text(row, 12, rs.getString("notes"));
+            });
+            writer.write(outputStream);
+        }
+    }
+
+    public void writeEmployees(OutputStream outputStream) throws IOException {
+        try (SheetWriter writer = new SheetWriter("Nhân viên", EMPLOYEE_HEADERS)) {
+            streamingQueryRunner.query(SELECT_EMPLOYEES, List.of(), rs -> {
+                Row row = writer.nextRow();
+                writer.text(row, 0, rs.getString("employee_id"));
+                writer.text(row, 1, rs.getString("name"));
+                writer.text(row, 2, genderLabel(rs.getString("gender")));
+                writer.date(row, 3, toLocalDate(rs.getDate("birth_date")));
+                writer.text(row, 4, rs.getString("phone"));
+                writer.text(row, 5, rs.getString("email"));
+                writer.text(row, 6, rs.getString("department"));
+                writer.text(row, 7, rs.getString("position"));
+                writer.text(row, 8, rs.getString("rank"));
+                writer.text(row, 9, employeeStatusLabel(rs.getString("status")));
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                writer.dateTime(row, 10, createdAt != null ? createdAt.toLocalDateTime() : null);
+            });
+            writer.write(outputStream);
+        }
+    }
+
+    // Labels match lib/utils/excel-export.ts in the frontend
+
+    private static String vehicleTypeLabel(String type) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case "car": return "Ô tô";
+            case "motorbike": return "Xe máy";
+            case "truck": return "Xe tải";
+            case "bus": return "Xe bus";
+            default: return type;
+        }
+    }
+
+    private static String fuelTypeLabel(String type) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case "gasoline": return "Xăng";
+            case "diesel": return "Diesel";
+            case "electric": return "Điện";
+            case "hybrid": return "Hybrid";
+            default: return type;
+        }
+    }
+
+    private static String vehicleStatusLabel(String status) {
+        if (status == null) {
+            return null;
+        }
+        switch (status) {
+            case "approved": return "Duyệt";
+            case "rejected": return "Không được phép";
+            case "exited": return "Đã ra";
+            case "entered": return "Đã vào";
+            default: return status;
+        }
+    }
+
+    private static String employeeStatusLabel(String status) {
+        if (status == null) {
+            return null;
+        }
+        switch (status) {
+            case "HOAT_DONG": return "Hoạt động";
+            case "TRANH_THU": return "Tranh thủ";
+            case "PHEP": return "Phép";
+            case "LY_DO_KHAC": return "Lý do Khác";
+            default: return status;
+        }
+    }
+
+    private static String genderLabel(String gender) {
+        if (gender == null) {
+            return null;
+        }
+        switch (gender.toLowerCase()) {
+            case "male": return "Nam";
+            case "female": return "Nữ";
+            default: return "Khác";
+        }
+    }
+
+    private static Integer getInteger(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    /**
+     * One streaming workbook with a header row per sheet, continued on a new sheet when full
+     */
+    private final class SheetWriter implements AutoCloseable {
+        private final SXSSFWorkbook workbook;
+        private final String sheetName;
+        private final List<String> headers;
+        private final CellStyle headerStyle;
+        private final CellStyle dateStyle;
+        private final CellStyle dateTimeStyle;
+        private final int maxRowsPerSheet = SpreadsheetVersion.EXCEL2007.getMaxRows();
+        private SXSSFSheet sheet;
+        private int sheetCount;
+        private int rowIndex;
+
+        private SheetWriter(String sheetName, List<String> headers) {
+            // Shared strings would keep every distinct value in memory, so strings are written inline
+            this.workbook = new SXSSFWorkbook(null, rowWindow, true, false);
+            this.sheetName = sheetName;
+            this.headers = headers;
+
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(bold);
+            short dateFormat = workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy");
+            dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(dateFormat);
+            short dateTimeFormat = workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy hh:mm:ss");
+            dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(dateTimeFormat);
+
+            newSheet();
+        }
+
+        private void newSheet() {
+            sheetCount++;
+            sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " (" + sheetCount + ")");
+            // Fixed widths: autoSizeColumn would have to track every row
+            for (int column = 0; column < headers.size(); column++) {
+                sheet.setColumnWidth(column, 20 * 256);
+            }
+            sheet.createFreezePane(0, 1);
+            Row header = sheet.createRow(0);
+            for (int column = 0; column < headers.size(); column++) {
+                Cell cell = header.createCell(column);
+                cell.setCellValue(headers.get(column));
+                cell.setCellStyle(headerStyle);
+            }
+            rowIndex = 1;
+        }
+
+        Row nextRow() {
+            if (rowIndex >= maxRowsPerSheet) {
+                newSheet();
+            }
+            return sheet.createRow(rowIndex++);
+        }
+
+        void text(Row row, int column, String value) {
+            if (value != null) {
+                row.createCell(column).setCellValue(value);
+            }
+        }
+
+        void number(Row row, int column, Integer value) {
+            if (value != null) {
+                row.createCell(column).setCellValue(value);
+            }
+        }
+
+        void date(Row row, int column, LocalDate value) {
+            if (value != null) {
+                Cell cell = row.createCell(column);
+                cell.setCellValue(value);
+                cell.setCellStyle(dateStyle);
+            }
+        }
+
+        void dateTime(Row row, int column, LocalDateTime value) {
+            if (value != null) {
+                Cell cell = row.createCell(column);
+                cell.setCellValue(value);
+                cell.setCellStyle(dateTimeStyle);
+            }
+        }
+
+        void write(OutputStream outputStream) throws IOException {
+            workbook.write(outputStream);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Deletes the temp files even if writing failed half way
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleCheckResponse;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import com.vehiclemanagement.util.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of gate check results keyed by normalized plate, gate and type.
+ *
+ * Cameras keep re-sending the same plate while a car waits at the barrier; repeats inside
+ * the window are answered from here without a transaction, a status write or a broadcast.
+ * Single checks are looked up before the service is entered and batch detections one by one
+ * inside it; results are stored once the check commits.
+ * The first result stored for a key holds until it expires, so a concurrent duplicate that
+ * lost the status race cannot replace the approval the barrier acted on. Keys come from
+ * unauthenticated requests, so the map is capped; once full, new results are not cached.
+ */
+@Component
+public class GateCheckDeduplicator {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gate.dedup.window-ms:5000}")
+    private long windowMs;
+
+    @Value("${gate.dedup.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, CachedResult> results = new ConcurrentHashMap<>();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("gate.dedup.lookups")
+                .description("Gate checks answered from the de-duplication window")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder("gate.dedup.lookups")
+                .description("Gate checks that ran the full check")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Result of an identical check inside the window, or null if the check has to run
+     */
+    public VehicleCheckResponse find(String licensePlateNumber, String gateLocation, String type) {
+        if (windowMs <= 0) {
+            return null;
+        }
+        CachedResult cached = results.get(key(licensePlateNumber, gateLocation, type));
+        if (cached != null && cached.expiresAtNanos - System.nanoTime() > 0) {
+            hitCounter.increment();
+            return cached.response;
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * Remember a check result once the current transaction commits
+     */
+    public void rememberAfterCommit(String licensePlateNumber, String gateLocation, String type, VehicleCheckResponse response) {
+        if (windowMs <= 0) {
+            return;
+        }
+        String key = key(licensePlateNumber, gateLocation, type);
+        TransactionUtil.runAfterCommit(() -> remember(key, response));
+    }
+
+    private void remember(String key, VehicleCheckResponse response) {
+        long now = System.nanoTime();
+        if (results.size() >= maxEntries && !results.containsKey(key)) {
+            evictExpired();
+            if (results.size() >= maxEntries) {
+                return;
+            }
+        }
+        CachedResult fresh = new CachedResult(response, now + TimeUnit.MILLISECONDS.toNanos(windowMs));
+        results.compute(key, (k, existing) ->
+                existing != null && existing.expiresAtNanos - now > 0 ? existing : fresh);
+    }
+
+    /**
+     * Drop expired entries so plates seen once do not accumulate
+     */
+    @Scheduled(fixedDelayString = "${gate.dedup.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        results.values().removeIf(cached -> cached.expiresAtNanos - now <= 0);
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * Identity of a check: repeats with the same key get the same result
+     */
+    String key(String licensePlateNumber, String gateLocation, String type) {
+        return LicensePlateUtil.normalize(licensePlateNumber) + '|'
+                + (gateLocation != null ? gateLocation.trim() : "") + '|'
+                + (type != null ? type.trim().toLowerCase() : "");
+    }
+
+    private static final class CachedResult {
+        private final VehicleCheckResponse response;
+        private final long expiresAtNanos;
+
+        private CachedResult(VehicleCheckResponse response, long expiresAtNanos) {
+            this.response = response;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleCheckBatchRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Latency timers for the gate check and its sub-steps.
+ *
+ * gate.check is tagged by outcome, type, gate and source; gate.check.step by step name. Both
+ * publish percentile histograms so p99 can be computed across instances from the Prometheus
+ * buckets. Type and gate arrive from unauthenticated gate requests, so they are folded into a
+ * fixed set of values (entry/exit/other, the configured gate names/other) before tagging;
+ * otherwise every distinct value would register a new histogram.
+ */
+@Component
+public class GateCheckMetrics {
+
+    public static final String STEP_PLATE_LOOKUP = "plate_lookup";
+    public static final String STEP_STATUS_WRITE = "status_write";
+    public static final String STEP_LOG_INSERT = "log_insert";
+    public static final String STEP_EMPLOYEE_INFO = "employee_info";
+    public static final String STEP_WEBSOCKET_SEND = "websocket_send";
+
+    public static final String SOURCE_HTTP = "http";
+    public static final String SOURCE_STOMP = "stomp";
+    public static final String SOURCE_BATCH = "batch";
+
+    private static final String OTHER = "other";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gate.metrics.gates:Main Gate}")
+    private List<String> gates;
+
+    // Lower-cased name -> configured name
+    private Map<String, String> gateTags;
+
+    @PostConstruct
+    public void init() {
+        gateTags = gates.stream()
+                .map(String::trim)
+                .filter(gate -> !gate.isEmpty())
+                .collect(Collectors.toMap(gate -> gate.toLowerCase(Locale.ROOT), gate -> gate, (first, second) -> first));
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stop the overall timer for one gate check
+     * @param outcome Decision outcome, or null if the check failed with an error
+     */
+    public void recordCheck(Timer.Sample sample, GateDecision.Outcome outcome, String type, String gateLocation, String source) {
+        sample.stop(checkTimer(outcome, type, gateLocation, source));
+    }
+
+    /**
+     * Stop the timer for a batch of gate checks; every detection is recorded with the batch latency
+     * @param outcomes Outcome per detection, or null if the batch failed with an error
+     */
+    public void recordBatch(Timer.Sample sample, List<VehicleCheckBatchRequest.Detection> detections,
+                            List<GateDecision.Outcome> outcomes) {
+        long nanos = -1;
+        for (int i = 0; i < detections.size(); i++) {
+            VehicleCheckBatchRequest.Detection detection = detections.get(i);
+            Timer timer = checkTimer(outcomes != null ? outcomes.get(i) : null,
+                    detection.getType(), detection.getGateLocation(), SOURCE_BATCH);
+            if (nanos < 0) {
+                nanos = sample.stop(timer);
+            } else {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer checkTimer(GateDecision.Outcome outcome, String type, String gateLocation, String source) {
+        return Timer.builder("gate.check")
+                .description("Gate check latency from request to decision")
+                .tag("outcome", (outcome != null ? outcome : GateDecision.Outcome.ERROR).name().toLowerCase().replace('_', '-'))
+                .tag("type", typeTag(type))
+                .tag("gate", gateTag(gateLocation))
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String typeTag(String type) {
+        if (type != null) {
+            String normalized = type.trim().toLowerCase(Locale.ROOT);
+            if (normalized.equals("entry") || normalized.equals("exit")) {
+                return normalized;
+            }
+        }
+        return OTHER;
+    }
+
+    // Null is the gate VehicleService logs such checks at, so both land on the same tag
+    private String gateTag(String gateLocation) {
+        String gate = gateLocation != null ? gateLocation : VehicleService.DEFAULT_GATE_LOCATION;
+        return gateTags.getOrDefault(gate.trim().toLowerCase(Locale.ROOT), OTHER);
+    }
+
+    public <T> T recordStep(String step, Supplier<T> action) {
+        return stepTimer(step).record(action);
+    }
+
+    public void recordStep(String step, Runnable action) {
+        stepTimer(step).record(action);
+    }
+
+    private Timer stepTimer(String step) {
+        return Timer.builder("gate.check.step")
+                .description("Latency of a gate check sub-step")
+                .tag("step", step)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
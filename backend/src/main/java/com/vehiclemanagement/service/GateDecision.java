@@ -0,0 +1,94 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleCheckResponse;
+import com.vehiclemanagement.entity.Vehicle;
+
+/**
+ * Outcome of a gate check, computed from the access index before any side effects
+ * (status write, log entry, monitor notification) are applied.
+ */
+public class GateDecision {
+
+    public enum Outcome {
+        APPROVED, DENIED, NOT_FOUND, AMBIGUOUS, CONFLICT, ERROR
+    }
+
+    private final Outcome outcome;
+    private final String licensePlateNumber;
+    private final String type;
+    private final String displayPlate;
+    private final VehicleAccessIndex.Entry vehicle;
+    private final Vehicle.VehicleStatus newStatus;
+    private final double matchConfidence;
+    private final String message;
+    private final long decidedAtNanos = System.nanoTime();
+
+    public GateDecision(Outcome outcome, String licensePlateNumber, String type, String displayPlate,
+                        VehicleAccessIndex.Entry vehicle, Vehicle.VehicleStatus newStatus,
+                        double matchConfidence, String message) {
+        this.outcome = outcome;
+        this.licensePlateNumber = licensePlateNumber;
+        this.type = type;
+        this.displayPlate = displayPlate;
+        this.vehicle = vehicle;
+        this.newStatus = newStatus;
+        this.matchConfidence = matchConfidence;
+        this.message = message;
+    }
+
+    static GateDecision rejected(Outcome outcome, String licensePlateNumber, String type, String message) {
+        return new GateDecision(outcome, licensePlateNumber, type, licensePlateNumber, null, null, 0.0, message);
+    }
+
+    public VehicleCheckResponse toResponse() {
+        VehicleCheckResponse response = new VehicleCheckResponse(isApproved(), message, licensePlateNumber, type);
+        if (vehicle != null) {
+            response.setMatchedLicensePlate(vehicle.getLicensePlate());
+            response.setMatchConfidence(matchConfidence);
+        }
+        return response;
+    }
+
+    public boolean isApproved() {
+        return outcome == Outcome.APPROVED;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getLicensePlateNumber() {
+        return licensePlateNumber;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /** Detected plate, or the registered plate when the detection was corrected */
+    public String getDisplayPlate() {
+        return displayPlate;
+    }
+
+    public VehicleAccessIndex.Entry getVehicle() {
+        return vehicle;
+    }
+
+    /** Status the vehicle moves to, or null if the decision does not change it */
+    public Vehicle.VehicleStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public double getMatchConfidence() {
+        return matchConfidence;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /** System.nanoTime() when the decision was made, before its transaction commits */
+    public long getDecidedAtNanos() {
+        return decidedAtNanos;
+    }
+}
@@ -0,0 +1,321 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.entity.VehicleLog;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import com.vehiclemanagement.util.TransactionUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the follow-up of a gate decision (log persistence, monitor notification) off the
+ * request thread.
+ *
+ * Events are spread over a fixed number of single-threaded lanes by normalized plate, so
+ * the events of one plate are handled in the order they were decided. Each lane has a
+ * bounded queue; when it is full the submitting thread blocks until there is room
+ * (backpressure) rather than handling the event itself, which would let it overtake the
+ * events of the same plate still queued. Waits longer than the offer timeout are counted,
+ * and a submitter that still finds no room after the max wait gives up on the event: its
+ * log goes to the dead letter file and monitors are not told, so a stalled lane (e.g. the
+ * database hanging) cannot hold request threads indefinitely.
+ *
+ * The log of an event is always inserted in a transaction of its own: the submitting thread
+ * runs in the after-commit callback of the decision's transaction, where joining that
+ * already committed transaction would silently never write the row. The decision itself is
+ * already committed by then, so a failed insert is retried with backoff on the lane, and a
+ * log that still cannot be written is appended to a dead letter file for replay.
+ */
+@Component
+public class GateEventPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(GateEventPipeline.class);
+
+    @Autowired
+    private VehicleLogService vehicleLogService;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GateCheckMetrics gateCheckMetrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gate.pipeline.lanes:4}")
+    private int laneCount;
+
+    @Value("${gate.pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${gate.pipeline.offer-timeout-ms:200}")
+    private long offerTimeoutMs;
+
+    @Value("${gate.pipeline.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Value("${gate.pipeline.log-retry-attempts:3}")
+    private int logRetryAttempts;
+
+    @Value("${gate.pipeline.log-retry-backoff-ms:500}")
+    private long logRetryBackoffMs;
+
+    @Value("${gate.pipeline.dead-letter-file:dead-letters/gate-events.jsonl}")
+    private String deadLetterFile;
+
+    private final List<Lane> lanes = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private Timer lagTimer;
+    private Timer processingTimer;
+    private Counter overflowCounter;
+    private Counter failureCounter;
+    private Counter deadLetterCounter;
+    private TransactionTemplate logTransaction;
+    private final ObjectMapper deadLetterMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @PostConstruct
+    public void start() {
+        logTransaction = new TransactionTemplate(transactionManager);
+        logTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lagTimer = Timer.builder("gate.pipeline.lag")
+                .description("Time between a gate decision and the start of its follow-up, including its commit")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        processingTimer = Timer.builder("gate.pipeline.processing")
+                .description("Time spent persisting the log and notifying monitors")
+                .register(meterRegistry);
+        overflowCounter = Counter.builder("gate.pipeline.overflow")
+                .description("Events whose submitter waited longer than the offer timeout for a full lane")
+                .register(meterRegistry);
+        failureCounter = Counter.builder("gate.pipeline.failures")
+                .description("Events whose follow-up failed")
+                .register(meterRegistry);
+        deadLetterCounter = Counter.builder("gate.pipeline.dead-letters")
+                .description("Access logs written to the dead letter file after their inserts kept failing")
+                .register(meterRegistry);
+
+        for (int i = 0; i < laneCount; i++) {
+            Lane lane = new Lane(i, new ArrayBlockingQueue<>(queueCapacity));
+            lanes.add(lane);
+            Gauge.builder("gate.pipeline.queue.depth", lane.queue, BlockingQueue::size)
+                    .description("Events waiting in a pipeline lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+            lane.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queue the follow-up of a decision once the current transaction commits
+     * @param logEntry Log row to persist, or null if none is needed (e.g. already written in a batch)
+     */
+    public void submitAfterCommit(GateDecision decision, VehicleLogDto logEntry) {
+        TransactionUtil.runAfterCommit(() -> submit(new GateEvent(decision, logEntry)));
+    }
+
+    public int getQueueDepth() {
+        return lanes.stream().mapToInt(lane -> lane.queue.size()).sum();
+    }
+
+    private void submit(GateEvent event) {
+        String plate = event.decision.getVehicle() != null
+                ? event.decision.getVehicle().getNormalizedPlate()
+                : LicensePlateUtil.normalize(event.decision.getLicensePlateNumber());
+        Lane lane = lanes.get(Math.floorMod(plate != null ? plate.hashCode() : 0, lanes.size()));
+        if (!running) {
+            // Shutting down: the lanes only drain what is already queued
+            process(event);
+            return;
+        }
+        try {
+            if (lane.queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            overflowCounter.increment();
+            logger.warn("Gate pipeline lane {} is full, waiting to queue event for {}",
+                    lane.index, event.decision.getLicensePlateNumber());
+            if (lane.queue.offer(event, Math.max(maxWaitMs - offerTimeoutMs, 0), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            failureCounter.increment();
+            logger.error("Gate pipeline lane {} stayed full for {} ms, dropping event for {}",
+                    lane.index, maxWaitMs, event.decision.getLicensePlateNumber());
+            if (event.logEntry != null) {
+                writeDeadLetter(event.logEntry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while queueing gate event for {}, handling it on this thread",
+                    event.decision.getLicensePlateNumber());
+            process(event);
+        }
+    }
+
+    private void process(GateEvent event) {
+        lagTimer.record(System.nanoTime() - event.decision.getDecidedAtNanos(), TimeUnit.NANOSECONDS);
+        processingTimer.record(() -> {
+            if (event.logEntry != null) {
+                insertLog(event);
+            }
+            try {
+                notifyMonitor(event.decision);
+            } catch (Exception e) {
+                failureCounter.increment();
+                logger.error("Failed to notify monitors of gate event for {}", event.decision.getLicensePlateNumber(), e);
+            }
+        });
+    }
+
+    private void insertLog(GateEvent event) {
+        long backoffMs = logRetryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                gateCheckMetrics.recordStep(GateCheckMetrics.STEP_LOG_INSERT,
+                        () -> logTransaction.executeWithoutResult(status -> vehicleLogService.createAccessLog(event.logEntry)));
+                return;
+            } catch (Exception e) {
+                failureCounter.increment();
+                if (attempt >= logRetryAttempts) {
+                    logger.error("Failed to insert access log for {} after {} attempts",
+                            event.decision.getLicensePlateNumber(), attempt, e);
+                    writeDeadLetter(event.logEntry);
+                    return;
+                }
+                logger.warn("Failed to insert access log for {}, retrying in {} ms: {}",
+                        event.decision.getLicensePlateNumber(), backoffMs, e.getMessage());
+            }
+            // Retried on the lane so later events of the plate stay behind this one
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeDeadLetter(event.logEntry);
+                return;
+            }
+            backoffMs *= 2;
+        }
+    }
+
+    /**
+     * Append a log that could not be inserted as one JSON line, in the shape POST /api/vehicle-logs accepts
+     */
+    private synchronized void writeDeadLetter(VehicleLogDto logEntry) {
+        deadLetterCounter.increment();
+        try {
+            Path file = Paths.get(deadLetterFile);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, deadLetterMapper.writeValueAsString(logEntry) + System.lineSeparator(),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("Failed to write dead letter for {}: {}", logEntry.getLicensePlateNumber(), logEntry, e);
+        }
+    }
+
+    /**
+     * Push a gate decision to the monitoring screens
+     */
+    private void notifyMonitor(GateDecision decision) {
+        if (decision.isApproved()) {
+            // Get employee info and send to WebSocket
+            try {
+                VehicleLog.LogType logType = "entry".equalsIgnoreCase(decision.getType()) ? VehicleLog.LogType.entry : VehicleLog.LogType.exit;
+                Object monitorInfo = gateCheckMetrics.recordStep(GateCheckMetrics.STEP_EMPLOYEE_INFO,
+                        () -> vehicleLogService.getEmployeeInfoByLicensePlate(decision.getVehicle().getLicensePlate(), logType));
+                gateCheckMetrics.recordStep(GateCheckMetrics.STEP_WEBSOCKET_SEND,
+                        () -> webSocketService.sendVehicleCheckMessage(monitorInfo));
+            } catch (Exception e) {
+                // Fallback to simple message if employee info fails
+                sendSimpleMessage(decision);
+            }
+        } else {
+            sendSimpleMessage(decision);
+        }
+    }
+
+    private void sendSimpleMessage(GateDecision decision) {
+        gateCheckMetrics.recordStep(GateCheckMetrics.STEP_WEBSOCKET_SEND,
+                () -> webSocketService.sendVehicleCheckMessage(decision.getDisplayPlate(), decision.getType(), decision.getMessage()));
+    }
+
+    private static final class GateEvent {
+        private final GateDecision decision;
+        private final VehicleLogDto logEntry;
+
+        private GateEvent(GateDecision decision, VehicleLogDto logEntry) {
+            this.decision = decision;
+            this.logEntry = logEntry;
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final int index;
+        private final BlockingQueue<GateEvent> queue;
+        private final Thread thread;
+
+        private Lane(int index, BlockingQueue<GateEvent> queue) {
+            this.index = index;
+            this.queue = queue;
+            this.thread = new Thread(this, "gate-pipeline-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            // Keep draining after shutdown starts so queued logs are not lost
+            while (running || !queue.isEmpty()) {
+                try {
+                    GateEvent event = queue.poll(500, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        process(event);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
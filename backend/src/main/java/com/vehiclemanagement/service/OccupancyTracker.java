@@ -0,0 +1,258 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.OccupancyDto;
+import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.entity.VehicleLog;
+import com.vehiclemanagement.repository.VehicleLogRepository;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import com.vehiclemanagement.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live count of the vehicles inside, per gate area and vehicle category.
+ *
+ * The last known event of every plate is kept in a map, and a plate moving in or out adjusts
+ * a striped counter (LongAdder) for its gate area and category inside the map's per-key
+ * compute, so counters and plates change together. Reading the counts touches one counter
+ * pair per gate area and never the database. Events older than the plate's last known event
+ * (a gate backlog synced late) do not change its state. Edits and deletes can move a plate's
+ * state backwards, so for those the plate is re-derived from its latest remaining log.
+ *
+ * The state is rebuilt from vehicle_log at startup; changes are pushed to /topic/occupancy
+ * at most once per occupancy.push-interval-ms.
+ */
+@Component
+public class OccupancyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyTracker.class);
+
+    private static final String REBUILD_SQL =
+            "SELECT DISTINCT ON (license_plate_normalized) license_plate_normalized, license_plate_number, " +
+            "type, vehicle_type, gate_location, entry_exit_time FROM vehicle_log WHERE entry_exit_time >= ? " +
+            "ORDER BY license_plate_normalized, entry_exit_time DESC, id DESC";
+
+    @Autowired
+    private StreamingQueryRunner streamingQueryRunner;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private VehicleLogRepository vehicleLogRepository;
+
+    @Value("${occupancy.rebuild-lookback-days:90}")
+    private int rebuildLookbackDays;
+
+    private final Map<String, PlateState> plates = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder[]> counters = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long pushedVersion;
+    private volatile LocalDateTime updatedAt = LocalDateTime.now();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusDays(rebuildLookbackDays);
+        streamingQueryRunner.query(REBUILD_SQL, List.of(Timestamp.valueOf(since)), rs -> {
+            Timestamp time = rs.getTimestamp("entry_exit_time");
+            record(rs.getString("license_plate_normalized"), rs.getString("license_plate_number"),
+                    VehicleLog.LogType.valueOf(rs.getString("type")),
+                    VehicleLog.VehicleCategory.valueOf(rs.getString("vehicle_type")),
+                    rs.getString("gate_location"), time.toLocalDateTime());
+        });
+        logger.info("Occupancy rebuilt from the last {} days of logs in {} ms: {} vehicles inside",
+                rebuildLookbackDays, System.currentTimeMillis() - start, getOccupancy().getTotal());
+    }
+
+    /**
+     * Apply a log entry once the current transaction commits, or immediately if there is none
+     */
+    public void recordAfterCommit(VehicleLogDto log) {
+        TransactionUtil.runAfterCommit(() -> record(log));
+    }
+
+    public void recordAfterCommit(VehicleLog log) {
+        String licensePlateNumber = log.getLicensePlateNumber();
+        VehicleLog.LogType type = log.getType();
+        VehicleLog.VehicleCategory vehicleType = log.getVehicleType();
+        String gateLocation = log.getGateLocation();
+        LocalDateTime entryExitTime = log.getEntryExitTime();
+        TransactionUtil.runAfterCommit(() -> record(LicensePlateUtil.normalize(licensePlateNumber), licensePlateNumber,
+                type, vehicleType, gateLocation, entryExitTime));
+    }
+
+    public void record(VehicleLogDto log) {
+        record(LicensePlateUtil.normalize(log.getLicensePlateNumber()), log.getLicensePlateNumber(),
+                log.getType(), log.getVehicleType(), log.getGateLocation(), log.getEntryExitTime());
+    }
+
+    void record(String normalizedPlate, String licensePlateNumber, VehicleLog.LogType type,
+                VehicleLog.VehicleCategory vehicleType, String gateLocation, LocalDateTime entryExitTime) {
+        if (normalizedPlate == null || normalizedPlate.isEmpty() || type == null) {
+            return;
+        }
+        PlateState next = new PlateState(type == VehicleLog.LogType.entry, licensePlateNumber,
+                gateLocation != null ? gateLocation : "",
+                vehicleType != null ? vehicleType : VehicleLog.VehicleCategory.external,
+                entryExitTime != null ? entryExitTime : LocalDateTime.now());
+        plates.compute(normalizedPlate, (plate, current) -> {
+            if (current != null && next.time.isBefore(current.time)) {
+                return current;
+            }
+            return move(current, next);
+        });
+    }
+
+    /**
+     * Re-derive a plate's state from its latest remaining log once the current transaction commits.
+     * For edited and deleted logs, where the plate's last known event may no longer exist.
+     */
+    public void refreshAfterCommit(String licensePlateNumber) {
+        String normalizedPlate = LicensePlateUtil.normalize(licensePlateNumber);
+        if (normalizedPlate == null || normalizedPlate.isEmpty()) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(() -> replace(normalizedPlate,
+                vehicleLogRepository.findTopByLicensePlateNormalizedOrderByEntryExitTimeDescIdDesc(normalizedPlate).orElse(null)));
+    }
+
+    /**
+     * Set a plate's state from its latest log, even if that is older than the known one
+     * @param latest Latest log of the plate, or null if it has none left
+     */
+    void replace(String normalizedPlate, VehicleLog latest) {
+        // Same window as rebuild(), so a refreshed plate ends up as it would after a restart
+        PlateState next = latest != null && latest.getType() != null
+                && !latest.getEntryExitTime().isBefore(LocalDateTime.now().minusDays(rebuildLookbackDays))
+                ? new PlateState(latest.getType() == VehicleLog.LogType.entry, latest.getLicensePlateNumber(),
+                        latest.getGateLocation() != null ? latest.getGateLocation() : "",
+                        latest.getVehicleType() != null ? latest.getVehicleType() : VehicleLog.VehicleCategory.external,
+                        latest.getEntryExitTime())
+                : null;
+        plates.compute(normalizedPlate, (plate, current) -> move(current, next));
+    }
+
+    // Moves the counters from current to next; runs inside the plate's compute
+    private PlateState move(PlateState current, PlateState next) {
+        boolean wasInside = current != null && current.inside;
+        boolean isInside = next != null && next.inside;
+        if (wasInside) {
+            counter(current.gateLocation, current.vehicleType).decrement();
+        }
+        if (isInside) {
+            counter(next.gateLocation, next.vehicleType).increment();
+        }
+        if (wasInside || isInside) {
+            version.incrementAndGet();
+            updatedAt = LocalDateTime.now();
+        }
+        return next;
+    }
+
+    /**
+     * Current counts; cost depends on the number of gate areas only
+     */
+    public OccupancyDto getOccupancy() {
+        List<OccupancyDto.GateArea> gates = new ArrayList<>();
+        long internal = 0;
+        long external = 0;
+        long currentVersion = version.get();
+        for (Map.Entry<String, LongAdder[]> entry : counters.entrySet()) {
+            long gateInternal = entry.getValue()[VehicleLog.VehicleCategory.internal.ordinal()].sum();
+            long gateExternal = entry.getValue()[VehicleLog.VehicleCategory.external.ordinal()].sum();
+            if (gateInternal + gateExternal > 0) {
+                gates.add(new OccupancyDto.GateArea(entry.getKey(), gateInternal + gateExternal, gateInternal, gateExternal));
+            }
+            internal += gateInternal;
+            external += gateExternal;
+        }
+        gates.sort(Comparator.comparing(OccupancyDto.GateArea::getGateLocation));
+        return OccupancyDto.builder()
+                .total(internal + external)
+                .internal(internal)
+                .external(external)
+                .gates(gates)
+                .version(currentVersion)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    /**
+     * Vehicles inside, most recent entry first
+     * @param gateLocation Only vehicles that entered through this gate, or null for all
+     */
+    public List<OccupancyDto.PresentVehicle> getPresentVehicles(String gateLocation) {
+        return plates.values().stream()
+                .filter(state -> state.inside)
+                .filter(state -> gateLocation == null || gateLocation.equals(state.gateLocation))
+                .sorted(Comparator.comparing((PlateState state) -> state.time).reversed())
+                .map(PlateState::toPresentVehicle)
+                .toList();
+    }
+
+    /**
+     * The vehicle with this plate if it is inside
+     */
+    public Optional<OccupancyDto.PresentVehicle> findPresentVehicle(String licensePlateNumber) {
+        PlateState state = plates.get(LicensePlateUtil.normalize(licensePlateNumber));
+        return state != null && state.inside ? Optional.of(state.toPresentVehicle()) : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${occupancy.push-interval-ms:1000}")
+    public void pushChanges() {
+        long currentVersion = version.get();
+        if (currentVersion == pushedVersion) {
+            return;
+        }
+        try {
+            webSocketService.sendOccupancyUpdate(getOccupancy());
+            pushedVersion = currentVersion;
+        } catch (Exception e) {
+            logger.warn("Failed to push occupancy update: {}", e.getMessage());
+        }
+    }
+
+    private LongAdder counter(String gateLocation, VehicleLog.VehicleCategory vehicleType) {
+        return counters.computeIfAbsent(gateLocation, gate -> new LongAdder[] {new LongAdder(), new LongAdder()})
+                [vehicleType.ordinal()];
+    }
+
+    private static final class PlateState {
+        private final boolean inside;
+        private final String licensePlateNumber;
+        private final String gateLocation;
+        private final VehicleLog.VehicleCategory vehicleType;
+        private final LocalDateTime time;
+
+        private PlateState(boolean inside, String licensePlateNumber, String gateLocation,
+                           VehicleLog.VehicleCategory vehicleType, LocalDateTime time) {
+            this.inside = inside;
+            this.licensePlateNumber = licensePlateNumber;
+            this.gateLocation = gateLocation;
+            this.vehicleType = vehicleType;
+            this.time = time;
+        }
+
+        private OccupancyDto.PresentVehicle toPresentVehicle() {
+            return new OccupancyDto.PresentVehicle(licensePlateNumber, gateLocation, vehicleType, time);
+        }
+    }
+}
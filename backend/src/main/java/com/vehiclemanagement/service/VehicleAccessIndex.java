@@ -0,0 +1,365 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.entity.Vehicle;
+import com.vehiclemanagement.repository.VehicleRepository;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import com.vehiclemanagement.util.PlateMatcher;
+import com.vehiclemanagement.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-process index of registered vehicles keyed by normalized license plate.
+ * Gate checks read from it without touching the database; writers publish
+ * their changes here once the surrounding transaction has committed.
+ *
+ * The index also versions the gate allow-list (plates whose vehicle is not rejected):
+ * every change that adds or removes a plate from it bumps the version and is kept in
+ * a bounded change log, so gate PCs can sync offline copies with small deltas.
+ *
+ * After-commit callbacks of concurrent transactions run in no particular order, so every
+ * entry carries the vehicle row version it was read at and older updates are dropped.
+ */
+@Component
+public class VehicleAccessIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleAccessIndex.class);
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Value("${gate.allow-list.max-changes:10000}")
+    private int maxAllowListChanges;
+
+    private final Map<String, Entry> entriesByPlate = new ConcurrentHashMap<>();
+    private final Map<UUID, String> platesByVehicleId = new ConcurrentHashMap<>();
+    private final PlateMatcher plateMatcher = new PlateMatcher();
+
+    // Allow-list versioning, guarded by this. The epoch changes on restart since versions are not persisted.
+    private final String allowListEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private long allowListVersion;
+    private final Deque<AllowListChange> allowListChanges = new ArrayDeque<>();
+
+    @PostConstruct
+    public void load() {
+        List<Vehicle> vehicles = vehicleRepository.findAllWithEmployee();
+        synchronized (this) {
+            entriesByPlate.clear();
+            platesByVehicleId.clear();
+            plateMatcher.clear();
+            vehicles.forEach(vehicle -> apply(Entry.of(vehicle)));
+            allowListChanges.clear();
+        }
+        logger.info("Vehicle access index loaded with {} vehicles", vehicles.size());
+    }
+
+    /**
+     * Look up a vehicle by its normalized license plate
+     * @param normalizedPlate Plate as returned by LicensePlateUtil.normalize
+     * @return Snapshot of the vehicle and its owner, if registered
+     */
+    public Optional<Entry> find(String normalizedPlate) {
+        if (normalizedPlate == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entriesByPlate.get(normalizedPlate));
+    }
+
+    /**
+     * Resolve a plate the OCR may have misread to a unique registered plate
+     * @param normalizedPlate Plate as returned by LicensePlateUtil.normalize
+     * @return Match result; use find(match.getPlate()) to get the vehicle
+     */
+    public PlateMatcher.Match match(String normalizedPlate) {
+        return plateMatcher.match(normalizedPlate);
+    }
+
+    public int size() {
+        return entriesByPlate.size();
+    }
+
+    public String getAllowListEpoch() {
+        return allowListEpoch;
+    }
+
+    public synchronized long getAllowListVersion() {
+        return allowListVersion;
+    }
+
+    /**
+     * Current allow-list as sorted normalized plates, with the version it corresponds to
+     */
+    public synchronized AllowList allowList() {
+        List<String> plates = entriesByPlate.values().stream()
+                .filter(Entry::isAuthorized)
+                .map(Entry::getNormalizedPlate)
+                .sorted()
+                .collect(Collectors.toList());
+        return new AllowList(allowListVersion, plates, Collections.emptyList());
+    }
+
+    /**
+     * Plates added to and removed from the allow-list after the given version
+     * @return The delta, or empty if the change log no longer reaches back that far
+     */
+    public synchronized Optional<AllowList> allowListChangesSince(long version) {
+        if (version > allowListVersion) {
+            return Optional.empty();
+        }
+        AllowListChange oldest = allowListChanges.peekFirst();
+        if (version < allowListVersion && (oldest == null || oldest.version > version + 1)) {
+            return Optional.empty();
+        }
+        // Later changes to the same plate win
+        Map<String, Boolean> finalStates = new TreeMap<>();
+        for (AllowListChange change : allowListChanges) {
+            if (change.version > version) {
+                finalStates.put(change.plate, change.authorized);
+            }
+        }
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        finalStates.forEach((plate, authorized) -> (authorized ? added : removed).add(plate));
+        return Optional.of(new AllowList(allowListVersion, added, removed));
+    }
+
+    /**
+     * Add or replace a vehicle once the current transaction commits.
+     * The entry is taken after commit, when the flush has bumped the vehicle's version.
+     */
+    public void put(Vehicle vehicle) {
+        TransactionUtil.runAfterCommit(() -> {
+            Entry entry = Entry.of(vehicle);
+            synchronized (this) {
+                if (!isStale(entry.getVehicleId(), entry.getVersion())) {
+                    apply(entry);
+                }
+            }
+        });
+    }
+
+    public void remove(UUID vehicleId) {
+        TransactionUtil.runAfterCommit(() -> {
+            synchronized (this) {
+                String plate = platesByVehicleId.remove(vehicleId);
+                if (plate != null) {
+                    recordAllowListChange(plate, entriesByPlate.remove(plate), null);
+                    plateMatcher.remove(plate);
+                }
+            }
+        });
+    }
+
+    /**
+     * Set a vehicle's status once the current transaction commits
+     * @param version Row version the status was written with; ignored if the index already holds a newer one
+     */
+    public void updateStatus(UUID vehicleId, Vehicle.VehicleStatus status, long version) {
+        TransactionUtil.runAfterCommit(() -> {
+            synchronized (this) {
+                String plate = platesByVehicleId.get(vehicleId);
+                Entry previous = plate != null ? entriesByPlate.get(plate) : null;
+                if (previous != null && previous.getVersion() < version) {
+                    Entry updated = previous.withStatus(status, version);
+                    entriesByPlate.put(plate, updated);
+                    recordAllowListChange(plate, previous, updated);
+                }
+            }
+        });
+    }
+
+    public void updateOwnerName(UUID employeeId, String employeeName) {
+        TransactionUtil.runAfterCommit(() -> {
+            synchronized (this) {
+                entriesByPlate.replaceAll((plate, entry) ->
+                        employeeId.equals(entry.getEmployeeId()) ? entry.withEmployeeName(employeeName) : entry);
+            }
+        });
+    }
+
+    public void removeByOwner(UUID employeeId) {
+        TransactionUtil.runAfterCommit(() -> {
+            synchronized (this) {
+                entriesByPlate.values().removeIf(entry -> {
+                    if (employeeId.equals(entry.getEmployeeId())) {
+                        platesByVehicleId.remove(entry.getVehicleId());
+                        plateMatcher.remove(entry.getNormalizedPlate());
+                        recordAllowListChange(entry.getNormalizedPlate(), entry, null);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        });
+    }
+
+    // Whether the index already holds the vehicle at the given version or a later one; caller holds this
+    private boolean isStale(UUID vehicleId, long version) {
+        String plate = platesByVehicleId.get(vehicleId);
+        Entry current = plate != null ? entriesByPlate.get(plate) : null;
+        return current != null && current.getVersion() >= version;
+    }
+
+    private void apply(Entry entry) {
+        String previousPlate = platesByVehicleId.put(entry.getVehicleId(), entry.getNormalizedPlate());
+        if (previousPlate != null && !previousPlate.equals(entry.getNormalizedPlate())) {
+            recordAllowListChange(previousPlate, entriesByPlate.remove(previousPlate), null);
+            plateMatcher.remove(previousPlate);
+        }
+        recordAllowListChange(entry.getNormalizedPlate(), entriesByPlate.put(entry.getNormalizedPlate(), entry), entry);
+        plateMatcher.add(entry.getNormalizedPlate());
+    }
+
+    private void recordAllowListChange(String plate, Entry before, Entry after) {
+        boolean wasAuthorized = before != null && before.isAuthorized();
+        boolean isAuthorized = after != null && after.isAuthorized();
+        if (wasAuthorized == isAuthorized) {
+            return;
+        }
+        allowListVersion++;
+        allowListChanges.addLast(new AllowListChange(allowListVersion, plate, isAuthorized));
+        while (allowListChanges.size() > maxAllowListChanges) {
+            allowListChanges.removeFirst();
+        }
+    }
+
+    /**
+     * Allow-list at a version: the full sorted list, or the plates added and removed by a delta
+     */
+    public static final class AllowList {
+        private final long version;
+        private final List<String> plates;
+        private final List<String> removedPlates;
+
+        AllowList(long version, List<String> plates, List<String> removedPlates) {
+            this.version = version;
+            this.plates = plates;
+            this.removedPlates = removedPlates;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<String> getPlates() {
+            return plates;
+        }
+
+        public List<String> getRemovedPlates() {
+            return removedPlates;
+        }
+    }
+
+    private static final class AllowListChange {
+        private final long version;
+        private final String plate;
+        private final boolean authorized;
+
+        private AllowListChange(long version, String plate, boolean authorized) {
+            this.version = version;
+            this.plate = plate;
+            this.authorized = authorized;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the fields a gate decision needs
+     */
+    public static final class Entry {
+        private final UUID vehicleId;
+        private final String licensePlate;
+        private final String normalizedPlate;
+        private final Vehicle.VehicleStatus status;
+        private final Vehicle.VehicleType vehicleType;
+        private final UUID employeeId;
+        private final String employeeName;
+        private final long version;
+
+        public Entry(UUID vehicleId, String licensePlate, String normalizedPlate, Vehicle.VehicleStatus status,
+                     Vehicle.VehicleType vehicleType, UUID employeeId, String employeeName, long version) {
+            this.vehicleId = vehicleId;
+            this.licensePlate = licensePlate;
+            this.normalizedPlate = normalizedPlate;
+            this.status = status;
+            this.vehicleType = vehicleType;
+            this.employeeId = employeeId;
+            this.employeeName = employeeName;
+            this.version = version;
+        }
+
+        static Entry of(Vehicle vehicle) {
+            return new Entry(
+                    vehicle.getId(),
+                    vehicle.getLicensePlate(),
+                    LicensePlateUtil.normalize(vehicle.getLicensePlate()),
+                    vehicle.getStatus(),
+                    vehicle.getVehicleType(),
+                    vehicle.getEmployee() != null ? vehicle.getEmployee().getId() : null,
+                    vehicle.getEmployee() != null ? vehicle.getEmployee().getName() : null,
+                    vehicle.getVersion() != null ? vehicle.getVersion() : 0L
+            );
+        }
+
+        Entry withStatus(Vehicle.VehicleStatus newStatus, long newVersion) {
+            return new Entry(vehicleId, licensePlate, normalizedPlate, newStatus, vehicleType, employeeId, employeeName, newVersion);
+        }
+
+        Entry withEmployeeName(String newEmployeeName) {
+            return new Entry(vehicleId, licensePlate, normalizedPlate, status, vehicleType, employeeId, newEmployeeName, version);
+        }
+
+        public UUID getVehicleId() {
+            return vehicleId;
+        }
+
+        public String getLicensePlate() {
+            return licensePlate;
+        }
+
+        public String getNormalizedPlate() {
+            return normalizedPlate;
+        }
+
+        public Vehicle.VehicleStatus getStatus() {
+            return status;
+        }
+
+        public Vehicle.VehicleType getVehicleType() {
+            return vehicleType;
+        }
+
+        public UUID getEmployeeId() {
+            return employeeId;
+        }
+
+        public String getEmployeeName() {
+            return employeeName;
+        }
+
+        /** Version of the vehicle row this snapshot reflects */
+        public long getVersion() {
+            return version;
+        }
+
+        /** Whether the vehicle belongs on the gate allow-list */
+        public boolean isAuthorized() {
+            return status != Vehicle.VehicleStatus.rejected;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.vehiclemanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.dto.VehicleLogFilter;
+import com.vehiclemanagement.entity.VehicleLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streams vehicle logs out of the database for exports.
+ *
+ * Rows are read through a server-side cursor (see StreamingQueryRunner) and written as they
+ * arrive, so memory use does not depend on how many logs match. Owner, guard and vehicle
+ * details are joined in the same query instead of being loaded per row.
+ */
+@Service
+public class VehicleLogExportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final List<String> CSV_HEADERS = List.of(
+            "ID", "Biển số xe", "Thời gian", "Loại", "Phân loại xe", "Chủ xe", "Phòng ban", "Chức vụ",
+            "Tài xế", "Mục đích", "Cổng", "Bảo vệ", "Hãng xe", "Model", "Màu sắc", "Ghi chú");
+
+    private static final DateTimeFormatter CSV_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String SELECT_LOGS =
+            "SELECT vl.id, vl.license_plate_number, vl.vehicle_id, vl.employee_id, vl.entry_exit_time, vl.type, " +
+            "vl.vehicle_type, vl.driver_name, vl.purpose, vl.gate_location, vl.security_guard_id, vl.notes, " +
+            "vl.image_path, vl.created_at, vl.updated_at, " +
+            "e.name AS employee_name, e.avatar AS employee_avatar, e.department AS employee_department, " +
+            "e.position AS employee_position, g.name AS security_guard_name, " +
+            "v.brand AS vehicle_brand, v.model AS vehicle_model, v.color AS vehicle_color " +
+            "FROM vehicle_log vl " +
+            "LEFT JOIN employees e ON e.id = vl.employee_id " +
+            "LEFT JOIN employees g ON g.id = vl.security_guard_id " +
+            "LEFT JOIN vehicles v ON v.id = vl.vehicle_id";
+
+    @Autowired
+    private StreamingQueryRunner streamingQueryRunner;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Write all logs matching the filter, newest first
+     */
+    public void export(VehicleLogFilter filter, Format format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            if (format == Format.NDJSON) {
+                writeNdjson(filter, writer);
+            } else {
+                writeCsv(filter, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Call the action for each log matching the filter, newest first, without holding them in memory.
+     * The DTO passed to the action must not be kept after it returns.
+     */
+    public void forEachLog(VehicleLogFilter filter, Consumer<VehicleLogDto> action) {
+        StringBuilder sql = new StringBuilder(SELECT_LOGS).append(" WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        if (filter.getStartDate() != null) {
+            sql.append(" AND vl.entry_exit_time >= ?");
+            params.add(filter.getStartDate());
+        }
+        if (filter.getEndDate() != null) {
+            sql.append(" AND vl.entry_exit_time <= ?");
+            params.add(filter.getEndDate());
+        }
+        if (filter.getLicensePlate() != null && !filter.getLicensePlate().isBlank()) {
+            sql.append(" AND LOWER(vl.license_plate_number) LIKE LOWER(?)");
+            params.add("%" + filter.getLicensePlate() + "%");
+        }
+        if (filter.getType() != null) {
+            sql.append(" AND vl.type = ?");
+            params.add(filter.getType().name());
+        }
+        if (filter.getVehicleType() != null) {
+            sql.append(" AND vl.vehicle_type = ?");
+            params.add(filter.getVehicleType().name());
+        }
+        if (filter.getDriverName() != null && !filter.getDriverName().isBlank()) {
+            sql.append(" AND LOWER(vl.driver_name) LIKE LOWER(?)");
+            params.add("%" + filter.getDriverName() + "%");
+        }
+        sql.append(" ORDER BY vl.entry_exit_time DESC, vl.id DESC");
+
+        streamingQueryRunner.query(sql.toString(), params, resultSet -> action.accept(mapRow(resultSet)));
+    }
+
+    private void writeCsv(VehicleLogFilter filter, Writer writer) throws IOException {
+        // BOM so Excel opens the UTF-8 file with Vietnamese characters intact
+        writer.write('\uFEFF');
+        writeCsvLine(writer, CSV_HEADERS);
+        List<String> cells = new ArrayList<>(CSV_HEADERS.size());
+        forEachLog(filter, log -> {
+            cells.clear();
+            cells.add(log.getId().toString());
+            cells.add(log.getLicensePlateNumber());
+            cells.add(log.getEntryExitTime() != null ? CSV_TIME_FORMAT.format(log.getEntryExitTime()) : null);
+            cells.add(log.getType() == VehicleLog.LogType.entry ? "Vào" : "Ra");
+            cells.add(log.getVehicleType() == VehicleLog.VehicleCategory.internal ? "Nội bộ" : "Bên ngoài");
+            cells.add(log.getEmployeeName());
+            cells.add(log.getEmployeeDepartment());
+            cells.add(log.getEmployeePosition());
+            cells.add(log.getDriverName());
+            cells.add(log.getPurpose());
+            cells.add(log.getGateLocation());
+            cells.add(log.getSecurityGuardName());
+            cells.add(log.getVehicleBrand());
+            cells.add(log.getVehicleModel());
+            cells.add(log.getVehicleColor());
+            cells.add(log.getNotes());
+            try {
+                writeCsvLine(writer, cells);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(VehicleLogFilter filter, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        forEachLog(filter, log -> {
+            try {
+                rowWriter.writeValue(generator, log);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.close();
+    }
+
+    private static void writeCsvLine(Writer writer, List<String> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvCell(writer, cells.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvCell(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        // Excel evaluates cells starting with these as formulas; driver names, purposes and
+        // notes come from gate PCs and users, so keep them text
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static VehicleLogDto mapRow(ResultSet rs) throws SQLException {
+        return VehicleLogDto.builder()
+                .id(rs.getObject("id", UUID.class))
+                .licensePlateNumber(rs.getString("license_plate_number"))
+                .vehicleId(rs.getObject("vehicle_id", UUID.class))
+                .employeeId(rs.getObject("employee_id", UUID.class))
+                .employeeName(rs.getString("employee_name"))
+                .employeeAvatar(rs.getString("employee_avatar"))
+                .employeeDepartment(rs.getString("employee_department"))
+                .employeePosition(rs.getString("employee_position"))
+                .entryExitTime(toLocalDateTime(rs.getTimestamp("entry_exit_time")))
+                .type(VehicleLog.LogType.valueOf(rs.getString("type")))
+                .vehicleType(VehicleLog.VehicleCategory.valueOf(rs.getString("vehicle_type")))
+                .driverName(rs.getString("driver_name"))
+                .purpose(rs.getString("purpose"))
+                .gateLocation(rs.getString("gate_location"))
+                .securityGuardId(rs.getObject("security_guard_id", UUID.class))
+                .securityGuardName(rs.getString("security_guard_name"))
+                .notes(rs.getString("notes"))
+                .imagePath(rs.getString("image_path"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .vehicleBrand(rs.getString("vehicle_brand"))
+                .vehicleModel(rs.getString("vehicle_model"))
+                .vehicleColor(rs.getString("vehicle_color"))
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
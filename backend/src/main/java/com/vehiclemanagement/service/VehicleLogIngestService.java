@@ -0,0 +1,306 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleLogBulkRequest;
+import com.vehiclemanagement.dto.VehicleLogBulkResponse;
+import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.entity.Employee;
+import com.vehiclemanagement.entity.Vehicle;
+import com.vehiclemanagement.entity.VehicleLog;
+import com.vehiclemanagement.repository.EmployeeRepository;
+import com.vehiclemanagement.repository.VehicleLogRepository;
+import com.vehiclemanagement.repository.VehicleRepository;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk ingest of gate events, for gate PCs syncing the backlog they recorded while offline.
+ *
+ * A batch costs a fixed number of queries whatever its size: one for client event ids already
+ * stored, one for the plates, one for the guards, then the inserts in JDBC batches of
+ * hibernate.jdbc.batch_size (log ids are generated client side, so nothing is read back).
+ * Events are validated and deduplicated one by one and the outcome of each is reported, so a
+ * gate PC can resend the whole backlog after a timeout and only drop what was acknowledged.
+ */
+@Service
+public class VehicleLogIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleLogIngestService.class);
+
+    // Column sizes of vehicle_log; longer values would fail the whole batch at flush
+    private static final int MAX_CLIENT_EVENT_ID_LENGTH = 100;
+    private static final int MAX_LICENSE_PLATE_LENGTH = 20;
+    private static final int MAX_DRIVER_NAME_LENGTH = 255;
+    private static final int MAX_GATE_LOCATION_LENGTH = 100;
+    private static final int MAX_IMAGE_PATH_LENGTH = 500;
+
+    // Unique index from V38; violations on a partition name the partition's copy of it,
+    // which PostgreSQL derives from the columns (vehicle_log_p..._client_event_id_entry_exit_time_idx)
+    private static final String CLIENT_EVENT_INDEX = "uq_vehicle_log_client_event";
+    private static final String CLIENT_EVENT_INDEX_COLUMN = "client_event_id";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    @Autowired
+    private VehicleLogRepository vehicleLogRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private OccupancyTracker occupancyTracker;
+
+    @Autowired
+    private VehicleLogStream vehicleLogStream;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${vehicle-log.ingest.flush-size:500}")
+    private int flushSize;
+
+    public VehicleLogBulkResponse ingest(List<VehicleLogBulkRequest.Event> events) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            return transaction.execute(status -> ingestOnce(events));
+        } catch (DataIntegrityViolationException e) {
+            if (!isClientEventConflict(e)) {
+                throw e;
+            }
+            // A concurrent sync stored some of these events first; on the retry they are found as duplicates
+            logger.info("Bulk ingest of {} events hit a concurrent insert, retrying", events.size());
+            return transaction.execute(status -> ingestOnce(events));
+        }
+    }
+
+    private static boolean isClientEventConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return UNIQUE_VIOLATION.equals(violation.getSQLState())
+                        && constraint != null
+                        && (constraint.equals(CLIENT_EVENT_INDEX) || constraint.contains(CLIENT_EVENT_INDEX_COLUMN));
+            }
+        }
+        return false;
+    }
+
+    private VehicleLogBulkResponse ingestOnce(List<VehicleLogBulkRequest.Event> events) {
+        VehicleLogBulkResponse.ItemResult[] results = new VehicleLogBulkResponse.ItemResult[events.size()];
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> batchEventIds = new HashSet<>();
+        LocalDateTime minTime = null;
+        LocalDateTime maxTime = null;
+
+        for (int i = 0; i < events.size(); i++) {
+            VehicleLogBulkRequest.Event event = events.get(i);
+            String error = validate(event);
+            if (error != null) {
+                results[i] = result(i, event, VehicleLogBulkResponse.Status.REJECTED, null, error);
+            } else if (!batchEventIds.add(event.getClientEventId())) {
+                results[i] = result(i, event, VehicleLogBulkResponse.Status.DUPLICATE, null, null);
+            } else {
+                accepted.add(i);
+                LocalDateTime time = event.getEntryExitTime();
+                minTime = minTime == null || time.isBefore(minTime) ? time : minTime;
+                maxTime = maxTime == null || time.isAfter(maxTime) ? time : maxTime;
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            Set<String> storedEventIds = new HashSet<>(
+                    vehicleLogRepository.findExistingClientEventIds(batchEventIds, minTime, maxTime));
+            Map<String, Vehicle> vehicles = findVehicles(events, accepted);
+            Map<UUID, Employee> guards = findGuards(events, accepted);
+            // Dwell pairing locks each plate until commit; inserting in plate order makes
+            // concurrent syncs take those locks in the same order instead of deadlocking
+            accepted.sort(Comparator
+                    .comparing((Integer i) -> LicensePlateUtil.normalize(events.get(i).getLicensePlateNumber()))
+                    .thenComparing(i -> events.get(i).getEntryExitTime()));
+
+            List<VehicleLogDto> createdLogs = new ArrayList<>();
+            int pending = 0;
+            for (int i : accepted) {
+                VehicleLogBulkRequest.Event event = events.get(i);
+                if (storedEventIds.contains(event.getClientEventId())) {
+                    results[i] = result(i, event, VehicleLogBulkResponse.Status.DUPLICATE, null, null);
+                    continue;
+                }
+                VehicleLog vehicleLog = toEntity(event,
+                        vehicles.get(LicensePlateUtil.normalize(event.getLicensePlateNumber())),
+                        event.getSecurityGuardId() != null ? guards.get(event.getSecurityGuardId()) : null);
+                vehicleLogRepository.save(vehicleLog);
+                occupancyTracker.recordAfterCommit(vehicleLog);
+                createdLogs.add(toDto(vehicleLog));
+                results[i] = result(i, event, VehicleLogBulkResponse.Status.CREATED, vehicleLog.getId(), null);
+                if (++pending == flushSize) {
+                    // Keeps the persistence context small; flushing through the repository also
+                    // turns a unique violation into DataIntegrityViolationException
+                    vehicleLogRepository.flush();
+                    entityManager.clear();
+                    pending = 0;
+                }
+            }
+            vehicleLogRepository.flush();
+            entityManager.clear();
+            // Inserted in plate order; subscribers get them in the order they happened
+            createdLogs.sort(Comparator.comparing(VehicleLogDto::getEntryExitTime));
+            createdLogs.forEach(vehicleLogStream::publishAfterCommit);
+        }
+
+        int created = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (VehicleLogBulkResponse.ItemResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case REJECTED -> rejected++;
+            }
+        }
+        logger.info("Bulk ingest: {} created, {} duplicates, {} rejected", created, duplicates, rejected);
+        return new VehicleLogBulkResponse(created, duplicates, rejected, List.of(results));
+    }
+
+    private static String validate(VehicleLogBulkRequest.Event event) {
+        if (event == null) {
+            return "Sự kiện không được để trống";
+        }
+        if (event.getClientEventId() == null || event.getClientEventId().isBlank()) {
+            return "Thiếu mã sự kiện (clientEventId)";
+        }
+        if (event.getClientEventId().length() > MAX_CLIENT_EVENT_ID_LENGTH) {
+            return "Mã sự kiện dài quá " + MAX_CLIENT_EVENT_ID_LENGTH + " ký tự";
+        }
+        String normalizedPlate = LicensePlateUtil.normalize(event.getLicensePlateNumber());
+        if (normalizedPlate == null || normalizedPlate.isEmpty()) {
+            return "Biển số xe không hợp lệ";
+        }
+        if (event.getLicensePlateNumber().length() > MAX_LICENSE_PLATE_LENGTH) {
+            return "Biển số xe dài quá " + MAX_LICENSE_PLATE_LENGTH + " ký tự";
+        }
+        if (event.getEntryExitTime() == null) {
+            return "Thiếu thời gian vào/ra";
+        }
+        if (event.getType() == null) {
+            return "Thiếu loại sự kiện (entry/exit)";
+        }
+        if (tooLong(event.getDriverName(), MAX_DRIVER_NAME_LENGTH)) {
+            return "Tên tài xế dài quá " + MAX_DRIVER_NAME_LENGTH + " ký tự";
+        }
+        if (tooLong(event.getGateLocation(), MAX_GATE_LOCATION_LENGTH)) {
+            return "Tên cổng dài quá " + MAX_GATE_LOCATION_LENGTH + " ký tự";
+        }
+        if (tooLong(event.getImagePath(), MAX_IMAGE_PATH_LENGTH)) {
+            return "Đường dẫn ảnh dài quá " + MAX_IMAGE_PATH_LENGTH + " ký tự";
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value, int maxLength) {
+        return value != null && value.length() > maxLength;
+    }
+
+    private Map<String, Vehicle> findVehicles(List<VehicleLogBulkRequest.Event> events, List<Integer> accepted) {
+        Set<String> plates = accepted.stream()
+                .map(i -> LicensePlateUtil.normalize(events.get(i).getLicensePlateNumber()))
+                .collect(Collectors.toSet());
+        return vehicleRepository.findByLicensePlateNormalizedIn(plates).stream()
+                .collect(Collectors.toMap(Vehicle::getLicensePlateNormalized, Function.identity()));
+    }
+
+    private Map<UUID, Employee> findGuards(List<VehicleLogBulkRequest.Event> events, List<Integer> accepted) {
+        Set<UUID> guardIds = accepted.stream()
+                .map(i -> events.get(i).getSecurityGuardId())
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        if (guardIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Employee> guards = new HashMap<>();
+        employeeRepository.findAllById(guardIds).forEach(guard -> guards.put(guard.getId(), guard));
+        return guards;
+    }
+
+    private static VehicleLog toEntity(VehicleLogBulkRequest.Event event, Vehicle vehicle, Employee securityGuard) {
+        VehicleLog.VehicleCategory vehicleType = event.getVehicleType();
+        if (vehicleType == null) {
+            vehicleType = vehicle != null ? VehicleLog.VehicleCategory.internal : VehicleLog.VehicleCategory.external;
+        }
+        // Same associations as createVehicleLog; the owner is the vehicle's lazy reference, so it is not loaded
+        return VehicleLog.builder()
+                .clientEventId(event.getClientEventId())
+                .licensePlateNumber(event.getLicensePlateNumber())
+                .entryExitTime(event.getEntryExitTime())
+                .type(event.getType())
+                .vehicleType(vehicleType)
+                .driverName(event.getDriverName())
+                .purpose(event.getPurpose())
+                .gateLocation(event.getGateLocation())
+                .notes(event.getNotes())
+                .imagePath(event.getImagePath())
+                .vehicle(vehicle)
+                .employee(vehicle != null ? vehicle.getEmployee() : null)
+                .securityGuard(securityGuard)
+                .build();
+    }
+
+    // Fields the stream subscribers get from the other insert paths, without loading the owner
+    private static VehicleLogDto toDto(VehicleLog vehicleLog) {
+        Vehicle vehicle = vehicleLog.getVehicle();
+        Employee securityGuard = vehicleLog.getSecurityGuard();
+        return VehicleLogDto.builder()
+                .id(vehicleLog.getId())
+                .licensePlateNumber(vehicleLog.getLicensePlateNumber())
+                .vehicleId(vehicle != null ? vehicle.getId() : null)
+                .employeeId(vehicleLog.getEmployee() != null ? vehicleLog.getEmployee().getId() : null)
+                .entryExitTime(vehicleLog.getEntryExitTime())
+                .type(vehicleLog.getType())
+                .vehicleType(vehicleLog.getVehicleType())
+                .driverName(vehicleLog.getDriverName())
+                .purpose(vehicleLog.getPurpose())
+                .gateLocation(vehicleLog.getGateLocation())
+                .securityGuardId(securityGuard != null ? securityGuard.getId() : null)
+                .securityGuardName(securityGuard != null ? securityGuard.getName() : null)
+                .notes(vehicleLog.getNotes())
+                .imagePath(vehicleLog.getImagePath())
+                .vehicleBrand(vehicle != null ? vehicle.getBrand() : null)
+                .vehicleModel(vehicle != null ? vehicle.getModel() : null)
+                .vehicleColor(vehicle != null ? vehicle.getColor() : null)
+                .createdAt(vehicleLog.getCreatedAt())
+                .updatedAt(vehicleLog.getUpdatedAt())
+                .build();
+    }
+
+    private static VehicleLogBulkResponse.ItemResult result(int index, VehicleLogBulkRequest.Event event,
+                                                            VehicleLogBulkResponse.Status status, UUID logId, String message) {
+        return new VehicleLogBulkResponse.ItemResult(index, event != null ? event.getClientEventId() : null,
+                status, logId, message);
+    }
+}
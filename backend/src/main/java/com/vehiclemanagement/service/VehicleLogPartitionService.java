@@ -0,0 +1,83 @@
+package com.vehiclemanagement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of vehicle_log (see the V35 migration).
+ *
+ * Partitions are created a few months ahead so inserts never land in the default partition,
+ * and, when a retention period is configured, partitions older than it are detached or dropped.
+ */
+@Service
+public class VehicleLogPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleLogPartitionService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${vehicle-log.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${vehicle-log.retention.months:0}")
+    private int retentionMonths;
+
+    @Value("${vehicle-log.retention.drop:false}")
+    private boolean dropExpiredPartitions;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Create upcoming partitions and apply the retention policy, daily at 0:30
+     */
+    @Scheduled(cron = "${vehicle-log.partitions.cron:0 30 0 * * *}")
+    public void maintainPartitions() {
+        try {
+            List<String> created = ensurePartitions();
+            if (!created.isEmpty()) {
+                logger.info("Created vehicle_log partitions {}", created);
+            }
+            List<String> expired = applyRetention();
+            if (!expired.isEmpty()) {
+                logger.info("{} expired vehicle_log partitions {}", dropExpiredPartitions ? "Dropped" : "Detached", expired);
+            }
+        } catch (Exception e) {
+            logger.error("vehicle_log partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create any missing partition from the current month up to the configured months ahead
+     * @return Names of the partitions created
+     */
+    public List<String> ensurePartitions() {
+        return jdbcTemplate.queryForList("SELECT ensure_vehicle_log_partitions(?, ?)",
+                String.class, LocalDate.now().withDayOfMonth(1), monthsAhead);
+    }
+
+    /**
+     * Detach, or drop if vehicle-log.retention.drop is set, partitions older than the retention period
+     * @return Names of the partitions removed; empty when retention is disabled (months = 0)
+     */
+    public List<String> applyRetention() {
+        if (retentionMonths <= 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("SELECT apply_vehicle_log_retention(?, ?)",
+                String.class, retentionMonths, dropExpiredPartitions);
+    }
+}
@@ -1,5 +1,6 @@
 package com.vehiclemanagement.service;
 
+import com.vehiclemanagement.dto.CursorPageDto;
 import com.vehiclemanagement.dto.VehicleLogDto;
 import com.vehiclemanagement.entity.Employee;
 import com.vehiclemanagement.entity.Vehicle;
@@ -7,15 +8,23 @@ import com.vehiclemanagement.entity.VehicleLog;
 import com.vehiclemanagement.repository.EmployeeRepository;
 import com.vehiclemanagement.repository.VehicleLogRepository;
 import com.vehiclemanagement.repository.VehicleRepository;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import com.vehiclemanagement.util.LogCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,6 +33,11 @@ import java.util.UUID;
 @Transactional
 public class VehicleLogService {
     
+    private static final int MAX_SCROLL_PAGE_SIZE = 500;
+    private static final LocalDateTime SCROLL_MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime SCROLL_MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final UUID FIRST_PAGE_CURSOR_ID = new UUID(0L, 0L);
+    
     @Autowired
     private VehicleLogRepository vehicleLogRepository;
     
@@ -33,6 +47,15 @@ public class VehicleLogService {
     @Autowired
     private EmployeeRepository employeeRepository;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private OccupancyTracker occupancyTracker;
+    
+    @Autowired
+    private VehicleLogStream vehicleLogStream;
+    
     public Page<VehicleLogDto> getAllVehicleLogs(Pageable pageable) {
         Page<VehicleLog> logs = vehicleLogRepository.findAll(pageable);
         return logs.map(this::convertToDto);
@@ -86,15 +109,111 @@ public class VehicleLogService {
                                                 LocalDateTime endDate,
                                                 Pageable pageable) {
         Page<VehicleLog> logs = vehicleLogRepository.findWithFilters(
-                licensePlate, type, vehicleType, driverName, startDate, endDate, pageable);
+                searchText(licensePlate), type, vehicleType, searchText(driverName), startDate, endDate, pageable);
         return logs.map(this::convertToDto);
     }
     
+    // Keyset paging (cursor instead of page number). Each page is one index range scan of
+    // size + 1 rows, no OFFSET and, unless includeTotal is set, no COUNT(*).
+    
+    public CursorPageDto<VehicleLogDto> scrollAllVehicleLogs(String cursor, int size, boolean includeTotal) {
+        return scrollVehicleLogs(null, null, null, null, null, null, cursor, size, includeTotal);
+    }
+    
+    public CursorPageDto<VehicleLogDto> scrollTodayLogs(String cursor, int size, boolean includeTotal) {
+        LocalDate today = LocalDate.now();
+        return scrollVehicleLogs(null, null, null, null, today.atStartOfDay(), today.atTime(LocalTime.MAX),
+                cursor, size, includeTotal);
+    }
+    
+    public CursorPageDto<VehicleLogDto> scrollWeeklyLogs(String cursor, int size, boolean includeTotal) {
+        LocalDate today = LocalDate.now();
+        LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        return scrollVehicleLogs(null, null, null, null, startOfWeek.atStartOfDay(), today.atTime(LocalTime.MAX),
+                cursor, size, includeTotal);
+    }
+    
+    public CursorPageDto<VehicleLogDto> scrollMonthlyLogs(String cursor, int size, boolean includeTotal) {
+        LocalDate today = LocalDate.now();
+        return scrollVehicleLogs(null, null, null, null, today.withDayOfMonth(1).atStartOfDay(), today.atTime(LocalTime.MAX),
+                cursor, size, includeTotal);
+    }
+    
+    /**
+     * One page of logs matching the filters, newest first, positioned by a cursor
+     * @param startDate Inclusive lower bound, or null for no bound
+     * @param endDate Inclusive upper bound, or null for no bound
+     * @param cursor nextCursor/prevCursor of a previous page, or null for the first page
+     * @param includeTotal Also count all matching rows (one extra query)
+     */
+    public CursorPageDto<VehicleLogDto> scrollVehicleLogs(String licensePlate,
+                                                          VehicleLog.LogType type,
+                                                          VehicleLog.VehicleCategory vehicleType,
+                                                          String driverName,
+                                                          LocalDateTime startDate,
+                                                          LocalDateTime endDate,
+                                                          String cursor,
+                                                          int size,
+                                                          boolean includeTotal) {
+        licensePlate = searchText(licensePlate);
+        driverName = searchText(driverName);
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_PAGE_SIZE));
+        LocalDateTime from = startDate != null ? startDate : SCROLL_MIN_TIME;
+        LocalDateTime to = endDate != null ? endDate : SCROLL_MAX_TIME;
+        LogCursor position = cursor != null && !cursor.isBlank() ? LogCursor.decode(cursor) : null;
+        // One extra row tells whether there is another page in that direction
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        List<VehicleLog> rows;
+        boolean hasNext;
+        boolean hasPrevious;
+        if (position != null && position.isBackward()) {
+            rows = new ArrayList<>(vehicleLogRepository.findPageAfter(licensePlate, type, vehicleType, driverName,
+                    from, to, position.getEntryExitTime(), position.getId(), limit));
+            hasPrevious = rows.size() > pageSize;
+            if (!hasPrevious) {
+                // Reached the newest rows: serve a regular, full first page instead
+                return scrollVehicleLogs(licensePlate, type, vehicleType, driverName, startDate, endDate,
+                        null, size, includeTotal);
+            }
+            rows.remove(rows.size() - 1);
+            Collections.reverse(rows);
+            hasNext = true;
+        } else {
+            // Without a cursor start just after the upper bound, i.e. at the newest matching row
+            LocalDateTime cursorTime = position != null ? position.getEntryExitTime() : to.plusSeconds(1);
+            UUID cursorId = position != null ? position.getId() : FIRST_PAGE_CURSOR_ID;
+            rows = new ArrayList<>(vehicleLogRepository.findPageBefore(licensePlate, type, vehicleType, driverName,
+                    from, to, cursorTime, cursorId, limit));
+            hasNext = rows.size() > pageSize;
+            if (hasNext) {
+                rows.remove(rows.size() - 1);
+            }
+            hasPrevious = position != null;
+        }
+        
+        VehicleLog first = rows.isEmpty() ? null : rows.get(0);
+        VehicleLog last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return CursorPageDto.<VehicleLogDto>builder()
+                .content(rows.stream().map(this::convertToDto).toList())
+                .size(pageSize)
+                .hasNext(hasNext && last != null)
+                .hasPrevious(hasPrevious && first != null)
+                .nextCursor(hasNext && last != null
+                        ? LogCursor.next(last.getEntryExitTime(), last.getId()).encode() : null)
+                .prevCursor(hasPrevious && first != null
+                        ? LogCursor.previous(first.getEntryExitTime(), first.getId()).encode() : null)
+                .totalElements(includeTotal
+                        ? vehicleLogRepository.countWithFilters(licensePlate, type, vehicleType, driverName, from, to) : null)
+                .build();
+    }
+    
     public VehicleLogDto createVehicleLog(VehicleLogDto vehicleLogDto) {
         VehicleLog vehicleLog = convertToEntity(vehicleLogDto);
         
         // Try to find and associate vehicle by license plate using normalized search
-        Optional<Vehicle> vehicle = vehicleRepository.findByLicensePlateNormalized(vehicleLogDto.getLicensePlateNumber());
+        Optional<Vehicle> vehicle = vehicleRepository.findByLicensePlateNormalized(
+                LicensePlateUtil.normalize(vehicleLogDto.getLicensePlateNumber()));
         if (vehicle.isPresent()) {
             vehicleLog.setVehicle(vehicle.get());
             vehicleLog.setEmployee(vehicle.get().getEmployee());
@@ -107,12 +226,50 @@ public class VehicleLogService {
         }
         
         VehicleLog savedLog = vehicleLogRepository.save(vehicleLog);
-        return convertToDto(savedLog);
+        occupancyTracker.recordAfterCommit(savedLog);
+        VehicleLogDto savedDto = convertToDto(savedLog);
+        vehicleLogStream.publishAfterCommit(savedDto);
+        return savedDto;
+    }
+    
+    /**
+     * Create a log entry for a gate decision whose vehicle and owner are already known.
+     * Associations are set by reference, so no lookup query is issued before the insert.
+     */
+    public VehicleLogDto createAccessLog(VehicleLogDto vehicleLogDto) {
+        return createAccessLogs(List.of(vehicleLogDto)).get(0);
+    }
+    
+    /**
+     * Batch variant of createAccessLog; inserts are grouped by hibernate.jdbc.batch_size
+     */
+    public List<VehicleLogDto> createAccessLogs(List<VehicleLogDto> vehicleLogDtos) {
+        List<VehicleLog> vehicleLogs = vehicleLogDtos.stream().map(dto -> {
+            VehicleLog vehicleLog = convertToEntity(dto);
+            if (dto.getVehicleId() != null) {
+                vehicleLog.setVehicle(vehicleRepository.getReferenceById(dto.getVehicleId()));
+            }
+            if (dto.getEmployeeId() != null) {
+                vehicleLog.setEmployee(employeeRepository.getReferenceById(dto.getEmployeeId()));
+            }
+            return vehicleLog;
+        }).toList();
+        
+        List<VehicleLog> savedLogs = vehicleLogRepository.saveAll(vehicleLogs);
+        for (int i = 0; i < savedLogs.size(); i++) {
+            VehicleLogDto dto = vehicleLogDtos.get(i);
+            dto.setId(savedLogs.get(i).getId());
+            dto.setCreatedAt(savedLogs.get(i).getCreatedAt());
+            dto.setUpdatedAt(savedLogs.get(i).getUpdatedAt());
+            vehicleLogStream.publishAfterCommit(dto);
+        }
+        return vehicleLogDtos;
     }
     
     public VehicleLogDto updateVehicleLog(UUID id, VehicleLogDto vehicleLogDto) {
         VehicleLog existingLog = vehicleLogRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vehicle log not found with id: " + id));
+        String previousPlate = existingLog.getLicensePlateNumber();
         
         // Update fields
         existingLog.setLicensePlateNumber(vehicleLogDto.getLicensePlateNumber());
@@ -126,7 +283,8 @@ public class VehicleLogService {
         existingLog.setImagePath(vehicleLogDto.getImagePath());
         
         // Update vehicle association if license plate changed using normalized search
-        Optional<Vehicle> vehicle = vehicleRepository.findByLicensePlateNormalized(vehicleLogDto.getLicensePlateNumber());
+        Optional<Vehicle> vehicle = vehicleRepository.findByLicensePlateNormalized(
+                LicensePlateUtil.normalize(vehicleLogDto.getLicensePlateNumber()));
         if (vehicle.isPresent()) {
             existingLog.setVehicle(vehicle.get());
             existingLog.setEmployee(vehicle.get().getEmployee());
@@ -144,14 +302,19 @@ public class VehicleLogService {
         }
         
         VehicleLog savedLog = vehicleLogRepository.save(existingLog);
+        // The type, time or plate may have changed, so both plates are re-read rather than recorded
+        occupancyTracker.refreshAfterCommit(previousPlate);
+        if (!LicensePlateUtil.normalize(previousPlate).equals(LicensePlateUtil.normalize(savedLog.getLicensePlateNumber()))) {
+            occupancyTracker.refreshAfterCommit(savedLog.getLicensePlateNumber());
+        }
         return convertToDto(savedLog);
     }
     
     public void deleteVehicleLog(UUID id) {
-        if (!vehicleLogRepository.existsById(id)) {
-            throw new RuntimeException("Vehicle log not found with id: " + id);
-        }
-        vehicleLogRepository.deleteById(id);
+        VehicleLog existingLog = vehicleLogRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Vehicle log not found with id: " + id));
+        vehicleLogRepository.delete(existingLog);
+        occupancyTracker.refreshAfterCommit(existingLog.getLicensePlateNumber());
     }
     
     // Statistics methods
@@ -167,6 +330,29 @@ public class VehicleLogService {
         return vehicleLogRepository.countDistinctVehiclesByDate(LocalDate.now());
     }
     
+    /**
+     * Rebuild the statistics rollups from vehicle_log, e.g. after a backfill or bulk correction.
+     * Runs one day per transaction: the rebuild holds off log writes to the day it recomputes
+     * until it commits, so a long range never blocks the gates for more than a day's worth.
+     * @param startDate First day to rebuild
+     * @param endDate Last day to rebuild (inclusive)
+     * @return Number of log events counted
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuildStatistics(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Ngày kết thúc phải sau ngày bắt đầu");
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long counted = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            counted += transaction.execute(status ->
+                    vehicleLogRepository.rebuildStatistics(dayStart, dayStart.plusDays(1)));
+        }
+        return counted;
+    }
+    
     private VehicleLogDto convertToDto(VehicleLog vehicleLog) {
         VehicleLogDto dto = VehicleLogDto.builder()
                 .id(vehicleLog.getId())
@@ -203,7 +389,8 @@ public class VehicleLogService {
     
     public Object getEmployeeInfoByLicensePlate(String licensePlateNumber, VehicleLog.LogType type) {
         // Find the vehicle by license plate using normalized search
-        Optional<Vehicle> vehicleOpt = vehicleRepository.findByLicensePlateNormalized(licensePlateNumber);
+        String normalizedPlate = LicensePlateUtil.normalize(licensePlateNumber);
+        Optional<Vehicle> vehicleOpt = vehicleRepository.findByLicensePlateNormalized(normalizedPlate);
         
         if (vehicleOpt.isEmpty()) {
             throw new RuntimeException("Vehicle not found with license plate: " + licensePlateNumber);
@@ -219,10 +406,9 @@ public class VehicleLogService {
         }
 
         // Find the latest log entry for this vehicle and type using normalized license plate search
-        List<VehicleLog> logs = vehicleLogRepository
-                .findByLicensePlateNumberNormalizedAndTypeOrderByEntryExitTimeDesc(licensePlateNumber, type);
-        
-        VehicleLog latestLog = logs.isEmpty() ? null : logs.get(0);
+        VehicleLog latestLog = vehicleLogRepository
+                .findTopByLicensePlateNormalizedAndTypeOrderByEntryExitTimeDesc(normalizedPlate, type)
+                .orElse(null);
         
         // Create response object
         return new Object() {
@@ -263,6 +449,11 @@ public class VehicleLogService {
         };
     }
 
+    // A blank filter would run as LIKE '%%': it matches every row, yet walks the whole trigram index
+    private static String searchText(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+    
     private VehicleLog convertToEntity(VehicleLogDto dto) {
         return VehicleLog.builder()
                 .id(dto.getId())
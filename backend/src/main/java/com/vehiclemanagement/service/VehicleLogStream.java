@@ -0,0 +1,298 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.entity.VehicleLog;
+import com.vehiclemanagement.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-sent event stream of newly created vehicle logs, so a log screen can append rows
+ * as they happen instead of polling the log queries.
+ *
+ * Published logs get a sequence number and are kept in a fixed-size ring buffer. Event ids
+ * are "<epoch>-<sequence>", where the epoch changes on every restart; a client reconnecting
+ * with Last-Event-ID is replayed the events it missed from the buffer, or sent a "reset"
+ * event when they are no longer there (buffer overrun, server restart) so it reloads its
+ * list once.
+ *
+ * Events are queued per subscriber under the publish lock, replays included, so every
+ * subscriber sees events in sequence order with no gap or duplicate between replay and live.
+ * Each queue is drained by its own sender thread, since SseEmitter.send blocks on the socket;
+ * a subscriber whose queue fills up is completed and dropped instead of holding back the
+ * others, and its EventSource reconnects and resumes from the buffer.
+ */
+@Component
+public class VehicleLogStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleLogStream.class);
+
+    public static final String EVENT_LOG = "vehicle-log";
+    public static final String EVENT_RESET = "reset";
+
+    private static final long RECONNECT_DELAY_MS = 3000;
+
+    @Value("${vehicle-log.stream.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${vehicle-log.stream.subscriber-queue-size:100}")
+    private int subscriberQueueSize;
+
+    @Value("${vehicle-log.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("vehicle-log-stream-", 0).factory());
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private StreamEvent[] buffer;
+    private long lastSequence;
+
+    @PostConstruct
+    void init() {
+        buffer = new StreamEvent[Math.max(bufferSize, 1)];
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            if (close(subscriber)) {
+                senders.execute(subscriber.emitter::complete);
+            }
+        }
+        // Senders still blocked on a socket are left to the container
+        senders.shutdown();
+    }
+
+    /**
+     * Publish a log once the current transaction commits, or immediately if there is none
+     */
+    public void publishAfterCommit(VehicleLogDto log) {
+        TransactionUtil.runAfterCommit(() -> publish(log));
+    }
+
+    public void publish(VehicleLogDto log) {
+        synchronized (this) {
+            StreamEvent event = new StreamEvent(++lastSequence, log);
+            buffer[(int) (event.sequence % buffer.length)] = event;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.filter.matches(event.log) && !enqueue(subscriber, event.toSse(epoch))) {
+                    evict(subscriber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Open a stream of the logs matching the filter
+     * @param lastEventId Id of the last event the client received, to resume after it; null for live events only
+     */
+    public SseEmitter subscribe(Filter filter, String lastEventId) {
+        return subscribe(new SseEmitter(timeoutMs), filter, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Filter filter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> close(subscriber));
+
+        List<SseEmitter.SseEventBuilder> initial = new ArrayList<>();
+        initial.add(SseEmitter.event().comment("connected").reconnectTime(RECONNECT_DELAY_MS));
+        synchronized (this) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<StreamEvent> missed = missedSince(lastEventId.trim());
+                if (missed == null) {
+                    initial.add(SseEmitter.event().name(EVENT_RESET).id(epoch + "-" + lastSequence).data("reset"));
+                } else {
+                    for (StreamEvent event : missed) {
+                        if (filter.matches(event.log)) {
+                            initial.add(event.toSse(epoch));
+                        }
+                    }
+                }
+            }
+            // The replay may exceed the queue size; it is only sent once
+            subscriber.capacity = subscriberQueueSize + initial.size();
+            initial.forEach(event -> enqueue(subscriber, event));
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${vehicle-log.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        // Keeps proxies from closing idle connections and detects clients that went away;
+        // subscribers with events queued or being sent do not need one
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isIdle()) {
+                enqueue(subscriber, SseEmitter.event().comment("keepalive"));
+            }
+        }
+    }
+
+    /**
+     * Events after the given id, or null if some of them are gone. Called holding this.
+     */
+    private List<StreamEvent> missedSince(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator <= 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long resumeAfter;
+        try {
+            resumeAfter = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldestRetained = Math.max(1, lastSequence - buffer.length + 1);
+        if (resumeAfter < 0 || resumeAfter > lastSequence || resumeAfter + 1 < oldestRetained) {
+            return null;
+        }
+        List<StreamEvent> missed = new ArrayList<>();
+        for (long sequence = resumeAfter + 1; sequence <= lastSequence; sequence++) {
+            missed.add(buffer[(int) (sequence % buffer.length)]);
+        }
+        return missed;
+    }
+
+    /**
+     * Queue an event and start the subscriber's sender if it is idle
+     * @return false if the subscriber is closed or its queue is full
+     */
+    private boolean enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        synchronized (subscriber) {
+            if (subscriber.closed || subscriber.pending.size() >= subscriber.capacity) {
+                return false;
+            }
+            subscriber.pending.add(event);
+            if (subscriber.sending) {
+                return true;
+            }
+            subscriber.sending = true;
+        }
+        senders.execute(() -> drain(subscriber));
+        return true;
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (subscriber) {
+                event = subscriber.closed ? null : subscriber.pending.poll();
+                if (event == null) {
+                    subscriber.sending = false;
+                    return;
+                }
+            }
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Client disconnected or the emitter already completed
+                logger.debug("Dropping vehicle log stream subscriber: {}", e.getMessage());
+                close(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (close(subscriber)) {
+            logger.warn("Closing vehicle log stream subscriber with {} events queued", subscriber.capacity);
+            // complete() waits for a send in progress, so it must not run on the publishing thread
+            senders.execute(subscriber.emitter::complete);
+        }
+    }
+
+    /**
+     * Stop delivering to a subscriber
+     * @return false if it was already closed
+     */
+    private boolean close(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return false;
+            }
+            subscriber.closed = true;
+            subscriber.pending.clear();
+            return true;
+        }
+    }
+
+    /**
+     * Per-client filter; null fields match everything
+     */
+    public static final class Filter {
+        private final String gateLocation;
+        private final VehicleLog.LogType type;
+        private final VehicleLog.VehicleCategory vehicleType;
+
+        public Filter(String gateLocation, VehicleLog.LogType type, VehicleLog.VehicleCategory vehicleType) {
+            this.gateLocation = gateLocation != null && !gateLocation.isBlank() ? gateLocation.trim() : null;
+            this.type = type;
+            this.vehicleType = vehicleType;
+        }
+
+        boolean matches(VehicleLogDto log) {
+            return (gateLocation == null || gateLocation.equalsIgnoreCase(log.getGateLocation()))
+                    && (type == null || type == log.getType())
+                    && (vehicleType == null || vehicleType == log.getVehicleType());
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Filter filter;
+
+        // Guarded by this
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private int capacity;
+        private boolean sending;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        private synchronized boolean isIdle() {
+            return !closed && !sending && pending.isEmpty();
+        }
+    }
+
+    private static final class StreamEvent {
+        private final long sequence;
+        private final VehicleLogDto log;
+
+        private StreamEvent(long sequence, VehicleLogDto log) {
+            this.sequence = sequence;
+            this.log = log;
+        }
+
+        private SseEmitter.SseEventBuilder toSse(String epoch) {
+            return SseEmitter.event().id(epoch + "-" + sequence).name(EVENT_LOG).data(log);
+        }
+    }
+}
@@ -15,28 +15,25 @@ public class VehicleSchedulerService {
     @Autowired
     private VehicleRepository vehicleRepository;
     
+    @Autowired
+    private VehicleAccessIndex vehicleAccessIndex;
+    
     /**
      * Reset all vehicle statuses to rejected at 1:00 AM daily
      * This ensures vehicles need daily approval for access
+     * Done as one bulk UPDATE, so an admin edit racing the reset cannot fail it with a version conflict
      */
     @Scheduled(cron = "0 0 1 * * *") // Runs at 1:00 AM every day
     @Transactional
     public void resetAllVehicleStatuses() {
         try {
-            List<Vehicle> vehicles = vehicleRepository.findAll();
-            int updatedCount = 0;
-            
-            for (Vehicle vehicle : vehicles) {
-                // Only update if not already rejected
-                if (vehicle.getStatus() != Vehicle.VehicleStatus.rejected) {
-                    vehicle.setStatus(Vehicle.VehicleStatus.rejected);
-                    updatedCount++;
-                }
-            }
+            List<VehicleRepository.UpdatedVersion> updated = vehicleRepository.rejectAllNotRejected();
             
-            if (updatedCount > 0) {
-                vehicleRepository.saveAll(vehicles);
-                System.out.println("Daily vehicle status reset completed. Updated " + updatedCount + " vehicles to 'rejected' status.");
+            if (!updated.isEmpty()) {
+                // updateStatus already defers to after commit; nesting it in another after-commit
+                // callback would register synchronizations too late for Spring to run them
+                updated.forEach(row -> vehicleAccessIndex.updateStatus(row.getId(), Vehicle.VehicleStatus.rejected, row.getVersion()));
+                System.out.println("Daily vehicle status reset completed. Updated " + updated.size() + " vehicles to 'rejected' status.");
             } else {
                 System.out.println("Daily vehicle status reset: No vehicles needed status update.");
             }
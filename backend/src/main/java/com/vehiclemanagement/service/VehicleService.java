@@ -2,6 +2,8 @@ package com.vehiclemanagement.service;
 
 import com.vehiclemanagement.dto.VehicleDto;
 import com.vehiclemanagement.dto.VehicleCreateResponse;
+import com.vehiclemanagement.dto.GateAllowListDto;
+import com.vehiclemanagement.dto.VehicleCheckBatchRequest;
 import com.vehiclemanagement.dto.VehicleCheckResponse;
 import com.vehiclemanagement.dto.VehicleStatisticsDto;
 import com.vehiclemanagement.dto.VehicleLogDto;
@@ -9,22 +11,31 @@ import com.vehiclemanagement.entity.Employee;
 import com.vehiclemanagement.entity.Vehicle;
 import com.vehiclemanagement.entity.VehicleLog;
 import com.vehiclemanagement.util.ImageProcessingUtil;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import com.vehiclemanagement.util.PlateMatcher;
+import com.vehiclemanagement.util.TransactionUtil;
 // import com.vehiclemanagement.entity.EntryExitRequest; // Removed
 import com.vehiclemanagement.exception.ResourceNotFoundException;
 import com.vehiclemanagement.repository.EmployeeRepository;
+import com.vehiclemanagement.repository.VehicleLogRepository;
 import com.vehiclemanagement.repository.VehicleRepository;
 // import com.vehiclemanagement.repository.EntryExitRequestRepository; // Removed
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.WeekFields;
+import java.time.temporal.IsoFields;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -37,6 +48,19 @@ import java.util.stream.Collectors;
 @Transactional
 public class VehicleService {
     
+    static final String DEFAULT_GATE_LOCATION = "Main Gate";
+    
+    // Series labels returned by VehicleLogRepository.sumEventSeries and countDistinctVehicleSeries
+    private static final String SERIES_DAY = "day";
+    private static final String SERIES_WEEK = "week";
+    private static final String SERIES_MONTH = "month";
+    
+    // Grouping set labels returned by VehicleRepository.countByStatusTypeAndFuelType
+    private static final String COUNT_BY_TOTAL = "total";
+    private static final String COUNT_BY_STATUS = "status";
+    private static final String COUNT_BY_VEHICLE_TYPE = "vehicle_type";
+    private static final String COUNT_BY_FUEL_TYPE = "fuel_type";
+    
     @Autowired
     private VehicleRepository vehicleRepository;
     
@@ -46,12 +70,36 @@ public class VehicleService {
     @Autowired
     private VehicleLogService vehicleLogService;
     
+    @Autowired
+    private VehicleLogRepository vehicleLogRepository;
+    
     @Autowired
     private WebSocketService webSocketService;
     
     @Autowired
     private ImageProcessingUtil imageProcessingUtil;
     
+    @Autowired
+    private VehicleAccessIndex vehicleAccessIndex;
+    
+    @Autowired
+    private GateEventPipeline gateEventPipeline;
+    
+    @Autowired
+    private GateCheckDeduplicator gateCheckDeduplicator;
+    
+    @Autowired
+    private OccupancyTracker occupancyTracker;
+    
+    @Autowired
+    private GateCheckMetrics gateCheckMetrics;
+    
+    @Value("${gate.plate-matching.fuzzy-enabled:true}")
+    private boolean fuzzyPlateMatchingEnabled;
+    
+    @Value("${gate.plate-matching.min-confidence:0.85}")
+    private double minPlateMatchConfidence;
+    
     // @Autowired
     // private EntryExitRequestRepository entryExitRequestRepository; // Removed
     
@@ -73,7 +121,7 @@ public class VehicleService {
     }
     
     public VehicleDto getVehicleByLicensePlate(String licensePlate) {
-        Vehicle vehicle = vehicleRepository.findByLicensePlateNormalized(licensePlate)
+        Vehicle vehicle = vehicleRepository.findByLicensePlateNormalized(LicensePlateUtil.normalize(licensePlate))
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with license plate: " + licensePlate));
         return new VehicleDto(vehicle);
     }
@@ -115,12 +163,12 @@ public class VehicleService {
     }
     
     public VehicleCreateResponse createVehicle(VehicleDto vehicleDto) {
-        // Check if vehicle with this license plate already exists (using normalized comparison)
-        if (vehicleRepository.existsByLicensePlateNormalized(vehicleDto.getLicensePlate())) {
-            Vehicle existingVehicle = vehicleRepository.findByLicensePlateNormalized(vehicleDto.getLicensePlate())
-                    .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with license plate: " + vehicleDto.getLicensePlate()));
+        // Check if vehicle with this license plate already exists (single probe on the normalized index)
+        Optional<Vehicle> existing = vehicleRepository.findByLicensePlateNormalized(
+                LicensePlateUtil.normalize(vehicleDto.getLicensePlate()));
+        if (existing.isPresent()) {
             return new VehicleCreateResponse(
-                new VehicleDto(existingVehicle), 
+                new VehicleDto(existing.get()), 
                 true, 
                 "Không tạo được xe " + vehicleDto.getLicensePlate() + ", vì đã tồn tại trong hệ thống"
             );
@@ -146,6 +194,7 @@ public class VehicleService {
         vehicle.setImagePath(vehicleDto.getImagePath());
         
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        vehicleAccessIndex.put(savedVehicle);
         return new VehicleCreateResponse(
             new VehicleDto(savedVehicle), 
             false, 
@@ -157,6 +206,12 @@ public class VehicleService {
         Vehicle existingVehicle = vehicleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + id));
         
+        // Refuse edits made on a stale copy instead of silently overwriting the newer one
+        if (vehicleDto.getVersion() != null && !vehicleDto.getVersion().equals(existingVehicle.getVersion())) {
+            throw new OptimisticLockingFailureException(
+                    "Thông tin xe đã được người khác thay đổi, vui lòng tải lại trước khi lưu");
+        }
+        
         Employee employee = employeeRepository.findById(vehicleDto.getEmployeeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Employee not found with id: " + vehicleDto.getEmployeeId()));
         
@@ -176,6 +231,7 @@ public class VehicleService {
         existingVehicle.setImagePath(vehicleDto.getImagePath());
         
         Vehicle updatedVehicle = vehicleRepository.save(existingVehicle);
+        vehicleAccessIndex.put(updatedVehicle);
         return new VehicleDto(updatedVehicle);
     }
     
@@ -183,6 +239,7 @@ public class VehicleService {
         Vehicle vehicle = vehicleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + id));
         vehicleRepository.delete(vehicle);
+        vehicleAccessIndex.remove(id);
     }
     
     public boolean existsByLicensePlate(String licensePlate) {
@@ -201,191 +258,126 @@ public class VehicleService {
         return vehicleRepository.countByFuelType();
     }
     
-    public VehicleStatisticsDto getVehicleStatistics() {
-        List<Vehicle> vehicles = vehicleRepository.findAll();
-        // List<EntryExitRequest> requests = entryExitRequestRepository.findAll(); // Removed
-        List<Object> requests = new ArrayList<>(); // Empty list for compatibility
-        
-        // Basic vehicle stats
-        long totalVehicles = vehicles.size();
-        long approvedVehicles = vehicles.stream().filter(v -> v.getStatus() == Vehicle.VehicleStatus.approved).count();
-        long rejectedVehicles = vehicles.stream().filter(v -> v.getStatus() == Vehicle.VehicleStatus.rejected).count();
-        long exitedVehicles = vehicles.stream().filter(v -> v.getStatus() == Vehicle.VehicleStatus.exited).count();
-        long enteredVehicles = vehicles.stream().filter(v -> v.getStatus() == Vehicle.VehicleStatus.entered).count();
+    /**
+     * Allow-list for offline gate decisions, served from the access index
+     * @param since Version token from a previous sync; null, foreign or too old gives a full snapshot
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GateAllowListDto getGateAllowList(String since) {
+        String epoch = vehicleAccessIndex.getAllowListEpoch();
+        VehicleAccessIndex.AllowList delta = null;
+        if (since != null && since.startsWith(epoch + "-")) {
+            try {
+                long sinceVersion = Long.parseLong(since.substring(epoch.length() + 1));
+                delta = vehicleAccessIndex.allowListChangesSince(sinceVersion).orElse(null);
+            } catch (NumberFormatException e) {
+                // Unreadable token, fall back to a full snapshot
+            }
+        }
         
-        // Vehicle type stats
-        Map<String, Long> vehicleTypeStats = vehicles.stream()
-                .filter(v -> v.getVehicleType() != null)
-                .collect(Collectors.groupingBy(v -> v.getVehicleType().toString(), Collectors.counting()));
+        VehicleAccessIndex.AllowList allowList = delta != null ? delta : vehicleAccessIndex.allowList();
+        return GateAllowListDto.builder()
+                .version(epoch + "-" + allowList.getVersion())
+                .full(delta == null)
+                .plates(allowList.getPlates())
+                .removedPlates(allowList.getRemovedPlates())
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+    
+    /**
+     * Version token of the current allow-list, used as its ETag
+     */
+    public String getGateAllowListVersion() {
+        return vehicleAccessIndex.getAllowListEpoch() + "-" + vehicleAccessIndex.getAllowListVersion();
+    }
+    
+    /**
+     * Statistics overview computed by the database: vehicle counts from one GROUPING SETS query,
+     * and the last 30 days, 12 weeks and 12 months of gate traffic from the V36 rollups, so no
+     * vehicle or log row is loaded. Every logged passage was admitted at the gate (refused checks
+     * are not logged), so each one counts as approved and the pending/rejected counts stay 0.
+     */
+    @Transactional(readOnly = true)
+    public VehicleStatisticsDto getVehicleStatistics() {
+        long totalVehicles = 0;
+        Map<String, Long> statusStats = new HashMap<>();
+        Map<String, Long> vehicleTypeStats = new HashMap<>();
+        Map<String, Long> fuelTypeStats = new HashMap<>();
+        for (Object[] row : vehicleRepository.countByStatusTypeAndFuelType()) {
+            long count = ((Number) row[4]).longValue();
+            switch ((String) row[0]) {
+                case COUNT_BY_TOTAL -> totalVehicles = count;
+                case COUNT_BY_STATUS -> putCount(statusStats, row[1], count);
+                case COUNT_BY_VEHICLE_TYPE -> putCount(vehicleTypeStats, row[2], count);
+                case COUNT_BY_FUEL_TYPE -> putCount(fuelTypeStats, row[3], count);
+                default -> { }
+            }
+        }
         
-        // Fuel type stats
-        Map<String, Long> fuelTypeStats = vehicles.stream()
-                .filter(v -> v.getFuelType() != null)
-                .collect(Collectors.groupingBy(v -> v.getFuelType().toString(), Collectors.counting()));
+        LocalDate today = LocalDate.now();
+        LocalDate dailyFrom = today.minusDays(29);
+        LocalDate weeklyFrom = today.with(DayOfWeek.MONDAY).minusWeeks(11);
+        LocalDate monthlyFrom = today.withDayOfMonth(1).minusMonths(11);
+        LocalDate seriesFrom = Collections.min(List.of(dailyFrom, weeklyFrom, monthlyFrom));
+        LocalDate seriesTo = today.plusDays(1);
         
-        // Entry/Exit stats - Removed, using empty stats
-        // VehicleStatisticsDto.EntryExitStatsDto entryExitStats = new VehicleStatisticsDto.EntryExitStatsDto(...); // Removed
+        // [entry count, exit count, unique vehicles] per series and bucket start
+        Map<String, Map<LocalDate, long[]>> series = new HashMap<>();
+        for (Object[] row : vehicleLogRepository.sumEventSeries(seriesFrom, seriesTo)) {
+            long[] counts = seriesBucket(series, row);
+            counts[0] = ((Number) row[2]).longValue();
+            counts[1] = ((Number) row[3]).longValue();
+        }
+        for (Object[] row : vehicleLogRepository.countDistinctVehicleSeries(seriesFrom, seriesTo)) {
+            seriesBucket(series, row)[2] = ((Number) row[2]).longValue();
+        }
         
-        // Generate empty time-based stats (entry/exit requests removed)
         List<VehicleStatisticsDto.VehicleDailyStatsDto> dailyStats = new ArrayList<>();
+        for (LocalDate day = dailyFrom; !day.isAfter(today); day = day.plusDays(1)) {
+            long[] counts = series.getOrDefault(SERIES_DAY, Map.of()).getOrDefault(day, new long[3]);
+            dailyStats.add(new VehicleStatisticsDto.VehicleDailyStatsDto(
+                    day, counts[0], counts[1], counts[0] + counts[1], counts[0] + counts[1], 0, 0, counts[2]));
+        }
+        
         List<VehicleStatisticsDto.VehicleWeeklyStatsDto> weeklyStats = new ArrayList<>();
+        for (LocalDate week = weeklyFrom; !week.isAfter(today); week = week.plusWeeks(1)) {
+            long[] counts = series.getOrDefault(SERIES_WEEK, Map.of()).getOrDefault(week, new long[3]);
+            weeklyStats.add(new VehicleStatisticsDto.VehicleWeeklyStatsDto(
+                    week.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), week, week.plusDays(6),
+                    counts[0], counts[1], counts[0] + counts[1], counts[0] + counts[1], 0, 0, counts[2]));
+        }
+        
         List<VehicleStatisticsDto.VehicleMonthlyStatsDto> monthlyStats = new ArrayList<>();
+        for (LocalDate month = monthlyFrom; !month.isAfter(today); month = month.plusMonths(1)) {
+            long[] counts = series.getOrDefault(SERIES_MONTH, Map.of()).getOrDefault(month, new long[3]);
+            monthlyStats.add(new VehicleStatisticsDto.VehicleMonthlyStatsDto(
+                    month.getMonthValue(), month.getYear(),
+                    counts[0], counts[1], counts[0] + counts[1], counts[0] + counts[1], 0, 0, counts[2]));
+        }
         
         return new VehicleStatisticsDto(
-                totalVehicles, approvedVehicles, rejectedVehicles, exitedVehicles, enteredVehicles,
+                totalVehicles,
+                statusStats.getOrDefault(Vehicle.VehicleStatus.approved.name(), 0L),
+                statusStats.getOrDefault(Vehicle.VehicleStatus.rejected.name(), 0L),
+                statusStats.getOrDefault(Vehicle.VehicleStatus.exited.name(), 0L),
+                statusStats.getOrDefault(Vehicle.VehicleStatus.entered.name(), 0L),
                 vehicleTypeStats, fuelTypeStats, dailyStats, weeklyStats, monthlyStats
         );
     }
     
-    /* Removed - EntryExitRequest methods
-    private List<VehicleStatisticsDto.VehicleDailyStatsDto> generateDailyStats(List<EntryExitRequest> requests) {
-        Map<LocalDate, VehicleStatisticsDto.VehicleDailyStatsDto> dailyMap = new HashMap<>();
-        Map<LocalDate, Set<String>> uniqueVehiclesPerDay = new HashMap<>();
-        
-        for (EntryExitRequest request : requests) {
-            LocalDate date = request.getRequestTime().toLocalDate();
-            
-            dailyMap.computeIfAbsent(date, d -> new VehicleStatisticsDto.VehicleDailyStatsDto(
-                    d, 0, 0, 0, 0, 0, 0, 0
-            ));
-            uniqueVehiclesPerDay.computeIfAbsent(date, d -> new HashSet<>());
-            
-            VehicleStatisticsDto.VehicleDailyStatsDto dayStats = dailyMap.get(date);
-            uniqueVehiclesPerDay.get(date).add(request.getVehicle().getId().toString());
-            
-            dayStats.setTotalRequests(dayStats.getTotalRequests() + 1);
-            if (request.getRequestType() == EntryExitRequest.RequestType.entry) {
-                dayStats.setEntryCount(dayStats.getEntryCount() + 1);
-            } else {
-                dayStats.setExitCount(dayStats.getExitCount() + 1);
-            }
-            
-            switch (request.getStatus()) {
-                case approved:
-                    dayStats.setApprovedCount(dayStats.getApprovedCount() + 1);
-                    break;
-                case pending:
-                    dayStats.setPendingCount(dayStats.getPendingCount() + 1);
-                    break;
-                case rejected:
-                    dayStats.setRejectedCount(dayStats.getRejectedCount() + 1);
-                    break;
-            }
+    private static void putCount(Map<String, Long> stats, Object key, long count) {
+        // Vehicles without a type or fuel type are only part of the total, as before
+        if (key != null) {
+            stats.put(key.toString(), count);
         }
-        
-        // Set unique vehicles count
-        dailyMap.forEach((date, stats) -> {
-            stats.setUniqueVehicles(uniqueVehiclesPerDay.get(date).size());
-        });
-        
-        return dailyMap.values().stream()
-                .sorted(Comparator.comparing(VehicleStatisticsDto.VehicleDailyStatsDto::getDate))
-                .collect(Collectors.toList());
     }
     
-    private List<VehicleStatisticsDto.VehicleWeeklyStatsDto> generateWeeklyStats(List<EntryExitRequest> requests) {
-        Map<String, VehicleStatisticsDto.VehicleWeeklyStatsDto> weeklyMap = new HashMap<>();
-        Map<String, Set<String>> uniqueVehiclesPerWeek = new HashMap<>();
-        
-        WeekFields weekFields = WeekFields.of(Locale.getDefault());
-        
-        for (EntryExitRequest request : requests) {
-            LocalDate requestDate = request.getRequestTime().toLocalDate();
-            int week = requestDate.get(weekFields.weekOfYear());
-            int year = requestDate.getYear();
-            String weekKey = year + "-W" + week;
-            
-            // Calculate start and end dates of the week
-            LocalDate startDate = requestDate.with(weekFields.dayOfWeek(), 1);
-            LocalDate endDate = startDate.plusDays(6);
-            
-            weeklyMap.computeIfAbsent(weekKey, k -> new VehicleStatisticsDto.VehicleWeeklyStatsDto(
-                    week, startDate, endDate, 0, 0, 0, 0, 0, 0, 0
-            ));
-            uniqueVehiclesPerWeek.computeIfAbsent(weekKey, k -> new HashSet<>());
-            
-            VehicleStatisticsDto.VehicleWeeklyStatsDto weekStats = weeklyMap.get(weekKey);
-            uniqueVehiclesPerWeek.get(weekKey).add(request.getVehicle().getId().toString());
-            
-            weekStats.setTotalRequests(weekStats.getTotalRequests() + 1);
-            if (request.getRequestType() == EntryExitRequest.RequestType.entry) {
-                weekStats.setEntryCount(weekStats.getEntryCount() + 1);
-            } else {
-                weekStats.setExitCount(weekStats.getExitCount() + 1);
-            }
-            
-            switch (request.getStatus()) {
-                case approved:
-                    weekStats.setApprovedCount(weekStats.getApprovedCount() + 1);
-                    break;
-                case pending:
-                    weekStats.setPendingCount(weekStats.getPendingCount() + 1);
-                    break;
-                case rejected:
-                    weekStats.setRejectedCount(weekStats.getRejectedCount() + 1);
-                    break;
-            }
-        }
-        
-        // Set unique vehicles count
-        weeklyMap.forEach((weekKey, stats) -> {
-            stats.setUniqueVehicles(uniqueVehiclesPerWeek.get(weekKey).size());
-        });
-        
-        return weeklyMap.values().stream()
-                .sorted(Comparator.comparing(VehicleStatisticsDto.VehicleWeeklyStatsDto::getStartDate))
-                .collect(Collectors.toList());
-    }
-    
-    private List<VehicleStatisticsDto.VehicleMonthlyStatsDto> generateMonthlyStats(List<EntryExitRequest> requests) {
-        Map<String, VehicleStatisticsDto.VehicleMonthlyStatsDto> monthlyMap = new HashMap<>();
-        Map<String, Set<String>> uniqueVehiclesPerMonth = new HashMap<>();
-        
-        for (EntryExitRequest request : requests) {
-            LocalDate requestDate = request.getRequestTime().toLocalDate();
-            int month = requestDate.getMonthValue();
-            int year = requestDate.getYear();
-            String monthKey = year + "-" + month;
-            
-            monthlyMap.computeIfAbsent(monthKey, k -> new VehicleStatisticsDto.VehicleMonthlyStatsDto(
-                    month, year, 0, 0, 0, 0, 0, 0, 0
-            ));
-            uniqueVehiclesPerMonth.computeIfAbsent(monthKey, k -> new HashSet<>());
-            
-            VehicleStatisticsDto.VehicleMonthlyStatsDto monthStats = monthlyMap.get(monthKey);
-            uniqueVehiclesPerMonth.get(monthKey).add(request.getVehicle().getId().toString());
-            
-            monthStats.setTotalRequests(monthStats.getTotalRequests() + 1);
-            if (request.getRequestType() == EntryExitRequest.RequestType.entry) {
-                monthStats.setEntryCount(monthStats.getEntryCount() + 1);
-            } else {
-                monthStats.setExitCount(monthStats.getExitCount() + 1);
-            }
-            
-            switch (request.getStatus()) {
-                case approved:
-                    monthStats.setApprovedCount(monthStats.getApprovedCount() + 1);
-                    break;
-                case pending:
-                    monthStats.setPendingCount(monthStats.getPendingCount() + 1);
-                    break;
-                case rejected:
-                    monthStats.setRejectedCount(monthStats.getRejectedCount() + 1);
-                    break;
-            }
-        }
-        
-        // Set unique vehicles count
-        monthlyMap.forEach((monthKey, stats) -> {
-            stats.setUniqueVehicles(uniqueVehiclesPerMonth.get(monthKey).size());
-        });
-        
-        return monthlyMap.values().stream()
-                .sorted(Comparator.comparing(VehicleStatisticsDto.VehicleMonthlyStatsDto::getYear)
-                        .thenComparing(VehicleStatisticsDto.VehicleMonthlyStatsDto::getMonth))
-                .collect(Collectors.toList());
+    private static long[] seriesBucket(Map<String, Map<LocalDate, long[]>> series, Object[] row) {
+        LocalDate bucket = row[1] instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) row[1];
+        return series.computeIfAbsent((String) row[0], label -> new HashMap<>())
+                .computeIfAbsent(bucket, day -> new long[3]);
     }
-    */ // End of removed EntryExitRequest methods
     
     /**
      * Upload vehicle image and update image path
@@ -463,99 +455,63 @@ public class VehicleService {
     }
     
     /**
-     * Normalize license plate by removing special characters and converting to uppercase
+     * Check if a vehicle is approved for access based on license plate and update status.
+     * The decision is answered from the in-memory access index; only the status transition
+     * is written before responding. The log entry and the monitor notification are handed
+     * to the gate event pipeline once the transition commits.
      */
-    private String normalizeLicensePlate(String licensePlate) {
-        if (licensePlate == null) {
-            return null;
-        }
-        // Remove common special characters and convert to uppercase
-        return licensePlate.replaceAll("[-._\\s]", "").toUpperCase();
+    @Transactional
+    public VehicleCheckResponse checkVehicleAccess(String licensePlateNumber, String type) {
+        return checkVehicleAccess(licensePlateNumber, type, null);
     }
     
     /**
-     * Check if a vehicle is approved for access based on license plate and update status
+     * Check vehicle access at a specific gate
+     * @param gateLocation Gate the detection came from, or null for the main gate
      */
     @Transactional
-    public VehicleCheckResponse checkVehicleAccess(String licensePlateNumber, String type) {
+    public VehicleCheckResponse checkVehicleAccess(String licensePlateNumber, String type, String gateLocation) {
+        return checkVehicleAccess(licensePlateNumber, type, gateLocation, GateCheckMetrics.SOURCE_HTTP);
+    }
+    
+    /**
+     * Check vehicle access at a specific gate
+     * @param source Channel the detection arrived on, for the gate.check timer (GateCheckMetrics.SOURCE_*)
+     */
+    @Transactional
+    public VehicleCheckResponse checkVehicleAccess(String licensePlateNumber, String type, String gateLocation, String source) {
+        Timer.Sample sample = gateCheckMetrics.start();
         try {
-            // Find vehicle by license plate with normalized search
-            // This handles cases where license plates may have different formatting (e.g., "ABC-123" vs "ABC123")
-            Vehicle vehicle = vehicleRepository.findByLicensePlateNormalized(licensePlateNumber)
-                    .orElse(null);
-            if (vehicle == null) {
-                String notFoundMessage = "Xe với biển số " + licensePlateNumber + " chưa được đăng ký trong hệ thống";
-                
-                // Send WebSocket message for vehicle not found
-                try {
-                    webSocketService.sendVehicleCheckMessage(licensePlateNumber, type, notFoundMessage);
-                } catch (Exception wsException) {
-                    // Log WebSocket error but don't fail the response
-                    System.err.println("Failed to send WebSocket message: " + wsException.getMessage());
+            GateDecision decision = gateCheckMetrics.recordStep(GateCheckMetrics.STEP_PLATE_LOOKUP,
+                    () -> decide(licensePlateNumber, type, Collections.emptyMap()));
+            VehicleLogDto logEntry = null;
+            
+            if (decision.isApproved()) {
+                if (decision.getNewStatus() != null) {
+                    GateDecision approved = decision;
+                    decision = gateCheckMetrics.recordStep(GateCheckMetrics.STEP_STATUS_WRITE,
+                            () -> transitionStatus(approved));
                 }
-                
-                return new VehicleCheckResponse(
-                    false, 
-                    notFoundMessage, 
-                    licensePlateNumber, 
-                    type
-                );
             }
             
-            // Check if vehicle status is approved or already in appropriate state for entry/exit
-            boolean isApproved = vehicle.getStatus() == Vehicle.VehicleStatus.approved ||
-                    ("entry".equalsIgnoreCase(type) && vehicle.getStatus() == Vehicle.VehicleStatus.exited) ||
-                    ("exit".equalsIgnoreCase(type) && vehicle.getStatus() == Vehicle.VehicleStatus.entered);
-            
-            String message;
-            if (isApproved) {
-                // Get employee name for the message
-                String employeeName = vehicle.getEmployee() != null ? vehicle.getEmployee().getName() : "Không xác định";
-                
-                // Update vehicle status based on type
-                if ("entry".equalsIgnoreCase(type)) {
-                    vehicle.setStatus(Vehicle.VehicleStatus.entered);
-                    vehicleRepository.save(vehicle);
-                    message = "Xe biển số " + licensePlateNumber + " của đồng chí " + employeeName + " được phép vào cổng";
-                } else if ("exit".equalsIgnoreCase(type)) {
-                    vehicle.setStatus(Vehicle.VehicleStatus.exited);
-                    vehicleRepository.save(vehicle);
-                    message = "Xe biển số " + licensePlateNumber + " của đồng chí " + employeeName + " được phép ra cổng";
-                } else {
-                    message = "Xe biển số " + licensePlateNumber + " của đồng chí " + employeeName + " được phép ra vào cổng";
-                }
-                
-                // Create vehicle log entry for approved access
-                createVehicleLogEntry(vehicle, type);
-                
-                // Get employee info and send to WebSocket
-                try {
-                    VehicleLog.LogType logType = "entry".equalsIgnoreCase(type) ? VehicleLog.LogType.entry : VehicleLog.LogType.exit;
-                    Object monitorInfo = vehicleLogService.getEmployeeInfoByLicensePlate(licensePlateNumber, logType);
-                    webSocketService.sendVehicleCheckMessage(monitorInfo);
-                } catch (Exception e) {
-                    // Fallback to simple message if employee info fails
-                    webSocketService.sendVehicleCheckMessage(licensePlateNumber, type, message);
-                }
-                
-            } else {
-                // Get employee name for the denied message
-                String employeeName = vehicle.getEmployee() != null ? vehicle.getEmployee().getName() : "Không xác định";
-                String statusText = getStatusText(vehicle.getStatus()) =="Entered" ? "đã vào" : "đã ra";
-                message = "Xe biển số " + licensePlateNumber + " của đồng chí " + employeeName + " không được phép ra vào (Trạng thái: " + statusText + ")";
-                
-                // Send WebSocket message for denied access
-                webSocketService.sendVehicleCheckMessage(licensePlateNumber, type, message);
+            if (decision.isApproved()) {
+                // Vehicle log entry for approved access, written by the pipeline
+                logEntry = buildVehicleLogEntry(decision.getVehicle(), type,
+                        gateLocation != null ? gateLocation : DEFAULT_GATE_LOCATION, null, LocalDateTime.now());
+                occupancyTracker.recordAfterCommit(logEntry);
             }
             
-            return new VehicleCheckResponse(
-                isApproved,
-                message,
-                licensePlateNumber,
-                type
-            );
+            gateEventPipeline.submitAfterCommit(decision, logEntry);
+            VehicleCheckResponse response = decision.toResponse();
+            gateCheckDeduplicator.rememberAfterCommit(licensePlateNumber, gateLocation, type, response);
+            
+            // Stopped after commit so the timer includes the commit round-trip
+            GateDecision.Outcome outcome = decision.getOutcome();
+            TransactionUtil.runAfterCommit(() -> gateCheckMetrics.recordCheck(sample, outcome, type, gateLocation, source));
+            return response;
             
         } catch (Exception e) {
+            gateCheckMetrics.recordCheck(sample, GateDecision.Outcome.ERROR, type, gateLocation, source);
             String errorMessage = "Lỗi kiểm tra xe: " + e.getMessage();
             
             // Send WebSocket message for error
@@ -576,30 +532,279 @@ public class VehicleService {
     }
     
     /**
-     * Create a vehicle log entry for access events
+     * Check a burst of detections from one or more gate cameras.
+     * Decisions are made in order against the access index (so an entry followed by an exit
+     * of the same plate in one batch behaves as two sequential checks), then all status
+     * transitions and log entries are written together: at most one conditional UPDATE per
+     * (start status, target status) pair and one batched INSERT. A vehicle another lane moved
+     * in the meantime is left out of the UPDATE; its detections get a CONFLICT result and no
+     * log row, while the rest of the batch goes through.
+     * Like single checks, a detection already checked inside the de-duplication window gets
+     * the cached result, and a repeat of an earlier detection in the same batch (two cameras
+     * seeing one car) gets that detection's result; neither is decided, written or broadcast.
      */
-    private void createVehicleLogEntry(Vehicle vehicle, String type) {
+    @Transactional
+    public List<VehicleCheckResponse> checkVehicleAccessBatch(List<VehicleCheckBatchRequest.Detection> detections) {
+        Timer.Sample sample = gateCheckMetrics.start();
+        VehicleCheckResponse[] responses = new VehicleCheckResponse[detections.size()];
+        int[] repeatOf = new int[detections.size()];
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<VehicleCheckBatchRequest.Detection> checked = new ArrayList<>();
+        List<Integer> checkedPositions = new ArrayList<>();
+        for (int i = 0; i < detections.size(); i++) {
+            VehicleCheckBatchRequest.Detection detection = detections.get(i);
+            String key = gateCheckDeduplicator.key(
+                    detection.getLicensePlateNumber(), detection.getGateLocation(), detection.getType());
+            Integer first = firstByKey.putIfAbsent(key, i);
+            repeatOf[i] = first != null ? first : -1;
+            if (first != null) {
+                continue;
+            }
+            responses[i] = gateCheckDeduplicator.find(
+                    detection.getLicensePlateNumber(), detection.getGateLocation(), detection.getType());
+            if (responses[i] == null) {
+                checked.add(detection);
+                checkedPositions.add(i);
+            }
+        }
+        
         try {
-            VehicleLogDto logDto = VehicleLogDto.builder()
-                    .licensePlateNumber(vehicle.getLicensePlate())
-                    .vehicleId(vehicle.getId())
-                    .employeeId(vehicle.getEmployee().getId())
-                    .entryExitTime(LocalDateTime.now())
-                    .type("entry".equalsIgnoreCase(type) ? VehicleLog.LogType.entry : VehicleLog.LogType.exit)
-                    .vehicleType(VehicleLog.VehicleCategory.internal) // Assuming internal vehicles since they're registered
-                    .driverName(vehicle.getEmployee().getName())
-                    .purpose("Truy cập xe tự động")
-                    .gateLocation("Main Gate") // Default gate location, could be parameterized later
-                    .notes("Auto-generated log entry from vehicle access check")
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            
-            vehicleLogService.createVehicleLog(logDto);
+            List<GateDecision> decisions = decideAndWriteBatch(checked);
+            for (int i = 0; i < decisions.size(); i++) {
+                VehicleCheckBatchRequest.Detection detection = checked.get(i);
+                VehicleCheckResponse response = decisions.get(i).toResponse();
+                responses[checkedPositions.get(i)] = response;
+                gateCheckDeduplicator.rememberAfterCommit(detection.getLicensePlateNumber(),
+                        detection.getGateLocation(), detection.getType(), response);
+            }
+            List<GateDecision.Outcome> outcomes = decisions.stream()
+                    .map(GateDecision::getOutcome)
+                    .collect(Collectors.toList());
+            // Stopped after commit so the timer includes the commit round-trip; a failed batch records errors.
+            // Only detections that were checked are timed, as cache hits of single checks are not.
+            TransactionUtil.runAfterCommit(() -> gateCheckMetrics.recordBatch(sample, checked, outcomes));
+        } catch (RuntimeException e) {
+            gateCheckMetrics.recordBatch(sample, checked, null);
+            throw e;
+        }
+        
+        for (int i = 0; i < responses.length; i++) {
+            if (repeatOf[i] >= 0) {
+                responses[i] = responses[repeatOf[i]];
+            }
+        }
+        return Arrays.asList(responses);
+    }
+    
+    private List<GateDecision> decideAndWriteBatch(List<VehicleCheckBatchRequest.Detection> detections) {
+        Map<UUID, Vehicle.VehicleStatus> pendingStatuses = new LinkedHashMap<>();
+        Map<UUID, Vehicle.VehicleStatus> startStatuses = new HashMap<>();
+        List<GateDecision> decisions = new ArrayList<>();
+        // Parallel to decisions, null where no log is written
+        List<VehicleLogDto> logEntries = new ArrayList<>();
+        
+        for (VehicleCheckBatchRequest.Detection detection : detections) {
+            GateDecision decision = decide(detection.getLicensePlateNumber(), detection.getType(), pendingStatuses);
+            decisions.add(decision);
             
-        } catch (Exception e) {
-            // Log the error but don't fail the vehicle check process
-            System.err.println("Failed to create vehicle log entry: " + e.getMessage());
+            if (!decision.isApproved()) {
+                logEntries.add(null);
+            } else {
+                if (decision.getNewStatus() != null) {
+                    startStatuses.putIfAbsent(decision.getVehicle().getVehicleId(), decision.getVehicle().getStatus());
+                    pendingStatuses.put(decision.getVehicle().getVehicleId(), decision.getNewStatus());
+                }
+                logEntries.add(buildVehicleLogEntry(
+                        decision.getVehicle(),
+                        detection.getType(),
+                        detection.getGateLocation() != null ? detection.getGateLocation() : DEFAULT_GATE_LOCATION,
+                        detection.getCameraId(),
+                        detection.getTimestamp() != null ? detection.getTimestamp() : LocalDateTime.now()));
+            }
+        }
+        
+        // Durable writes for the whole batch, conditional on the statuses the decisions were based on
+        Set<UUID> conflicted = new HashSet<>();
+        pendingStatuses.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> startStatuses.get(entry.getKey()),
+                        Collectors.groupingBy(Map.Entry::getValue,
+                                Collectors.mapping(Map.Entry::getKey, Collectors.toList()))))
+                .forEach((fromStatus, byTarget) -> byTarget.forEach((toStatus, vehicleIds) -> {
+                    Map<UUID, Long> changed = vehicleRepository.transitionStatusByIds(vehicleIds, fromStatus.name(), toStatus.name())
+                            .stream()
+                            .collect(Collectors.toMap(VehicleRepository.UpdatedVersion::getId, VehicleRepository.UpdatedVersion::getVersion));
+                    for (UUID vehicleId : vehicleIds) {
+                        if (changed.containsKey(vehicleId)) {
+                            vehicleAccessIndex.updateStatus(vehicleId, toStatus, changed.get(vehicleId));
+                        } else {
+                            conflicted.add(vehicleId);
+                        }
+                    }
+                }));
+        
+        // Every detection of a vehicle that moved elsewhere was decided against a stale status
+        List<VehicleLogDto> committedLogs = new ArrayList<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            GateDecision decision = decisions.get(i);
+            if (decision.getVehicle() != null && conflicted.contains(decision.getVehicle().getVehicleId())) {
+                decisions.set(i, conflict(decision));
+            } else if (logEntries.get(i) != null) {
+                committedLogs.add(logEntries.get(i));
+            }
         }
+        if (!committedLogs.isEmpty()) {
+            vehicleLogService.createAccessLogs(committedLogs);
+            committedLogs.forEach(occupancyTracker::recordAfterCommit);
+        }
+        
+        // Logs are already written above; only the notifications go through the pipeline
+        decisions.forEach(decision -> gateEventPipeline.submitAfterCommit(decision, null));
+        return decisions;
+    }
+    
+    /**
+     * Decide whether a detection may pass, without side effects
+     * @param pendingStatuses Status changes decided earlier in the same batch but not yet applied to the index
+     */
+    private GateDecision decide(String licensePlateNumber, String type, Map<UUID, Vehicle.VehicleStatus> pendingStatuses) {
+        // Find vehicle by license plate with normalized search
+        // This handles cases where license plates may have different formatting (e.g., "ABC-123" vs "ABC123")
+        String normalizedPlate = LicensePlateUtil.normalize(licensePlateNumber);
+        VehicleAccessIndex.Entry vehicle = vehicleAccessIndex.find(normalizedPlate).orElse(null);
+        double matchConfidence = 1.0;
+        
+        // Fall back to OCR-tolerant matching: only confusable substitutions (0/O, 8/B, 1/I, 5/S, ...);
+        // a missing or extra character may be another vehicle, so such plates are never matched
+        if (vehicle == null && fuzzyPlateMatchingEnabled) {
+            PlateMatcher.Match match = vehicleAccessIndex.match(normalizedPlate);
+            if (match.getOutcome() == PlateMatcher.Outcome.AMBIGUOUS) {
+                return GateDecision.rejected(GateDecision.Outcome.AMBIGUOUS, licensePlateNumber, type,
+                        "Biển số " + licensePlateNumber + " không xác định được chính xác, trùng khớp với nhiều xe");
+            }
+            if (match.isMatched() && match.getConfidence() >= minPlateMatchConfidence) {
+                vehicle = vehicleAccessIndex.find(match.getPlate()).orElse(null);
+                matchConfidence = match.getConfidence();
+            }
+        }
+        
+        if (vehicle == null) {
+            return GateDecision.rejected(GateDecision.Outcome.NOT_FOUND, licensePlateNumber, type,
+                    "Xe với biển số " + licensePlateNumber + " chưa được đăng ký trong hệ thống");
+        }
+        
+        // Use the registered plate in messages when the detection was corrected
+        String displayPlate = matchConfidence < 1.0 ? vehicle.getLicensePlate() : licensePlateNumber;
+        String employeeName = vehicle.getEmployeeName() != null ? vehicle.getEmployeeName() : "Không xác định";
+        Vehicle.VehicleStatus currentStatus = pendingStatuses.getOrDefault(vehicle.getVehicleId(), vehicle.getStatus());
+        
+        // Check if vehicle status is approved or already in appropriate state for entry/exit
+        boolean isApproved = currentStatus == Vehicle.VehicleStatus.approved ||
+                ("entry".equalsIgnoreCase(type) && currentStatus == Vehicle.VehicleStatus.exited) ||
+                ("exit".equalsIgnoreCase(type) && currentStatus == Vehicle.VehicleStatus.entered);
+        
+        if (!isApproved) {
+            return new GateDecision(GateDecision.Outcome.DENIED, licensePlateNumber, type, displayPlate,
+                    vehicle, null, matchConfidence, deniedMessage(displayPlate, employeeName, currentStatus));
+        }
+        
+        // Update vehicle status based on type
+        Vehicle.VehicleStatus newStatus;
+        String message;
+        if ("entry".equalsIgnoreCase(type)) {
+            newStatus = Vehicle.VehicleStatus.entered;
+            message = "Xe biển số " + displayPlate + " của đồng chí " + employeeName + " được phép vào cổng";
+        } else if ("exit".equalsIgnoreCase(type)) {
+            newStatus = Vehicle.VehicleStatus.exited;
+            message = "Xe biển số " + displayPlate + " của đồng chí " + employeeName + " được phép ra cổng";
+        } else {
+            newStatus = null;
+            message = "Xe biển số " + displayPlate + " của đồng chí " + employeeName + " được phép ra vào cổng";
+        }
+        return new GateDecision(GateDecision.Outcome.APPROVED, licensePlateNumber, type, displayPlate,
+                vehicle, newStatus, matchConfidence, message);
+    }
+    
+    /**
+     * Apply an approved decision's status transition with a single conditional UPDATE.
+     * Returns the decision unchanged if the transition went through, otherwise a denial
+     * explaining why, based on the status the database saw.
+     */
+    private GateDecision transitionStatus(GateDecision decision) {
+        VehicleAccessIndex.Entry vehicle = decision.getVehicle();
+        Vehicle.VehicleStatus newStatus = decision.getNewStatus();
+        List<String> sourceStatuses = getSourceStatuses(newStatus);
+        
+        Optional<VehicleRepository.StatusTransition> result = vehicleRepository.transitionStatus(
+                vehicle.getVehicleId(), sourceStatuses, newStatus.name());
+        if (result.isEmpty()) {
+            vehicleAccessIndex.remove(vehicle.getVehicleId());
+            return GateDecision.rejected(GateDecision.Outcome.NOT_FOUND, decision.getLicensePlateNumber(), decision.getType(),
+                    "Xe với biển số " + decision.getLicensePlateNumber() + " chưa được đăng ký trong hệ thống");
+        }
+        
+        VehicleRepository.StatusTransition transition = result.get();
+        if (transition.isTransitioned()) {
+            vehicleAccessIndex.updateStatus(vehicle.getVehicleId(), newStatus, transition.getVersion());
+            return decision;
+        }
+        
+        if (sourceStatuses.contains(transition.getPreviousStatus())) {
+            // Another lane moved the vehicle between the start of the statement and the row lock
+            return conflict(decision);
+        }
+        
+        // The index was behind the database; correct it and deny with the stored status
+        String employeeName = vehicle.getEmployeeName() != null ? vehicle.getEmployeeName() : "Không xác định";
+        Vehicle.VehicleStatus storedStatus = Vehicle.VehicleStatus.valueOf(transition.getPreviousStatus());
+        vehicleAccessIndex.updateStatus(vehicle.getVehicleId(), storedStatus, transition.getVersion());
+        return new GateDecision(GateDecision.Outcome.DENIED, decision.getLicensePlateNumber(), decision.getType(),
+                decision.getDisplayPlate(), vehicle, null, decision.getMatchConfidence(),
+                deniedMessage(decision.getDisplayPlate(), employeeName, storedStatus));
+    }
+    
+    /**
+     * Replace a decision whose status transition lost the race with another lane
+     */
+    private GateDecision conflict(GateDecision decision) {
+        VehicleAccessIndex.Entry vehicle = decision.getVehicle();
+        String employeeName = vehicle.getEmployeeName() != null ? vehicle.getEmployeeName() : "Không xác định";
+        return new GateDecision(GateDecision.Outcome.CONFLICT, decision.getLicensePlateNumber(), decision.getType(),
+                decision.getDisplayPlate(), vehicle, null, decision.getMatchConfidence(),
+                "Xe biển số " + decision.getDisplayPlate() + " của đồng chí " + employeeName + " vừa được xử lý ở cổng khác");
+    }
+    
+    /**
+     * Statuses a vehicle may be in for a gate check to move it to the given status
+     */
+    private List<String> getSourceStatuses(Vehicle.VehicleStatus newStatus) {
+        Vehicle.VehicleStatus opposite = newStatus == Vehicle.VehicleStatus.entered
+                ? Vehicle.VehicleStatus.exited
+                : Vehicle.VehicleStatus.entered;
+        return List.of(Vehicle.VehicleStatus.approved.name(), opposite.name());
+    }
+    
+    private String deniedMessage(String displayPlate, String employeeName, Vehicle.VehicleStatus status) {
+        String statusText = getStatusText(status) =="Entered" ? "đã vào" : "đã ra";
+        return "Xe biển số " + displayPlate + " của đồng chí " + employeeName + " không được phép ra vào (Trạng thái: " + statusText + ")";
+    }
+    
+    private VehicleLogDto buildVehicleLogEntry(VehicleAccessIndex.Entry vehicle, String type, String gateLocation,
+                                               String cameraId, LocalDateTime entryExitTime) {
+        return VehicleLogDto.builder()
+                .licensePlateNumber(vehicle.getLicensePlate())
+                .vehicleId(vehicle.getVehicleId())
+                .employeeId(vehicle.getEmployeeId())
+                .entryExitTime(entryExitTime)
+                .type("entry".equalsIgnoreCase(type) ? VehicleLog.LogType.entry : VehicleLog.LogType.exit)
+                .vehicleType(VehicleLog.VehicleCategory.internal) // Assuming internal vehicles since they're registered
+                .driverName(vehicle.getEmployeeName())
+                .purpose("Truy cập xe tự động")
+                .gateLocation(gateLocation)
+                .notes(cameraId != null
+                        ? "Auto-generated log entry from vehicle access check (camera " + cameraId + ")"
+                        : "Auto-generated log entry from vehicle access check")
+                .createdAt(LocalDateTime.now())
+                .build();
     }
     
     /**
@@ -1,5 +1,6 @@
 package com.vehiclemanagement.service;
 
+import com.vehiclemanagement.dto.OccupancyDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -38,6 +39,13 @@ public class WebSocketService {
         System.out.println("WebSocket message sent to /topic/vehicle-check");
     }
     
+    /**
+     * Send the current occupancy counts to WebSocket topic
+     */
+    public void sendOccupancyUpdate(OccupancyDto occupancy) {
+        messagingTemplate.convertAndSend("/topic/occupancy", occupancy);
+    }
+    
     /**
      * Data class for vehicle check messages
      */
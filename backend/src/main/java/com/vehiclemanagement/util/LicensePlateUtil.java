@@ -0,0 +1,63 @@
+package com.vehiclemanagement.util;
+
+import java.util.Locale;
+
+public final class LicensePlateUtil {
+
+    private LicensePlateUtil() {
+    }
+
+    /**
+     * Normalize license plate by removing special characters and converting to uppercase.
+     * Must stay in sync with normalize_license_plate() in the V33 migration, which
+     * maintains the stored license_plate_normalized columns.
+     *
+     * Runs on every gate check, so it is a single pass over the characters: an already
+     * canonical plate is returned as is without allocating, anything else costs one char[]
+     * and one String. Non-ASCII input takes the general (regex) path.
+     * @param licensePlate The plate as entered or detected (e.g. "76m5-144.3")
+     * @return Canonical plate (e.g. "76M51443"), or null if the input is null
+     */
+    public static String normalize(String licensePlate) {
+        if (licensePlate == null) {
+            return null;
+        }
+        int length = licensePlate.length();
+        int index = 0;
+        while (index < length && isCanonical(licensePlate.charAt(index))) {
+            index++;
+        }
+        if (index == length) {
+            return licensePlate;
+        }
+
+        char[] normalized = new char[length];
+        licensePlate.getChars(0, index, normalized, 0);
+        int size = index;
+        for (; index < length; index++) {
+            char c = licensePlate.charAt(index);
+            if (c >= 128) {
+                return normalizeGeneral(licensePlate);
+            }
+            if (isSeparator(c)) {
+                continue;
+            }
+            normalized[size++] = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+        }
+        return new String(normalized, 0, size);
+    }
+
+    private static boolean isCanonical(char c) {
+        return c < 128 && !isSeparator(c) && !(c >= 'a' && c <= 'z');
+    }
+
+    // Same set as the [-._\s] class: '-', '.', '_' and ASCII whitespace
+    private static boolean isSeparator(char c) {
+        return c == '-' || c == '.' || c == '_' || c == ' '
+                || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static String normalizeGeneral(String licensePlate) {
+        return licensePlate.replaceAll("[-._\\s]", "").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,73 @@
+package com.vehiclemanagement.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the vehicle log ordered by (entry_exit_time DESC, id DESC), for keyset paging.
+ * Clients get it as an opaque URL-safe token and send it back unchanged.
+ */
+public final class LogCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final boolean backward;
+    private final LocalDateTime entryExitTime;
+    private final UUID id;
+
+    private LogCursor(boolean backward, LocalDateTime entryExitTime, UUID id) {
+        this.backward = backward;
+        this.entryExitTime = entryExitTime;
+        this.id = id;
+    }
+
+    /** Cursor for the rows after (older than) the given row */
+    public static LogCursor next(LocalDateTime entryExitTime, UUID id) {
+        return new LogCursor(false, entryExitTime, id);
+    }
+
+    /** Cursor for the rows before (newer than) the given row */
+    public static LogCursor previous(LocalDateTime entryExitTime, UUID id) {
+        return new LogCursor(true, entryExitTime, id);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by encode()
+     */
+    public static LogCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = value.indexOf(SEPARATOR);
+            int second = value.indexOf(SEPARATOR, first + 1);
+            char direction = value.isEmpty() ? 0 : value.charAt(0);
+            if (first != 1 || second < 0 || (direction != 'n' && direction != 'p')) {
+                throw new IllegalArgumentException("Cursor không hợp lệ");
+            }
+            return new LogCursor(direction == 'p',
+                    LocalDateTime.parse(value.substring(first + 1, second)),
+                    UUID.fromString(value.substring(second + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ", e);
+        }
+    }
+
+    public String encode() {
+        String value = (backward ? 'p' : 'n') + String.valueOf(SEPARATOR) + entryExitTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isBackward() {
+        return backward;
+    }
+
+    public LocalDateTime getEntryExitTime() {
+        return entryExitTime;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,233 @@
+package com.vehiclemanagement.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OCR-tolerant matcher over normalized license plates.
+ *
+ * Plates are indexed by a "skeleton" in which characters the OCR commonly confuses
+ * (0/O/D/Q, 1/I/L, 2/Z, 5/S, 6/G, 8/B) collapse to one symbol, so a lookup is one
+ * hash probe regardless of how many plates are registered.
+ *
+ * Only confusable substitutions are tolerated: a detected plate matches a registered
+ * one when both have the same skeleton. Any other difference (another digit, a missing
+ * or extra character) may be a different vehicle, and the match decides whether the
+ * barrier opens, so such plates are never matched. Same-skeleton plates have the same
+ * length, so candidates are ranked by the number of positions that differ, and a plate
+ * needing more than MAX_CONFUSIONS of them is read too badly to be trusted.
+ *
+ * Writers must be serialized by the caller; lookups may run concurrently.
+ */
+public class PlateMatcher {
+
+    /** Most confusable characters a detection may differ in and still match */
+    static final int MAX_CONFUSIONS = 2;
+
+    /** Confidence lost per confusion, relative to the plate length */
+    static final double CONFUSION_PENALTY = 0.25;
+
+    private static final String[] EMPTY = new String[0];
+
+    private final Map<String, String[]> platesByKey = new ConcurrentHashMap<>();
+
+    public void add(String normalizedPlate) {
+        if (normalizedPlate == null || normalizedPlate.isEmpty()) {
+            return;
+        }
+        platesByKey.compute(skeleton(normalizedPlate), (key, plates) -> {
+            if (plates == null) {
+                return new String[]{normalizedPlate};
+            }
+            if (Arrays.asList(plates).contains(normalizedPlate)) {
+                return plates;
+            }
+            String[] updated = Arrays.copyOf(plates, plates.length + 1);
+            updated[plates.length] = normalizedPlate;
+            return updated;
+        });
+    }
+
+    public void remove(String normalizedPlate) {
+        if (normalizedPlate == null || normalizedPlate.isEmpty()) {
+            return;
+        }
+        platesByKey.computeIfPresent(skeleton(normalizedPlate), (key, plates) -> {
+            String[] updated = Arrays.stream(plates)
+                    .filter(plate -> !plate.equals(normalizedPlate))
+                    .toArray(String[]::new);
+            return updated.length == 0 ? null : updated;
+        });
+    }
+
+    public void clear() {
+        platesByKey.clear();
+    }
+
+    /**
+     * Resolve a detected plate to the unique registered plate within MAX_CONFUSIONS
+     * @param normalizedPlate Detected plate as returned by LicensePlateUtil.normalize
+     * @return Match result; never null
+     */
+    public Match match(String normalizedPlate) {
+        if (normalizedPlate == null || normalizedPlate.isEmpty()) {
+            return Match.none();
+        }
+
+        // Same skeleton: every difference is a confusable substitution, and lengths are equal
+        Map<String, Integer> confusions = new LinkedHashMap<>();
+        for (String candidate : platesByKey.getOrDefault(skeleton(normalizedPlate), EMPTY)) {
+            int count = confusions(normalizedPlate, candidate);
+            if (count <= MAX_CONFUSIONS) {
+                confusions.put(candidate, count);
+            }
+        }
+
+        String best = null;
+        int bestCount = Integer.MAX_VALUE;
+        int secondCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : confusions.entrySet()) {
+            int count = entry.getValue();
+            if (count < bestCount) {
+                secondCount = bestCount;
+                bestCount = count;
+                best = entry.getKey();
+            } else if (count < secondCount) {
+                secondCount = count;
+            }
+        }
+
+        if (best == null) {
+            return Match.none();
+        }
+        if (bestCount == 0) {
+            return Match.exact(best);
+        }
+        // A candidate only one more misread away is as plausible; refuse rather than guess
+        if (secondCount - bestCount <= 1) {
+            List<String> tied = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : confusions.entrySet()) {
+                if (entry.getValue() - bestCount <= 1) {
+                    tied.add(entry.getKey());
+                }
+            }
+            return Match.ambiguous(tied);
+        }
+
+        double confidence = 1.0 - bestCount * CONFUSION_PENALTY / normalizedPlate.length();
+        return Match.fuzzy(best, confidence, bestCount);
+    }
+
+    /**
+     * Number of positions at which two plates of the same length differ
+     */
+    static int confusions(String a, String b) {
+        int count = 0;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static String skeleton(String normalizedPlate) {
+        char[] chars = new char[normalizedPlate.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = confusionClass(normalizedPlate.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    static char confusionClass(char c) {
+        switch (c) {
+            case 'O':
+            case 'D':
+            case 'Q':
+                return '0';
+            case 'I':
+            case 'L':
+                return '1';
+            case 'Z':
+                return '2';
+            case 'S':
+                return '5';
+            case 'G':
+                return '6';
+            case 'B':
+                return '8';
+            default:
+                return c;
+        }
+    }
+
+    public enum Outcome {
+        EXACT, FUZZY, AMBIGUOUS, NONE
+    }
+
+    /**
+     * Result of a plate lookup
+     */
+    public static final class Match {
+        private final Outcome outcome;
+        private final String plate;
+        private final double confidence;
+        private final int confusions;
+        private final List<String> candidates;
+
+        private Match(Outcome outcome, String plate, double confidence, int confusions, List<String> candidates) {
+            this.outcome = outcome;
+            this.plate = plate;
+            this.confidence = confidence;
+            this.confusions = confusions;
+            this.candidates = candidates;
+        }
+
+        static Match exact(String plate) {
+            return new Match(Outcome.EXACT, plate, 1.0, 0, List.of(plate));
+        }
+
+        static Match fuzzy(String plate, double confidence, int confusions) {
+            return new Match(Outcome.FUZZY, plate, confidence, confusions, List.of(plate));
+        }
+
+        static Match ambiguous(List<String> candidates) {
+            return new Match(Outcome.AMBIGUOUS, null, 0.0, 0, List.copyOf(candidates));
+        }
+
+        static Match none() {
+            return new Match(Outcome.NONE, null, 0.0, 0, List.of());
+        }
+
+        public boolean isMatched() {
+            return outcome == Outcome.EXACT || outcome == Outcome.FUZZY;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /** Matched normalized plate, or null if there is no unique match */
+        public String getPlate() {
+            return plate;
+        }
+
+        /** 1.0 for an exact match, lower with each confusion */
+        public double getConfidence() {
+            return confidence;
+        }
+
+        /** Characters the detection differs from the matched plate in */
+        public int getConfusions() {
+            return confusions;
+        }
+
+        public List<String> getCandidates() {
+            return candidates;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+-- Migration to store normalized license plates so gate lookups can use an index
+-- V33__Add_license_plate_normalized_columns.sql
+
+-- Canonical form: uppercase, without '-', '.', '_' and whitespace (see LicensePlateUtil.normalize)
+CREATE OR REPLACE FUNCTION normalize_license_plate(plate TEXT)
+RETURNS TEXT AS $$
+    SELECT regexp_replace(upper(plate), '[-._[:space:]]', '', 'g');
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Keep the stored column in sync for writes that bypass the application (manual SQL, imports)
+CREATE OR REPLACE FUNCTION set_vehicle_license_plate_normalized()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.license_plate_normalized = normalize_license_plate(NEW.license_plate);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION set_vehicle_log_license_plate_normalized()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.license_plate_normalized = normalize_license_plate(NEW.license_plate_number);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 1: vehicles
+ALTER TABLE vehicles ADD COLUMN license_plate_normalized VARCHAR(20);
+UPDATE vehicles SET license_plate_normalized = normalize_license_plate(license_plate);
+ALTER TABLE vehicles ALTER COLUMN license_plate_normalized SET NOT NULL;
+
+-- Plates written differently can normalize to the same value ("29A-123.45" and "29A12345").
+-- Which registration the plate belongs to is an authorization decision, so such rows are not
+-- merged here: the migration stops and lists them, to be fixed (edited or deleted) before rerunning.
+DO $$
+DECLARE
+    conflicts TEXT;
+BEGIN
+    SELECT string_agg(format('%s -> %s', d.license_plate_normalized, d.plates), E'\n')
+    INTO conflicts
+    FROM (
+        SELECT license_plate_normalized,
+               string_agg(format('%L (id %s)', license_plate, id), ', ' ORDER BY created_at, id) AS plates
+        FROM vehicles
+        GROUP BY license_plate_normalized
+        HAVING COUNT(*) > 1
+    ) d;
+
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'vehicles.license_plate values that normalize to the same plate must be resolved before V33:%', E'\n' || conflicts
+            USING HINT = 'Keep one vehicle per plate (update or delete the others), then run the migration again.';
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX uk_vehicles_license_plate_normalized ON vehicles(license_plate_normalized);
+
+CREATE TRIGGER trigger_vehicles_license_plate_normalized
+    BEFORE INSERT OR UPDATE OF license_plate ON vehicles
+    FOR EACH ROW EXECUTE FUNCTION set_vehicle_license_plate_normalized();
+
+-- Step 2: vehicle_log (latest log per plate and type is looked up on every approved gate check)
+ALTER TABLE vehicle_log ADD COLUMN license_plate_normalized VARCHAR(20);
+UPDATE vehicle_log SET license_plate_normalized = normalize_license_plate(license_plate_number);
+ALTER TABLE vehicle_log ALTER COLUMN license_plate_normalized SET NOT NULL;
+CREATE INDEX idx_vehicle_log_plate_normalized_type_time
+    ON vehicle_log(license_plate_normalized, type, entry_exit_time DESC);
+
+CREATE TRIGGER trigger_vehicle_log_license_plate_normalized
+    BEFORE INSERT OR UPDATE OF license_plate_number ON vehicle_log
+    FOR EACH ROW EXECUTE FUNCTION set_vehicle_log_license_plate_normalized();
+
+-- Add comments to the columns
+COMMENT ON COLUMN vehicles.license_plate_normalized IS 'Normalized license plate maintained on write, used for gate lookups';
+COMMENT ON COLUMN vehicle_log.license_plate_normalized IS 'Normalized license plate maintained on write, used for latest-log lookups';
@@ -0,0 +1,8 @@
+-- Migration to add an optimistic locking version to vehicles
+-- V34__Add_version_to_vehicles.sql
+
+-- Existing rows start at version 0
+ALTER TABLE vehicles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Add comment to the column
+COMMENT ON COLUMN vehicles.version IS 'Optimistic locking version, incremented on every update including gate status transitions';
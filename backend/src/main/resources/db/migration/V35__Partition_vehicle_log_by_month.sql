@@ -0,0 +1,158 @@
+-- Migration to partition vehicle_log by month on entry_exit_time
+-- V35__Partition_vehicle_log_by_month.sql
+--
+-- Every gate event appends a row, so the table only grows and almost every read is bounded by
+-- entry_exit_time. Monthly partitions let range queries skip whole months and let old months be
+-- detached or dropped instantly instead of DELETEd row by row.
+
+-- Step 1: keep the current table aside
+ALTER TABLE vehicle_log RENAME TO vehicle_log_legacy;
+ALTER TABLE vehicle_log_legacy RENAME CONSTRAINT vehicle_log_pkey TO vehicle_log_legacy_pkey;
+DROP TRIGGER IF EXISTS update_vehicle_log_updated_at ON vehicle_log_legacy;
+DROP TRIGGER IF EXISTS trigger_vehicle_log_license_plate_normalized ON vehicle_log_legacy;
+
+-- Step 2: partitioned table. The partition key has to be part of the primary key, so the key
+-- becomes (id, entry_exit_time); ids are random UUIDs and stay unique in practice.
+CREATE TABLE vehicle_log (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    license_plate_number VARCHAR(20) NOT NULL,
+    license_plate_normalized VARCHAR(20) NOT NULL,
+    vehicle_id UUID REFERENCES vehicles(id) ON DELETE SET NULL,
+    employee_id UUID REFERENCES employees(id) ON DELETE SET NULL,
+    entry_exit_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    type VARCHAR(10) NOT NULL CHECK (type IN ('entry', 'exit')),
+    vehicle_type VARCHAR(20) NOT NULL CHECK (vehicle_type IN ('internal', 'external')),
+    driver_name VARCHAR(255),
+    purpose TEXT,
+    gate_location VARCHAR(100),
+    security_guard_id UUID REFERENCES employees(id) ON DELETE SET NULL,
+    notes TEXT,
+    image_path VARCHAR(500),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, entry_exit_time)
+) PARTITION BY RANGE (entry_exit_time);
+
+-- Catches rows outside every monthly partition (e.g. back-dated imports) so inserts never fail
+CREATE TABLE vehicle_log_default PARTITION OF vehicle_log DEFAULT;
+
+-- Step 3: partition management, called from VehicleLogPartitionService
+CREATE OR REPLACE FUNCTION create_vehicle_log_partition(target_month DATE)
+RETURNS TEXT AS $$
+DECLARE
+    range_start DATE := date_trunc('month', target_month)::DATE;
+    range_end DATE := (date_trunc('month', target_month) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'vehicle_log_p' || to_char(target_month, 'YYYYMM');
+    moved_rows BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    -- A range cannot be attached while the default partition still holds rows for it
+    CREATE TEMP TABLE vehicle_log_partition_rows ON COMMIT DROP AS
+        SELECT * FROM vehicle_log_default
+        WHERE entry_exit_time >= range_start AND entry_exit_time < range_end;
+    GET DIAGNOSTICS moved_rows = ROW_COUNT;
+    IF moved_rows > 0 THEN
+        DELETE FROM vehicle_log_default
+        WHERE entry_exit_time >= range_start AND entry_exit_time < range_end;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF vehicle_log FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+
+    IF moved_rows > 0 THEN
+        EXECUTE format('INSERT INTO %I SELECT * FROM vehicle_log_partition_rows', partition_name);
+    END IF;
+    DROP TABLE vehicle_log_partition_rows;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Create partitions from from_month up to months_ahead months after the current one
+CREATE OR REPLACE FUNCTION ensure_vehicle_log_partitions(from_month DATE, months_ahead INTEGER)
+RETURNS SETOF TEXT AS $$
+DECLARE
+    current_month DATE := date_trunc('month', from_month)::DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + make_interval(months => months_ahead))::DATE;
+    created TEXT;
+BEGIN
+    WHILE current_month <= last_month LOOP
+        created := create_vehicle_log_partition(current_month);
+        IF created IS NOT NULL THEN
+            RETURN NEXT created;
+        END IF;
+        current_month := (current_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detach (and optionally drop) monthly partitions that end before the first kept month.
+-- Detached tables keep their data and can be archived or re-attached manually.
+CREATE OR REPLACE FUNCTION apply_vehicle_log_retention(keep_months INTEGER, drop_detached BOOLEAN)
+RETURNS SETOF TEXT AS $$
+DECLARE
+    cutoff DATE := (date_trunc('month', CURRENT_DATE) - make_interval(months => keep_months - 1))::DATE;
+    partition_name TEXT;
+BEGIN
+    IF keep_months < 1 THEN
+        RAISE EXCEPTION 'keep_months must be at least 1, got %', keep_months;
+    END IF;
+    FOR partition_name IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'vehicle_log'
+          AND CASE WHEN child.relname ~ '^vehicle_log_p[0-9]{6}$'
+                   THEN to_date(substring(child.relname FROM 14), 'YYYYMM') < cutoff
+                   ELSE FALSE END
+        ORDER BY child.relname
+    LOOP
+        EXECUTE format('ALTER TABLE vehicle_log DETACH PARTITION %I', partition_name);
+        IF drop_detached THEN
+            EXECUTE format('DROP TABLE %I', partition_name);
+        END IF;
+        RETURN NEXT partition_name;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 4: partitions for the existing data plus the next three months, then copy it over
+SELECT ensure_vehicle_log_partitions(
+    COALESCE((SELECT MIN(entry_exit_time) FROM vehicle_log_legacy)::DATE, CURRENT_DATE), 3);
+
+INSERT INTO vehicle_log (id, license_plate_number, license_plate_normalized, vehicle_id, employee_id,
+                         entry_exit_time, type, vehicle_type, driver_name, purpose, gate_location,
+                         security_guard_id, notes, image_path, created_at, updated_at)
+SELECT id, license_plate_number, license_plate_normalized, vehicle_id, employee_id,
+       entry_exit_time, type, vehicle_type, driver_name, purpose, gate_location,
+       security_guard_id, notes, image_path, created_at, updated_at
+FROM vehicle_log_legacy;
+
+DROP TABLE vehicle_log_legacy;
+
+-- Step 5: indexes, created on the parent so every partition gets them.
+-- BRIN on the time column: rows arrive in time order, so a few pages of summaries cover a month.
+CREATE INDEX idx_vehicle_log_entry_exit_time_brin ON vehicle_log USING BRIN (entry_exit_time) WITH (pages_per_range = 32);
+-- The b-tree stays for ORDER BY entry_exit_time DESC LIMIT n (paging), which BRIN cannot serve
+CREATE INDEX idx_vehicle_log_entry_exit_time ON vehicle_log(entry_exit_time);
+CREATE INDEX idx_vehicle_log_plate_normalized_type_time ON vehicle_log(license_plate_normalized, type, entry_exit_time DESC);
+CREATE INDEX idx_vehicle_log_license_plate ON vehicle_log(license_plate_number);
+CREATE INDEX idx_vehicle_log_vehicle_id ON vehicle_log(vehicle_id);
+CREATE INDEX idx_vehicle_log_employee_id ON vehicle_log(employee_id);
+-- type and vehicle_type have two values each; the old single-column indexes on them were not used
+
+-- Step 6: triggers
+CREATE TRIGGER update_vehicle_log_updated_at BEFORE UPDATE ON vehicle_log
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+CREATE TRIGGER trigger_vehicle_log_license_plate_normalized
+    BEFORE INSERT OR UPDATE OF license_plate_number ON vehicle_log
+    FOR EACH ROW EXECUTE FUNCTION set_vehicle_log_license_plate_normalized();
+
+COMMENT ON TABLE vehicle_log IS 'Entry/exit log, range partitioned by month on entry_exit_time (vehicle_log_pYYYYMM)';
+COMMENT ON COLUMN vehicle_log.license_plate_normalized IS 'Canonical plate maintained from license_plate_number, see normalize_license_plate()';
+COMMENT ON FUNCTION ensure_vehicle_log_partitions(DATE, INTEGER) IS 'Creates missing monthly vehicle_log partitions; run daily by the application';
+COMMENT ON FUNCTION apply_vehicle_log_retention(INTEGER, BOOLEAN) IS 'Detaches (optionally drops) vehicle_log partitions older than keep_months months';
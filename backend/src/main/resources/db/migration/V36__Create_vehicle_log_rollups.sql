@@ -0,0 +1,126 @@
+-- Migration to keep gate traffic statistics in rollup tables
+-- V36__Create_vehicle_log_rollups.sql
+--
+-- Statistics used to COUNT over raw vehicle_log rows on every request. The rollups below are
+-- maintained by a trigger on vehicle_log, so every insert path (API, gate pipeline, manual SQL)
+-- keeps them current, and statistics read one row per bucket instead of one row per event.
+-- Rollups are not touched when old partitions are detached, so history outlives retention.
+
+-- Events per hour, gate, direction and vehicle category
+CREATE TABLE vehicle_log_hourly_stats (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    gate_location VARCHAR(100) NOT NULL DEFAULT '',
+    type VARCHAR(10) NOT NULL,
+    vehicle_type VARCHAR(20) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start, gate_location, type, vehicle_type)
+);
+
+-- Plates seen per day, for unique vehicle counts (distinct counts cannot be summed from hours).
+-- Days follow the database session time zone, like DATE(entry_exit_time) did.
+CREATE TABLE vehicle_log_daily_plates (
+    day DATE NOT NULL,
+    license_plate_normalized VARCHAR(20) NOT NULL,
+    event_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, license_plate_normalized)
+);
+
+CREATE OR REPLACE FUNCTION update_vehicle_log_rollups()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+       AND NEW.entry_exit_time = OLD.entry_exit_time
+       AND NEW.gate_location IS NOT DISTINCT FROM OLD.gate_location
+       AND NEW.type = OLD.type
+       AND NEW.vehicle_type = OLD.vehicle_type
+       AND NEW.license_plate_normalized = OLD.license_plate_normalized THEN
+        RETURN NULL;
+    END IF;
+
+    -- A shared lock on each touched day until commit; rebuild_vehicle_log_rollups takes it
+    -- exclusively, so it waits only for writers of the day it recomputes
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM pg_advisory_xact_lock_shared(36, OLD.entry_exit_time::DATE - DATE '2000-01-01');
+        UPDATE vehicle_log_hourly_stats SET event_count = event_count - 1
+        WHERE bucket_start = date_trunc('hour', OLD.entry_exit_time)
+          AND gate_location = COALESCE(OLD.gate_location, '')
+          AND type = OLD.type
+          AND vehicle_type = OLD.vehicle_type;
+        UPDATE vehicle_log_daily_plates SET event_count = event_count - 1
+        WHERE day = OLD.entry_exit_time::DATE
+          AND license_plate_normalized = OLD.license_plate_normalized;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM pg_advisory_xact_lock_shared(36, NEW.entry_exit_time::DATE - DATE '2000-01-01');
+        INSERT INTO vehicle_log_hourly_stats (bucket_start, gate_location, type, vehicle_type, event_count)
+        VALUES (date_trunc('hour', NEW.entry_exit_time), COALESCE(NEW.gate_location, ''), NEW.type, NEW.vehicle_type, 1)
+        ON CONFLICT (bucket_start, gate_location, type, vehicle_type)
+        DO UPDATE SET event_count = vehicle_log_hourly_stats.event_count + 1;
+        INSERT INTO vehicle_log_daily_plates (day, license_plate_normalized, event_count)
+        VALUES (NEW.entry_exit_time::DATE, NEW.license_plate_normalized, 1)
+        ON CONFLICT (day, license_plate_normalized)
+        DO UPDATE SET event_count = vehicle_log_daily_plates.event_count + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A row moved to another partition by an UPDATE fires the DELETE and INSERT triggers instead
+CREATE TRIGGER trigger_vehicle_log_rollups
+    AFTER INSERT OR UPDATE OR DELETE ON vehicle_log
+    FOR EACH ROW EXECUTE FUNCTION update_vehicle_log_rollups();
+
+-- Recompute the rollups of whole days covering [range_start, range_end) from vehicle_log.
+-- Used for backfills and after bulk fixes; returns the number of events counted.
+-- Days whose partitions were detached by retention lose their counts, so keep ranges recent.
+-- Each day is locked until the caller commits, which blocks log writes to that day only;
+-- rebuild long ranges one day per transaction (as VehicleLogService does) to keep waits short.
+CREATE OR REPLACE FUNCTION rebuild_vehicle_log_rollups(range_start TIMESTAMP WITH TIME ZONE,
+                                                       range_end TIMESTAMP WITH TIME ZONE)
+RETURNS BIGINT AS $$
+DECLARE
+    first_day DATE := range_start::DATE;
+    end_day DATE := CASE WHEN range_end = date_trunc('day', range_end) THEN range_end::DATE
+                         ELSE range_end::DATE + 1 END;
+    counted BIGINT;
+    locked_day DATE;
+BEGIN
+    -- Waits for uncommitted writes to these days and holds new ones off until the rebuild
+    -- commits, so no event is counted twice or lost; other days are written as usual
+    FOR locked_day IN SELECT generate_series(first_day, end_day - 1, INTERVAL '1 day')::DATE LOOP
+        PERFORM pg_advisory_xact_lock(36, locked_day - DATE '2000-01-01');
+    END LOOP;
+
+    DELETE FROM vehicle_log_hourly_stats
+    WHERE bucket_start >= first_day::TIMESTAMPTZ AND bucket_start < end_day::TIMESTAMPTZ;
+    DELETE FROM vehicle_log_daily_plates
+    WHERE day >= first_day AND day < end_day;
+
+    INSERT INTO vehicle_log_hourly_stats (bucket_start, gate_location, type, vehicle_type, event_count)
+    SELECT date_trunc('hour', entry_exit_time), COALESCE(gate_location, ''), type, vehicle_type, COUNT(*)
+    FROM vehicle_log
+    WHERE entry_exit_time >= first_day::TIMESTAMPTZ AND entry_exit_time < end_day::TIMESTAMPTZ
+    GROUP BY 1, 2, 3, 4;
+
+    INSERT INTO vehicle_log_daily_plates (day, license_plate_normalized, event_count)
+    SELECT entry_exit_time::DATE, license_plate_normalized, COUNT(*)
+    FROM vehicle_log
+    WHERE entry_exit_time >= first_day::TIMESTAMPTZ AND entry_exit_time < end_day::TIMESTAMPTZ
+    GROUP BY 1, 2;
+
+    SELECT COALESCE(SUM(event_count), 0) INTO counted
+    FROM vehicle_log_hourly_stats
+    WHERE bucket_start >= first_day::TIMESTAMPTZ AND bucket_start < end_day::TIMESTAMPTZ;
+    RETURN counted;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Backfill from the existing log
+SELECT rebuild_vehicle_log_rollups(MIN(entry_exit_time), MAX(entry_exit_time) + INTERVAL '1 second')
+FROM vehicle_log
+HAVING COUNT(*) > 0;
+
+COMMENT ON TABLE vehicle_log_hourly_stats IS 'vehicle_log event counts per hour, gate, type and vehicle_type; maintained by trigger_vehicle_log_rollups';
+COMMENT ON TABLE vehicle_log_daily_plates IS 'vehicle_log event counts per day and normalized plate, for unique vehicle counts';
+COMMENT ON FUNCTION rebuild_vehicle_log_rollups(TIMESTAMP WITH TIME ZONE, TIMESTAMP WITH TIME ZONE) IS 'Recomputes the rollups of the days covering the given range from vehicle_log';
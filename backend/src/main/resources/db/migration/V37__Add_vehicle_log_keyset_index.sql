@@ -0,0 +1,7 @@
+-- Migration to support keyset paging of vehicle_log on (entry_exit_time, id)
+-- V37__Add_vehicle_log_keyset_index.sql
+
+-- Listings order by entry_exit_time DESC, id DESC; with id in the index the next page starts with
+-- an index seek and ties on entry_exit_time need no sort. Replaces the single-column index.
+DROP INDEX IF EXISTS idx_vehicle_log_entry_exit_time;
+CREATE INDEX idx_vehicle_log_entry_exit_time_id ON vehicle_log(entry_exit_time, id);
@@ -0,0 +1,13 @@
+-- Migration to deduplicate vehicle logs synced from gate PCs
+-- V38__Add_vehicle_log_client_event_id.sql
+
+-- Id assigned by the gate PC when it captured the event; a backlog resent after a timeout or
+-- a crash carries the same ids, so replays can be recognised. NULL for logs created any other way.
+ALTER TABLE vehicle_log ADD COLUMN client_event_id VARCHAR(100);
+
+-- Unique indexes on a partitioned table must contain the partition key. A resent event keeps
+-- its capture time, so (client_event_id, entry_exit_time) still identifies it, and every
+-- partition only has to check its own rows.
+CREATE UNIQUE INDEX uq_vehicle_log_client_event ON vehicle_log(client_event_id, entry_exit_time);
+
+COMMENT ON COLUMN vehicle_log.client_event_id IS 'Event id from the gate PC, used to ignore replays in bulk ingest';
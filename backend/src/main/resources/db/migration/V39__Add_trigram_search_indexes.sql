@@ -0,0 +1,24 @@
+-- Migration to index substring searches with pg_trgm
+-- V39__Add_trigram_search_indexes.sql
+--
+-- Search boxes filter with LOWER(column) LIKE '%term%'. A leading wildcard rules out btree
+-- indexes, so every search read the whole table. Trigram GIN indexes on the same LOWER(...)
+-- expressions match those predicates as written: terms of three or more characters become
+-- bitmap index scans, and ORs over several indexed columns are combined with BitmapOr.
+-- Shorter terms have no trigram to look up, and the planner falls back to a scan for them.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Vehicle log search (findWithFilters and the keyset variants); created on every partition
+CREATE INDEX idx_vehicle_log_plate_trgm ON vehicle_log USING GIN (LOWER(license_plate_number) gin_trgm_ops);
+CREATE INDEX idx_vehicle_log_driver_name_trgm ON vehicle_log USING GIN (LOWER(driver_name) gin_trgm_ops);
+
+-- Vehicle search
+CREATE INDEX idx_vehicles_license_plate_trgm ON vehicles USING GIN (LOWER(license_plate) gin_trgm_ops);
+CREATE INDEX idx_vehicles_brand_trgm ON vehicles USING GIN (LOWER(brand) gin_trgm_ops);
+CREATE INDEX idx_vehicles_model_trgm ON vehicles USING GIN (LOWER(model) gin_trgm_ops);
+
+-- Employee search (also used for the owner name in vehicle search)
+CREATE INDEX idx_employees_name_trgm ON employees USING GIN (LOWER(name) gin_trgm_ops);
+CREATE INDEX idx_employees_email_trgm ON employees USING GIN (LOWER(email) gin_trgm_ops);
+CREATE INDEX idx_employees_employee_id_trgm ON employees USING GIN (LOWER(employee_id) gin_trgm_ops);
@@ -0,0 +1,185 @@
+-- Migration to pair entries with exits into dwell intervals
+-- V40__Create_vehicle_dwell_intervals.sql
+--
+-- An interval starts with an entry and is closed by the next event of the same normalized plate
+-- if that is an exit. Pairing runs in a trigger on vehicle_log, one row at a time as events
+-- arrive, so dwell statistics aggregate stored intervals instead of re-pairing the raw log on
+-- every request. "Next" is by entry_exit_time, not arrival, so backlogs synced late and out of
+-- order by gate PCs pair the same as live events.
+-- Department and vehicle type are copied when the vehicle enters, so later edits to the
+-- employee or vehicle do not rewrite history.
+
+CREATE TABLE vehicle_dwell_intervals (
+    id BIGSERIAL PRIMARY KEY,
+    license_plate_normalized VARCHAR(20) NOT NULL,
+    license_plate_number VARCHAR(20) NOT NULL,
+    vehicle_id UUID,
+    employee_id UUID,
+    department VARCHAR(100),
+    vehicle_type VARCHAR(20),
+    vehicle_category VARCHAR(20) NOT NULL,
+    entry_log_id UUID NOT NULL,
+    entry_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    entry_gate VARCHAR(100),
+    exit_log_id UUID,
+    exit_time TIMESTAMP WITH TIME ZONE,
+    exit_gate VARCHAR(100),
+    -- open: still inside; closed: paired with an exit; abandoned: a later entry came first (exit not logged)
+    status VARCHAR(10) NOT NULL DEFAULT 'open' CHECK (status IN ('open', 'closed', 'abandoned')),
+    dwell_seconds BIGINT GENERATED ALWAYS AS (EXTRACT(EPOCH FROM (exit_time - entry_time))::BIGINT) STORED
+);
+
+CREATE INDEX idx_vehicle_dwell_intervals_open ON vehicle_dwell_intervals(license_plate_normalized, entry_time)
+    WHERE status = 'open';
+CREATE INDEX idx_vehicle_dwell_intervals_entry_time ON vehicle_dwell_intervals(entry_time);
+
+-- Neighbour lookups of the pairing trigger
+CREATE INDEX idx_vehicle_log_plate_normalized_time_id ON vehicle_log(license_plate_normalized, entry_exit_time, id);
+
+-- Set the interval of one entry from the event that follows it for the same plate:
+-- closed by an exit, abandoned by another entry (exit not logged), open if there is none yet.
+-- Updates the interval in place if it exists, so its department and vehicle type are kept.
+CREATE OR REPLACE FUNCTION pair_vehicle_dwell_entry(entry_id UUID, entry_at TIMESTAMP WITH TIME ZONE,
+                                                    plate VARCHAR)
+RETURNS VOID AS $$
+DECLARE
+    next_type VARCHAR(10);
+    next_id UUID;
+    next_time TIMESTAMP WITH TIME ZONE;
+    next_gate VARCHAR(100);
+    next_status VARCHAR(10);
+BEGIN
+    SELECT type, id, entry_exit_time, gate_location INTO next_type, next_id, next_time, next_gate
+    FROM vehicle_log
+    WHERE license_plate_normalized = plate
+      AND (entry_exit_time, id) > (entry_at, entry_id)
+    ORDER BY entry_exit_time, id
+    LIMIT 1;
+
+    IF next_type IS DISTINCT FROM 'exit' THEN
+        next_id := NULL;
+        next_time := NULL;
+        next_gate := NULL;
+    END IF;
+    next_status := CASE next_type WHEN 'exit' THEN 'closed' WHEN 'entry' THEN 'abandoned' ELSE 'open' END;
+
+    UPDATE vehicle_dwell_intervals
+    SET exit_log_id = next_id, exit_time = next_time, exit_gate = next_gate, status = next_status
+    WHERE entry_log_id = entry_id;
+
+    IF NOT FOUND THEN
+        INSERT INTO vehicle_dwell_intervals (license_plate_normalized, license_plate_number, vehicle_id, employee_id,
+                                             department, vehicle_type, vehicle_category, entry_log_id, entry_time,
+                                             entry_gate, exit_log_id, exit_time, exit_gate, status)
+        SELECT vl.license_plate_normalized, vl.license_plate_number, vl.vehicle_id, vl.employee_id,
+               (SELECT department FROM employees WHERE id = vl.employee_id),
+               (SELECT vehicle_type FROM vehicles WHERE id = vl.vehicle_id),
+               vl.vehicle_type, vl.id, vl.entry_exit_time, vl.gate_location,
+               next_id, next_time, next_gate, next_status
+        FROM vehicle_log vl
+        WHERE vl.id = entry_id AND vl.entry_exit_time = entry_at;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A new event only changes its own interval (if an entry) and the interval of the event just
+-- before it (if an entry), which is now followed by the new event instead.
+CREATE OR REPLACE FUNCTION pair_vehicle_log_dwell()
+RETURNS TRIGGER AS $$
+DECLARE
+    previous_type VARCHAR(10);
+    previous_id UUID;
+    previous_time TIMESTAMP WITH TIME ZONE;
+BEGIN
+    -- Serializes pairing per plate, so two concurrent events of one plate each see the other
+    PERFORM pg_advisory_xact_lock(40, hashtext(NEW.license_plate_normalized));
+
+    IF NEW.type = 'entry' THEN
+        PERFORM pair_vehicle_dwell_entry(NEW.id, NEW.entry_exit_time, NEW.license_plate_normalized);
+    END IF;
+
+    SELECT type, id, entry_exit_time INTO previous_type, previous_id, previous_time
+    FROM vehicle_log
+    WHERE license_plate_normalized = NEW.license_plate_normalized
+      AND (entry_exit_time, id) < (NEW.entry_exit_time, NEW.id)
+    ORDER BY entry_exit_time DESC, id DESC
+    LIMIT 1;
+
+    IF previous_type = 'entry' THEN
+        PERFORM pair_vehicle_dwell_entry(previous_id, previous_time, NEW.license_plate_normalized);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Inserts only: edited or deleted logs are fixed with the rebuild below
+CREATE TRIGGER trigger_vehicle_log_dwell
+    AFTER INSERT ON vehicle_log
+    FOR EACH ROW EXECUTE FUNCTION pair_vehicle_log_dwell();
+
+-- Re-pair the entries in [range_start, range_end) from vehicle_log, with the same rule as the
+-- trigger applied in time order: an entry is closed by the next event of its plate if that is
+-- an exit, abandoned if it is another entry, and open if there is none yet.
+-- Returns the number of intervals written.
+-- Only the plates with events or intervals in the range are locked, until the caller commits;
+-- rebuild long ranges one day per transaction (as DwellTimeService does) to keep waits short.
+CREATE OR REPLACE FUNCTION rebuild_vehicle_dwell_intervals(range_start TIMESTAMP WITH TIME ZONE,
+                                                           range_end TIMESTAMP WITH TIME ZONE)
+RETURNS BIGINT AS $$
+DECLARE
+    plates VARCHAR[];
+    written BIGINT;
+BEGIN
+    SELECT COALESCE(array_agg(plate ORDER BY plate COLLATE "C"), '{}') INTO plates
+    FROM (SELECT license_plate_normalized AS plate FROM vehicle_log
+          WHERE entry_exit_time >= range_start AND entry_exit_time < range_end
+          UNION
+          SELECT license_plate_normalized FROM vehicle_dwell_intervals
+          WHERE entry_time >= range_start AND entry_time < range_end) p;
+
+    -- The pairing trigger's per-plate lock: waits for uncommitted events of these plates and
+    -- holds new ones off until the rebuild commits, so no event is paired twice or lost.
+    -- Taken in plate order, the order bulk ingest inserts in, so the two cannot deadlock.
+    -- A plate whose first event in the range arrives meanwhile is left to the trigger.
+    PERFORM pg_advisory_xact_lock(40, hashtext(plate)) FROM unnest(plates) AS plate;
+
+    DELETE FROM vehicle_dwell_intervals
+    WHERE entry_time >= range_start AND entry_time < range_end
+      AND license_plate_normalized = ANY (plates);
+
+    INSERT INTO vehicle_dwell_intervals (license_plate_normalized, license_plate_number, vehicle_id, employee_id,
+                                         department, vehicle_type, vehicle_category, entry_log_id, entry_time,
+                                         entry_gate, exit_log_id, exit_time, exit_gate, status)
+    SELECT ev.license_plate_normalized, ev.license_plate_number, ev.vehicle_id, ev.employee_id,
+           e.department, v.vehicle_type, ev.vehicle_type, ev.id, ev.entry_exit_time, ev.gate_location,
+           CASE WHEN ev.next_type = 'exit' THEN ev.next_id END,
+           CASE WHEN ev.next_type = 'exit' THEN ev.next_time END,
+           CASE WHEN ev.next_type = 'exit' THEN ev.next_gate END,
+           CASE ev.next_type WHEN 'exit' THEN 'closed' WHEN 'entry' THEN 'abandoned' ELSE 'open' END
+    FROM (
+        SELECT vl.*,
+               LEAD(vl.type) OVER w AS next_type,
+               LEAD(vl.id) OVER w AS next_id,
+               LEAD(vl.entry_exit_time) OVER w AS next_time,
+               LEAD(vl.gate_location) OVER w AS next_gate
+        FROM vehicle_log vl
+        WHERE vl.entry_exit_time >= range_start
+          AND vl.license_plate_normalized = ANY (plates)
+        WINDOW w AS (PARTITION BY vl.license_plate_normalized ORDER BY vl.entry_exit_time, vl.id)
+    ) ev
+    LEFT JOIN employees e ON e.id = ev.employee_id
+    LEFT JOIN vehicles v ON v.id = ev.vehicle_id
+    WHERE ev.type = 'entry' AND ev.entry_exit_time < range_end;
+
+    GET DIAGNOSTICS written = ROW_COUNT;
+    RETURN written;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Backfill from the existing log
+SELECT rebuild_vehicle_dwell_intervals(MIN(entry_exit_time), MAX(entry_exit_time) + INTERVAL '1 second')
+FROM vehicle_log
+HAVING COUNT(*) > 0;
+
+COMMENT ON TABLE vehicle_dwell_intervals IS 'Entry/exit pairs per normalized plate; maintained by trigger_vehicle_log_dwell';
+COMMENT ON FUNCTION rebuild_vehicle_dwell_intervals(TIMESTAMP WITH TIME ZONE, TIMESTAMP WITH TIME ZONE) IS 'Re-pairs the entries in the given range from vehicle_log';
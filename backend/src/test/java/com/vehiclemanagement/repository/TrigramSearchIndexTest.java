@@ -0,0 +1,219 @@
+package com.vehiclemanagement.repository;
+
+import com.vehiclemanagement.PostgresTestBase;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks with EXPLAIN that the SQL Hibernate renders for the search repository methods can be
+ * answered from the V39 trigram indexes.
+ *
+ * Each statement is captured as sent, prepared on a separate connection and explained with
+ * plan_cache_mode = force_generic_plan, the plan PostgreSQL may switch a statement to after a
+ * few executions, where parameter values are unknown to the planner. Inside a rolled-back
+ * transaction the other indexes of the searched tables are dropped and sequential scans are
+ * disabled, so the plan shows whether a trigram index can serve the query at all rather than
+ * which index the planner prefers for an empty table.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(TrigramSearchIndexTest.Recording.class)
+class TrigramSearchIndexTest extends PostgresTestBase {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 12, 31, 23, 59);
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class Recording {
+        @Bean
+        HibernatePropertiesCustomizer statementRecorder() {
+            StatementInspector inspector = sql -> {
+                statements.add(sql);
+                return sql;
+            };
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    @Autowired
+    private VehicleLogRepository vehicleLogRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void clearStatements() {
+        statements.clear();
+    }
+
+    @Test
+    void testLogSearchPageUsesPlateIndex() throws SQLException {
+        vehicleLogRepository.findWithFilters("76m5", null, null, null, FROM, TO, PageRequest.of(0, 20));
+        String plan = explainGeneric(recorded("from vehicle_log"), "vehicle_log");
+
+        assertTrue(usesTrigramIndex(plan, "license_plate_number"), plan);
+        assertFalse(plan.contains("Seq Scan on vehicle_log"), plan);
+    }
+
+    @Test
+    void testLogSearchCountUsesDriverNameIndex() throws SQLException {
+        vehicleLogRepository.countWithFilters(null, null, null, "nguyen", FROM, TO);
+        String plan = explainGeneric(recorded("count("), "vehicle_log");
+
+        assertTrue(usesTrigramIndex(plan, "driver_name"), plan);
+        assertFalse(plan.contains("Seq Scan on vehicle_log"), plan);
+    }
+
+    @Test
+    void testLogKeysetPageUsesPlateIndex() throws SQLException {
+        vehicleLogRepository.findPageBefore("76m5", null, null, null, FROM, TO,
+                TO.plusSeconds(1), new UUID(0, 0), PageRequest.of(0, 21));
+        String plan = explainGeneric(recorded("from vehicle_log"), "vehicle_log");
+
+        assertTrue(usesTrigramIndex(plan, "license_plate_number"), plan);
+        assertFalse(plan.contains("Seq Scan on vehicle_log"), plan);
+    }
+
+    @Test
+    void testVehicleSearchUsesTrigramIndexes() throws SQLException {
+        vehicleRepository.findBySearchTerm("toyota", PageRequest.of(0, 20));
+        String plan = explainGeneric(recorded("union"), "vehicles", "employees");
+
+        // Only the LIKE branches are checked; the IN/UNION joins lose their btree indexes here
+        assertTrue(plan.contains("idx_vehicles_license_plate_trgm"), plan);
+        assertTrue(plan.contains("idx_vehicles_brand_trgm"), plan);
+        assertTrue(plan.contains("idx_vehicles_model_trgm"), plan);
+        assertTrue(plan.contains("idx_employees_name_trgm"), plan);
+    }
+
+    @Test
+    void testEmployeeSearchUsesTrigramIndexes() throws SQLException {
+        employeeRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrEmployeeIdContainingIgnoreCaseWithVehicleType(
+                "tran", "tran", "tran", PageRequest.of(0, 20));
+        String plan = explainGeneric(recorded("from employees"), "employees");
+
+        assertTrue(plan.contains("BitmapOr"), plan);
+        assertTrue(plan.contains("idx_employees_name_trgm"), plan);
+        assertTrue(plan.contains("idx_employees_email_trgm"), plan);
+        assertTrue(plan.contains("idx_employees_employee_id_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on employees"), plan);
+    }
+
+    // First statement sent that contains the fragment; content queries run before their count
+    private static String recorded(String fragment) {
+        return statements.stream()
+                .filter(sql -> sql.toLowerCase().contains(fragment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statement containing '" + fragment + "' in " + statements));
+    }
+
+    // Partition indexes are named by PostgreSQL, so they are recognised by their condition
+    private static boolean usesTrigramIndex(String plan, String column) {
+        return Pattern.compile("Index Cond: \\(lower\\(\\((\\w+\\.)?" + column + "\\)::text\\) ~~").matcher(plan).find();
+    }
+
+    private static String explainGeneric(String sql, String... searchedTables) throws SQLException {
+        String prepared = numberParameters(sql);
+        long parameterCount = sql.chars().filter(c -> c == '?').count();
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            try {
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("SET LOCAL enable_seqscan = off");
+                for (String table : searchedTables) {
+                    dropIndexesExceptTrigram(statement, table);
+                }
+                statement.execute("PREPARE search AS " + prepared);
+                // A generic plan does not depend on the values, so NULLs stand in for all of them
+                List<String> arguments = new ArrayList<>();
+                for (int i = 0; i < parameterCount; i++) {
+                    arguments.add("NULL");
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery(
+                        "EXPLAIN EXECUTE search" + (arguments.isEmpty() ? "" : "(" + String.join(", ", arguments) + ")"))) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private static void dropIndexesExceptTrigram(Statement statement, String table) throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (ResultSet constraints = statement.executeQuery("SELECT conname FROM pg_constraint " +
+                "WHERE conrelid = '" + table + "'::regclass AND contype IN ('p', 'u')")) {
+            while (constraints.next()) {
+                ddl.add("ALTER TABLE " + table + " DROP CONSTRAINT " + constraints.getString(1) + " CASCADE");
+            }
+        }
+        ddl.forEach(sql -> execute(statement, sql));
+        ddl.clear();
+        try (ResultSet indexes = statement.executeQuery("SELECT indexname FROM pg_indexes " +
+                "WHERE schemaname = current_schema() AND tablename = '" + table + "' " +
+                "AND indexdef NOT LIKE '%gin_trgm_ops%'")) {
+            while (indexes.next()) {
+                ddl.add("DROP INDEX " + indexes.getString(1) + " CASCADE");
+            }
+        }
+        ddl.forEach(sql -> execute(statement, sql));
+    }
+
+    private static void execute(Statement statement, String sql) {
+        try {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(sql, e);
+        }
+    }
+
+    // JDBC placeholders to the $n form PREPARE expects; the rendered SQL has no '?' in literals
+    private static String numberParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        int next = 1;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                result.append('$').append(next++);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.vehiclemanagement.repository;
+
+import com.vehiclemanagement.PostgresTestBase;
+import com.vehiclemanagement.entity.VehicleDwellInterval;
+import com.vehiclemanagement.entity.VehicleLog;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inserts the events of one plate in a different order than they happened, the way a gate PC
+ * syncs its offline backlog, and checks the trigger pairs them as if they had arrived in time
+ * order, i.e. the same as rebuild_vehicle_dwell_intervals.
+ */
+@DataJpaTest
+class VehicleDwellPairingTest extends PostgresTestBase {
+
+    private static final String PLATE = "51K-888.01";
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 6, 0, 0);
+
+    @Autowired
+    private VehicleLogRepository vehicleLogRepository;
+
+    @Autowired
+    private VehicleDwellIntervalRepository dwellIntervalRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testOutOfOrderEventsPairByTime() {
+        Map<String, UUID> logs = new HashMap<>();
+        // In time order: entry 08:00, entry 08:30, exit 09:00, entry 09:30, exit 10:00, entry 12:00
+        for (String event : List.of("exit 10:00", "entry 08:00", "entry 12:00", "exit 09:00", "entry 09:30", "entry 08:30")) {
+            logs.put(event, insert(event));
+        }
+
+        List<String> expected = List.of(
+                "entry 08:00 abandoned",
+                "entry 08:30 closed " + logs.get("exit 09:00"),
+                "entry 09:30 closed " + logs.get("exit 10:00"),
+                "entry 12:00 open");
+        assertEquals(expected, intervals(logs));
+
+        entityManager.clear();
+        dwellIntervalRepository.rebuild(DAY, DAY.plusDays(1));
+        assertEquals(expected, intervals(logs));
+    }
+
+    private UUID insert(String event) {
+        String[] parts = event.split(" ");
+        String[] time = parts[1].split(":");
+        VehicleLog vehicleLog = vehicleLogRepository.saveAndFlush(VehicleLog.builder()
+                .licensePlateNumber(PLATE)
+                .entryExitTime(DAY.withHour(Integer.parseInt(time[0])).withMinute(Integer.parseInt(time[1])))
+                .type(VehicleLog.LogType.valueOf(parts[0]))
+                .vehicleType(VehicleLog.VehicleCategory.external)
+                .gateLocation("Main Gate")
+                .build());
+        return vehicleLog.getId();
+    }
+
+    private List<String> intervals(Map<String, UUID> logs) {
+        Map<UUID, String> events = logs.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+        String plate = LicensePlateUtil.normalize(PLATE);
+        return dwellIntervalRepository.findAll().stream()
+                .filter(interval -> plate.equals(interval.getLicensePlateNormalized()))
+                .sorted(Comparator.comparing(VehicleDwellInterval::getEntryTime))
+                .map(interval -> events.get(interval.getEntryLogId()) + " " + interval.getStatus()
+                        + (interval.getExitLogId() != null ? " " + interval.getExitLogId() : ""))
+                .collect(Collectors.toList());
+    }
+}
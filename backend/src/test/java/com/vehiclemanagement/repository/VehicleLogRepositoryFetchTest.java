@@ -0,0 +1,154 @@
+package com.vehiclemanagement.repository;
+
+import com.vehiclemanagement.PostgresTestBase;
+import com.vehiclemanagement.entity.Employee;
+import com.vehiclemanagement.entity.Vehicle;
+import com.vehiclemanagement.entity.VehicleLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements Hibernate prepares for a page of logs, including reading every
+ * association VehicleLogService.convertToDto reads. Each log of the fixture has its own
+ * vehicle and owner, so lazy loading per row would show up as dozens of extra selects.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class VehicleLogRepositoryFetchTest extends PostgresTestBase {
+
+    private static final int LOG_COUNT = 30;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private VehicleLogRepository vehicleLogRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now().withNano(0);
+        Employee guard = employee("guard");
+        for (int i = 0; i < LOG_COUNT; i++) {
+            Employee owner = employee("owner-" + i);
+            Vehicle vehicle = Vehicle.builder()
+                    .employee(owner)
+                    .licensePlate("29A-" + (10000 + i))
+                    .vehicleType(Vehicle.VehicleType.car)
+                    .brand("Toyota")
+                    .registrationDate(LocalDate.now())
+                    .build();
+            entityManager.persist(vehicle);
+            entityManager.persist(VehicleLog.builder()
+                    .licensePlateNumber(vehicle.getLicensePlate())
+                    .vehicle(vehicle)
+                    .employee(owner)
+                    .securityGuard(guard)
+                    .entryExitTime(now.minusMinutes(i))
+                    .type(i % 2 == 0 ? VehicleLog.LogType.entry : VehicleLog.LogType.exit)
+                    .vehicleType(VehicleLog.VehicleCategory.internal)
+                    .gateLocation("Main Gate")
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindAllPageFetchesAssociationsWithLogs() {
+        Page<VehicleLog> page = vehicleLogRepository.findAll(
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "entryExitTime")));
+        readAssociations(page.getContent());
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(LOG_COUNT, page.getTotalElements());
+        // Page select and count
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testDateRangePageFetchesAssociationsWithLogs() {
+        Page<VehicleLog> page = vehicleLogRepository.findByEntryExitTimeRange(
+                now.minusDays(1), now.plusMinutes(1), PageRequest.of(0, PAGE_SIZE));
+        readAssociations(page.getContent());
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(LOG_COUNT, page.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearchPageFetchesAssociationsWithLogs() {
+        Page<VehicleLog> page = vehicleLogRepository.findWithFilters(
+                "29a", VehicleLog.LogType.entry, null, null, now.minusDays(1), now, PageRequest.of(0, 10));
+        readAssociations(page.getContent());
+
+        assertEquals(10, page.getContent().size());
+        assertEquals(LOG_COUNT / 2, page.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testKeysetPageFetchesAssociationsWithLogs() {
+        List<VehicleLog> rows = vehicleLogRepository.findPageBefore(null, null, null, null,
+                now.minusDays(1), now, now.plusSeconds(1), new UUID(0, 0), PageRequest.of(0, PAGE_SIZE + 1));
+        readAssociations(rows);
+
+        assertEquals(PAGE_SIZE + 1, rows.size());
+        // No count query for keyset pages
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Employee employee(String key) {
+        Employee employee = Employee.builder()
+                .employeeId("EMP-" + key)
+                .name("Nhân viên " + key)
+                .email(key + "@example.com")
+                .department("Phòng hành chính")
+                .hireDate(LocalDate.now())
+                .build();
+        entityManager.persist(employee);
+        return employee;
+    }
+
+    // The same reads as VehicleLogService.convertToDto
+    private static void readAssociations(List<VehicleLog> logs) {
+        List<String> values = new ArrayList<>();
+        for (VehicleLog log : logs) {
+            assertTrue(Hibernate.isInitialized(log.getVehicle()));
+            assertTrue(Hibernate.isInitialized(log.getEmployee()));
+            assertTrue(Hibernate.isInitialized(log.getSecurityGuard()));
+            values.add(log.getVehicle().getBrand());
+            values.add(log.getEmployee().getName());
+            values.add(log.getEmployee().getDepartment());
+            values.add(log.getSecurityGuard().getName());
+        }
+        assertFalse(values.contains(null));
+    }
+}
@@ -0,0 +1,221 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.PostgresTestBase;
+import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.entity.VehicleLog;
+import com.vehiclemanagement.repository.VehicleLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A full lane makes the submitter wait instead of handling the event itself, so events of
+ * one plate keep their order, but only up to the max wait; an access log whose insert keeps
+ * failing, or that could not be queued in time, goes to the dead letter file rather than
+ * being dropped.
+ */
+@DataJpaTest(properties = {
+        "gate.pipeline.lanes=1",
+        "gate.pipeline.queue-capacity=1",
+        "gate.pipeline.offer-timeout-ms=50",
+        "gate.pipeline.max-wait-ms=1500",
+        "gate.pipeline.log-retry-attempts=2",
+        "gate.pipeline.log-retry-backoff-ms=10"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({GateEventPipeline.class, VehicleLogService.class, GateCheckMetrics.class, GateEventPipelineOverflowTest.Metrics.class})
+@DirtiesContext
+class GateEventPipelineOverflowTest extends PostgresTestBase {
+
+    private static final Path deadLetterFile = tempDirectory().resolve("gate-events.jsonl");
+
+    @DynamicPropertySource
+    static void deadLetters(DynamicPropertyRegistry registry) {
+        registry.add("gate.pipeline.dead-letter-file", deadLetterFile::toString);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private WebSocketService webSocketService;
+
+    @MockBean
+    private OccupancyTracker occupancyTracker;
+
+    @MockBean
+    private VehicleLogStream vehicleLogStream;
+
+    @Autowired
+    private GateEventPipeline gateEventPipeline;
+
+    @Autowired
+    private VehicleLogRepository vehicleLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testFullLaneKeepsPlateOrder() throws Exception {
+        String plate = "51K-999.01";
+        CountDownLatch firstNotified = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> notified = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            notified.add(invocation.getArgument(2));
+            firstNotified.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(webSocketService).sendVehicleCheckMessage(eq(plate), anyString(), anyString());
+
+        try {
+            // The lane thread is held on the first event and the second fills the queue
+            submit(plate, VehicleLog.LogType.entry, "1");
+            assertTrue(firstNotified.await(10, TimeUnit.SECONDS));
+            submit(plate, VehicleLog.LogType.exit, "2");
+
+            ExecutorService submitter = Executors.newSingleThreadExecutor();
+            Future<?> third = submitter.submit(() -> submit(plate, VehicleLog.LogType.entry, "3"));
+            // Still waiting for room well past the offer timeout, and counted as overflow
+            assertThrows(TimeoutException.class, () -> third.get(300, TimeUnit.MILLISECONDS));
+            assertEquals(1.0, meterRegistry.counter("gate.pipeline.overflow").count());
+
+            release.countDown();
+            third.get(10, TimeUnit.SECONDS);
+            submitter.shutdown();
+        } finally {
+            release.countDown();
+        }
+
+        waitFor(() -> notified.size() == 3);
+        assertEquals(List.of("1", "2", "3"), notified);
+        // Each log is inserted before its monitor message, so the logs went in in the same order
+        assertEquals(3, vehicleLogRepository.findByLicensePlateNumber(plate).size());
+    }
+
+    @Test
+    void testFailedLogInsertGoesToDeadLetterFile() throws Exception {
+        // Longer than vehicle_log.license_plate_number, so every insert attempt fails
+        String plate = "51K-999.02-UNREADABLE-OCR";
+        double deadLettersBefore = meterRegistry.counter("gate.pipeline.dead-letters").count();
+        submit(plate, VehicleLog.LogType.entry, "dead letter");
+
+        waitFor(() -> meterRegistry.counter("gate.pipeline.dead-letters").count() == deadLettersBefore + 1);
+        assertEquals(1, deadLetters(plate).size());
+        // Monitors are still told about the decision
+        verify(webSocketService).sendVehicleCheckMessage(plate, "entry", "dead letter");
+    }
+
+    @Test
+    void testLaneFullPastMaxWaitGoesToDeadLetterFile() throws Exception {
+        String plate = "51K-999.03";
+        CountDownLatch firstNotified = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> notified = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            notified.add(invocation.getArgument(2));
+            firstNotified.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(webSocketService).sendVehicleCheckMessage(eq(plate), anyString(), anyString());
+        double deadLettersBefore = meterRegistry.counter("gate.pipeline.dead-letters").count();
+
+        try {
+            submit(plate, VehicleLog.LogType.entry, "1");
+            assertTrue(firstNotified.await(10, TimeUnit.SECONDS));
+            submit(plate, VehicleLog.LogType.exit, "2");
+
+            // The lane is still held, yet the submitter returns once the max wait is over
+            long start = System.nanoTime();
+            submit(plate, VehicleLog.LogType.entry, "3");
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(waitedMs >= 1400 && waitedMs < 5000, "Waited " + waitedMs + " ms");
+            assertEquals(deadLettersBefore + 1, meterRegistry.counter("gate.pipeline.dead-letters").count());
+            List<String> lines = deadLetters(plate);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).contains("\"type\":\"entry\""), lines.get(0));
+        } finally {
+            release.countDown();
+        }
+
+        waitFor(() -> notified.size() == 2);
+        assertEquals(List.of("1", "2"), notified);
+        waitFor(() -> vehicleLogRepository.findByLicensePlateNumber(plate).size() == 2);
+    }
+
+    private void submit(String plate, VehicleLog.LogType type, String message) {
+        VehicleLogDto logEntry = VehicleLogDto.builder()
+                .licensePlateNumber(plate)
+                .entryExitTime(LocalDateTime.now())
+                .type(type)
+                .vehicleType(VehicleLog.VehicleCategory.external)
+                .gateLocation("Main Gate")
+                .build();
+        GateDecision decision = GateDecision.rejected(GateDecision.Outcome.NOT_FOUND, plate, type.name(), message);
+        // Without a transaction the event is submitted right away
+        gateEventPipeline.submitAfterCommit(decision, logEntry);
+    }
+
+    private static List<String> deadLetters(String plate) throws IOException {
+        if (!Files.exists(deadLetterFile)) {
+            return List.of();
+        }
+        return Files.readAllLines(deadLetterFile).stream()
+                .filter(line -> line.contains("\"" + plate + "\""))
+                .collect(Collectors.toList());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the pipeline");
+            Thread.sleep(20);
+        }
+    }
+
+    private static Path tempDirectory() {
+        try {
+            return Files.createTempDirectory("gate-dead-letters");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
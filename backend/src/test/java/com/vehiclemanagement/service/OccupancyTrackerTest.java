@@ -0,0 +1,136 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.OccupancyDto;
+import com.vehiclemanagement.entity.VehicleLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyTrackerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 8, 0);
+
+    private OccupancyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new OccupancyTracker();
+        // Keeps the fixed test times inside the window replace() applies
+        ReflectionTestUtils.setField(tracker, "rebuildLookbackDays", 36500);
+    }
+
+    @Test
+    void testEntryAndExitAreCountedPerGateAndCategory() {
+        entry("30A12345", "Cổng chính", VehicleLog.VehicleCategory.internal, NOW);
+        entry("29B42023", "Cổng chính", VehicleLog.VehicleCategory.external, NOW);
+        entry("76M51443", "Cổng sau", VehicleLog.VehicleCategory.internal, NOW);
+        exit("29B42023", "Cổng sau", NOW.plusMinutes(5));
+
+        OccupancyDto occupancy = tracker.getOccupancy();
+
+        assertEquals(2, occupancy.getTotal());
+        assertEquals(2, occupancy.getInternal());
+        assertEquals(0, occupancy.getExternal());
+        assertEquals(2, occupancy.getGates().size());
+        assertEquals(1, occupancy.getGates().get(0).getInternal());
+        assertTrue(tracker.findPresentVehicle("30A-123.45").isPresent());
+        assertTrue(tracker.findPresentVehicle("29B42023").isEmpty());
+    }
+
+    @Test
+    void testRepeatedEntryMovesVehicleInsteadOfCountingTwice() {
+        entry("30A12345", "Cổng chính", VehicleLog.VehicleCategory.internal, NOW);
+        entry("30A12345", "Cổng sau", VehicleLog.VehicleCategory.internal, NOW.plusMinutes(1));
+
+        OccupancyDto occupancy = tracker.getOccupancy();
+
+        assertEquals(1, occupancy.getTotal());
+        assertEquals("Cổng sau", occupancy.getGates().get(0).getGateLocation());
+    }
+
+    @Test
+    void testEventsOlderThanTheLastKnownOneAreIgnored() {
+        exit("30A12345", "Cổng chính", NOW);
+        entry("30A12345", "Cổng chính", VehicleLog.VehicleCategory.internal, NOW.minusHours(1));
+
+        assertEquals(0, tracker.getOccupancy().getTotal());
+        assertTrue(tracker.getPresentVehicles(null).isEmpty());
+    }
+
+    @Test
+    void testConcurrentEventsKeepCountsConsistent() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String plate = "30A" + i;
+            executor.submit(() -> {
+                entry(plate, "Cổng chính", VehicleLog.VehicleCategory.internal, NOW);
+                exit(plate, "Cổng chính", NOW.plusMinutes(1));
+                entry(plate, "Cổng chính", VehicleLog.VehicleCategory.internal, NOW.plusMinutes(2));
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1000, tracker.getOccupancy().getTotal());
+        assertEquals(1000, tracker.getPresentVehicles("Cổng chính").size());
+    }
+
+    @Test
+    void testDeletingTheLastEventFallsBackToTheEventBefore() {
+        exit("30A12345", "Cổng chính", NOW.minusHours(1));
+        entry("30A12345", "Cổng chính", VehicleLog.VehicleCategory.internal, NOW);
+        assertEquals(1, tracker.getOccupancy().getTotal());
+
+        // The entry was deleted; the latest remaining log is the earlier exit
+        tracker.replace("30A12345", log(VehicleLog.LogType.exit, NOW.minusHours(1)));
+
+        assertEquals(0, tracker.getOccupancy().getTotal());
+        assertTrue(tracker.findPresentVehicle("30A12345").isEmpty());
+    }
+
+    @Test
+    void testDeletingTheOnlyEventForgetsThePlate() {
+        entry("30A12345", "Cổng chính", VehicleLog.VehicleCategory.internal, NOW);
+
+        tracker.replace("30A12345", null);
+
+        assertEquals(0, tracker.getOccupancy().getTotal());
+        assertTrue(tracker.getPresentVehicles(null).isEmpty());
+    }
+
+    @Test
+    void testEditedTypeIsApplied() {
+        exit("30A12345", "Cổng chính", NOW);
+
+        // The exit was a misread entry and has been corrected
+        tracker.replace("30A12345", log(VehicleLog.LogType.entry, NOW));
+
+        assertEquals(1, tracker.getOccupancy().getTotal());
+        assertTrue(tracker.findPresentVehicle("30A12345").isPresent());
+    }
+
+    private static VehicleLog log(VehicleLog.LogType type, LocalDateTime time) {
+        return VehicleLog.builder()
+                .licensePlateNumber("30A12345")
+                .type(type)
+                .vehicleType(VehicleLog.VehicleCategory.internal)
+                .gateLocation("Cổng chính")
+                .entryExitTime(time)
+                .build();
+    }
+
+    private void entry(String plate, String gate, VehicleLog.VehicleCategory category, LocalDateTime time) {
+        tracker.record(plate, plate, VehicleLog.LogType.entry, category, gate, time);
+    }
+
+    private void exit(String plate, String gate, LocalDateTime time) {
+        tracker.record(plate, plate, VehicleLog.LogType.exit, VehicleLog.VehicleCategory.internal, gate, time);
+    }
+}
@@ -0,0 +1,77 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.entity.Vehicle;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Updates from concurrent transactions reach the index in any order; the older one must not win.
+ * Without a transaction the after-commit updates apply immediately.
+ */
+class VehicleAccessIndexTest {
+
+    private static final String PLATE = "30A-555.55";
+
+    private VehicleAccessIndex vehicleAccessIndex;
+    private UUID vehicleId;
+
+    @BeforeEach
+    void setUp() {
+        vehicleAccessIndex = new VehicleAccessIndex();
+        vehicleId = UUID.randomUUID();
+        vehicleAccessIndex.put(vehicle(Vehicle.VehicleStatus.approved, 3L));
+    }
+
+    @Test
+    void testOlderStatusUpdateIsDropped() {
+        // The nightly reset wrote version 3, the admin approval version 4, but the reset's callback runs last
+        vehicleAccessIndex.updateStatus(vehicleId, Vehicle.VehicleStatus.approved, 4L);
+        vehicleAccessIndex.updateStatus(vehicleId, Vehicle.VehicleStatus.rejected, 3L);
+
+        assertEquals(Vehicle.VehicleStatus.approved, status());
+        assertEquals(4L, vehicleAccessIndex.find(normalized()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testOlderPutIsDropped() {
+        vehicleAccessIndex.updateStatus(vehicleId, Vehicle.VehicleStatus.rejected, 5L);
+        vehicleAccessIndex.put(vehicle(Vehicle.VehicleStatus.approved, 4L));
+
+        assertEquals(Vehicle.VehicleStatus.rejected, status());
+        assertFalse(vehicleAccessIndex.allowList().getPlates().contains(normalized()));
+    }
+
+    @Test
+    void testNewerUpdatesApply() {
+        vehicleAccessIndex.updateStatus(vehicleId, Vehicle.VehicleStatus.entered, 4L);
+        assertEquals(Vehicle.VehicleStatus.entered, status());
+
+        vehicleAccessIndex.put(vehicle(Vehicle.VehicleStatus.rejected, 5L));
+        assertEquals(Vehicle.VehicleStatus.rejected, status());
+    }
+
+    private Vehicle.VehicleStatus status() {
+        return vehicleAccessIndex.find(normalized()).orElseThrow().getStatus();
+    }
+
+    private static String normalized() {
+        return LicensePlateUtil.normalize(PLATE);
+    }
+
+    private Vehicle vehicle(Vehicle.VehicleStatus status, long version) {
+        return Vehicle.builder()
+                .id(vehicleId)
+                .licensePlate(PLATE)
+                .vehicleType(Vehicle.VehicleType.car)
+                .registrationDate(LocalDate.now())
+                .status(status)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.dto.VehicleLogDto;
+import com.vehiclemanagement.entity.VehicleLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleLogStreamTest {
+
+    private static final int QUEUE_SIZE = 5;
+    private static final int PUBLISHED = 20;
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)\n");
+
+    private static final VehicleLogStream.Filter ALL = new VehicleLogStream.Filter(null, null, null);
+
+    private VehicleLogStream stream;
+    private BlockedEmitter blocked;
+
+    @BeforeEach
+    void setUp() {
+        stream = new VehicleLogStream();
+        ReflectionTestUtils.setField(stream, "bufferSize", 100);
+        ReflectionTestUtils.setField(stream, "subscriberQueueSize", QUEUE_SIZE);
+        ReflectionTestUtils.setField(stream, "timeoutMs", 60000L);
+        stream.init();
+        blocked = new BlockedEmitter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        blocked.release.countDown();
+        stream.shutdown();
+    }
+
+    @Test
+    void testBlockedSubscriberDoesNotStallOthers() throws InterruptedException {
+        stream.subscribe(blocked, ALL, null);
+        RecordingEmitter healthy = new RecordingEmitter();
+        stream.subscribe(healthy, ALL, null);
+        // The blocked client is stuck writing its first event
+        assertTrue(blocked.sending.await(5, TimeUnit.SECONDS));
+
+        // Published at the pace the healthy client reads; the blocked one only accumulates
+        for (int i = 0; i < PUBLISHED; i++) {
+            stream.publish(log(i));
+            List<String> ids = healthy.logIds(1);
+            assertTrue(ids.get(0).endsWith("-" + (i + 1)), ids.toString());
+        }
+        // Fell more than the queue size behind, so it was dropped
+        assertEquals(1, stream.getSubscriberCount());
+    }
+
+    @Test
+    void testEvictedSubscriberResumesFromBuffer() throws InterruptedException {
+        stream.subscribe(blocked, ALL, null);
+        assertTrue(blocked.sending.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < PUBLISHED; i++) {
+            stream.publish(log(i));
+        }
+        assertEquals(0, stream.getSubscriberCount());
+
+        // What an EventSource does after the server closed it: reconnect with the last id it got
+        String epoch = (String) ReflectionTestUtils.getField(stream, "epoch");
+        RecordingEmitter resumed = new RecordingEmitter();
+        stream.subscribe(resumed, ALL, epoch + "-" + QUEUE_SIZE);
+
+        List<String> ids = resumed.logIds(PUBLISHED - QUEUE_SIZE);
+        assertEquals(epoch + "-" + (QUEUE_SIZE + 1), ids.get(0));
+        assertEquals(epoch + "-" + PUBLISHED, ids.get(ids.size() - 1));
+        assertEquals(1, stream.getSubscriberCount());
+    }
+
+    private static VehicleLogDto log(int i) {
+        return VehicleLogDto.builder()
+                .licensePlateNumber("29A-" + (10000 + i))
+                .entryExitTime(LocalDateTime.of(2024, 3, 15, 8, 0).plusMinutes(i))
+                .type(VehicleLog.LogType.entry)
+                .vehicleType(VehicleLog.VehicleCategory.internal)
+                .gateLocation("Main Gate")
+                .build();
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder);
+        }
+
+        // Ids of the next count vehicle-log events, skipping comments
+        private List<String> logIds(int count) throws InterruptedException {
+            List<String> ids = new ArrayList<>();
+            while (ids.size() < count) {
+                SseEventBuilder event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "Received only " + ids);
+                String text = event.build().stream()
+                        .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                        .map(Object::toString)
+                        .collect(Collectors.joining());
+                Matcher id = EVENT_ID.matcher(text);
+                if (text.contains("event:" + VehicleLogStream.EVENT_LOG) && id.find()) {
+                    ids.add(id.group(1));
+                }
+            }
+            return ids;
+        }
+    }
+
+    // A client that stopped reading: the first write never returns until released
+    private static final class BlockedEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.vehiclemanagement.service;
+
+import com.vehiclemanagement.PostgresTestBase;
+import com.vehiclemanagement.entity.Employee;
+import com.vehiclemanagement.entity.Vehicle;
+import com.vehiclemanagement.repository.EmployeeRepository;
+import com.vehiclemanagement.repository.VehicleRepository;
+import com.vehiclemanagement.util.LicensePlateUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The nightly reset commits for real, so the index only changes if its after-commit
+ * updates are registered while the reset transaction can still run them.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({VehicleSchedulerService.class, VehicleAccessIndex.class})
+class VehicleSchedulerServiceTest extends PostgresTestBase {
+
+    @Autowired
+    private VehicleSchedulerService vehicleSchedulerService;
+
+    @Autowired
+    private VehicleAccessIndex vehicleAccessIndex;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    void tearDown() {
+        vehicleRepository.deleteAll();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void testResetRemovesPlatesFromAllowList() {
+        Employee owner = employeeRepository.save(Employee.builder()
+                .employeeId("EMP-RESET")
+                .name("Nhân viên reset")
+                .email("reset@example.com")
+                .department("Phòng hành chính")
+                .hireDate(LocalDate.now())
+                .build());
+        List<String> plates = List.of("30A-111.11", "30A-222.22");
+        vehicleRepository.save(vehicle(owner, plates.get(0), Vehicle.VehicleStatus.approved));
+        vehicleRepository.save(vehicle(owner, plates.get(1), Vehicle.VehicleStatus.entered));
+        vehicleAccessIndex.load();
+        List<String> normalized = plates.stream().map(LicensePlateUtil::normalize).collect(Collectors.toList());
+        assertTrue(vehicleAccessIndex.allowList().getPlates().containsAll(normalized));
+        long versionBefore = vehicleAccessIndex.getAllowListVersion();
+
+        vehicleSchedulerService.resetAllVehicleStatuses();
+
+        List<String> allowed = vehicleAccessIndex.allowList().getPlates();
+        normalized.forEach(plate -> assertFalse(allowed.contains(plate), plate));
+        assertEquals(versionBefore + 2, vehicleAccessIndex.getAllowListVersion());
+        assertEquals(Vehicle.VehicleStatus.rejected,
+                vehicleAccessIndex.find(normalized.get(1)).orElseThrow().getStatus());
+    }
+
+    private static Vehicle vehicle(Employee owner, String plate, Vehicle.VehicleStatus status) {
+        return Vehicle.builder()
+                .employee(owner)
+                .licensePlate(plate)
+                .vehicleType(Vehicle.VehicleType.car)
+                .registrationDate(LocalDate.now())
+                .status(status)
+                .build();
+    }
+}
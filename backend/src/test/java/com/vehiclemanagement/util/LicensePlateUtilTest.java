@@ -0,0 +1,47 @@
+package com.vehiclemanagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LicensePlateUtilTest {
+    
+    @Test
+    void testRemovesSeparatorsAndUppercases() {
+        assertEquals("76M51443", LicensePlateUtil.normalize("76m5-144.3"));
+        assertEquals("30A12345", LicensePlateUtil.normalize(" 30a_123\t45 "));
+        assertEquals("", LicensePlateUtil.normalize("-. _"));
+    }
+    
+    @Test
+    void testCanonicalPlateIsReturnedAsIs() {
+        String plate = "76M51443";
+        
+        assertSame(plate, LicensePlateUtil.normalize(plate));
+    }
+    
+    @Test
+    void testNullAndNonAscii() {
+        assertNull(LicensePlateUtil.normalize(null));
+        assertEquals("ĐÀ123", LicensePlateUtil.normalize("đà-123"));
+    }
+    
+    @Test
+    void testMatchesRegexImplementation() {
+        String alphabet = "0123456789abcdefxyzABCDXYZ-._ \t";
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder plate = new StringBuilder();
+            int length = random.nextInt(14);
+            for (int j = 0; j < length; j++) {
+                plate.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = plate.toString();
+            
+            assertEquals(input.replaceAll("[-._\\s]", "").toUpperCase(Locale.ROOT), LicensePlateUtil.normalize(input), input);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.vehiclemanagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogCursorTest {
+
+    @Test
+    void testRoundTrip() {
+        LocalDateTime time = LocalDateTime.of(2024, 3, 15, 7, 30, 12, 123456000);
+        UUID id = UUID.randomUUID();
+
+        LogCursor next = LogCursor.decode(LogCursor.next(time, id).encode());
+        LogCursor previous = LogCursor.decode(LogCursor.previous(time, id).encode());
+
+        assertFalse(next.isBackward());
+        assertTrue(previous.isBackward());
+        assertEquals(time, next.getEntryExitTime());
+        assertEquals(id, previous.getId());
+    }
+
+    @Test
+    void testTokenIsUrlSafe() {
+        String token = LogCursor.next(LocalDateTime.now(), UUID.randomUUID()).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void testInvalidTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode("eHwyMDI0fGFiYw"));
+    }
+}
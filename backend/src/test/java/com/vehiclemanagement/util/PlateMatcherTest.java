@@ -0,0 +1,103 @@
+package com.vehiclemanagement.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlateMatcherTest {
+    
+    private PlateMatcher plateMatcher;
+    
+    @BeforeEach
+    void setUp() {
+        plateMatcher = new PlateMatcher();
+        plateMatcher.add("29B42023");
+        plateMatcher.add("30A12345");
+        plateMatcher.add("76M51443");
+    }
+    
+    @Test
+    void testExactMatch() {
+        PlateMatcher.Match match = plateMatcher.match("30A12345");
+        
+        assertEquals(PlateMatcher.Outcome.EXACT, match.getOutcome());
+        assertEquals("30A12345", match.getPlate());
+        assertEquals(1.0, match.getConfidence());
+    }
+    
+    @Test
+    void testOcrConfusionsResolveToRegisteredPlate() {
+        assertEquals("29B42023", plateMatcher.match("29842023").getPlate()); // B read as 8
+        assertEquals("30A12345", plateMatcher.match("3OA12345").getPlate()); // 0 read as O
+        assertEquals("76M51443", plateMatcher.match("76M5I443").getPlate()); // 1 read as I
+        assertEquals("30A12345", plateMatcher.match("30A1234S").getPlate()); // 5 read as S
+    }
+    
+    @Test
+    void testMoreConfusionsScoreLower() {
+        PlateMatcher.Match oneConfusion = plateMatcher.match("3OA12345");
+        PlateMatcher.Match twoConfusions = plateMatcher.match("3OA1234S");
+        
+        assertEquals(PlateMatcher.Outcome.FUZZY, oneConfusion.getOutcome());
+        assertEquals(PlateMatcher.Outcome.FUZZY, twoConfusions.getOutcome());
+        assertEquals("30A12345", twoConfusions.getPlate());
+        assertEquals(2, twoConfusions.getConfusions());
+        assertTrue(oneConfusion.getConfidence() > twoConfusions.getConfidence());
+    }
+    
+    @Test
+    void testRealEditIsNotMatched() {
+        // Another digit, a missing or an extra character may be another vehicle
+        PlateMatcher matcher = new PlateMatcher();
+        matcher.add("29A12345");
+        
+        assertEquals(PlateMatcher.Outcome.NONE, matcher.match("29A12346").getOutcome());
+        assertEquals(PlateMatcher.Outcome.NONE, matcher.match("29A1234").getOutcome());
+        assertEquals(PlateMatcher.Outcome.NONE, matcher.match("29A123456").getOutcome());
+        assertEquals(PlateMatcher.Outcome.NONE, matcher.match("29A1Z346").getOutcome());
+    }
+    
+    @Test
+    void testThreeOrMoreConfusionsAreNotMatched() {
+        // Each character alone is a plausible misread, but together they are too many to trust
+        assertEquals(PlateMatcher.Outcome.NONE, plateMatcher.match("3OA1Z34S").getOutcome());
+        assertEquals(PlateMatcher.Outcome.NONE, plateMatcher.match("3OAIZ34S").getOutcome());
+        assertEquals(PlateMatcher.Outcome.NONE, plateMatcher.match("Z9B4ZOZ3").getOutcome());
+    }
+    
+    @Test
+    void testUnknownPlateIsNotMatched() {
+        PlateMatcher.Match match = plateMatcher.match("99X99999");
+        
+        assertEquals(PlateMatcher.Outcome.NONE, match.getOutcome());
+        assertFalse(match.isMatched());
+        assertNull(match.getPlate());
+    }
+    
+    @Test
+    void testAmbiguousMatchIsRefused() {
+        plateMatcher.add("30A1234S");
+        
+        PlateMatcher.Match match = plateMatcher.match("3OA12345");
+        
+        assertEquals(PlateMatcher.Outcome.AMBIGUOUS, match.getOutcome());
+        assertFalse(match.isMatched());
+        assertEquals(2, match.getCandidates().size());
+        assertTrue(match.getCandidates().contains("30A12345"));
+        assertTrue(match.getCandidates().contains("30A1234S"));
+    }
+    
+    @Test
+    void testRemovedPlateIsNoLongerMatched() {
+        plateMatcher.remove("76M51443");
+        
+        assertEquals(PlateMatcher.Outcome.NONE, plateMatcher.match("76M5I443").getOutcome());
+    }
+    
+    @Test
+    void testNullAndEmptyPlates() {
+        assertEquals(PlateMatcher.Outcome.NONE, plateMatcher.match(null).getOutcome());
+        assertEquals(PlateMatcher.Outcome.NONE, plateMatcher.match("").getOutcome());
+    }
+}
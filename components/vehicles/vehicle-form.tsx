@@ -169,6 +169,8 @@ export function VehicleForm({ vehicle, employees, isOpen, onClose, onSave, onIma
         status: formData.status || "rejected",
         notes: formData.notes,
         imagePath: formData.imagePath,
+        // Lets the server refuse the save if someone else changed the vehicle meanwhile
+        version: vehicle?.version,
       }
       
       // Save vehicle data first
@@ -35,6 +35,7 @@ export interface VehicleCreateRequest {
   capacity?: number
   notes?: string
   imagePath?: string
+  version?: number
 }
 
 export interface VehicleUpdateRequest extends VehicleCreateRequest {
@@ -92,7 +93,9 @@ class VehicleApiService {
       
       if (!response.ok) {
         const errorData = await response.json().catch(() => ({}))
-        throw new Error(errorData.message || `HTTP error! status: ${response.status}`)
+        throw Object.assign(new Error(errorData.message || `HTTP error! status: ${response.status}`), {
+          status: response.status,
+        })
       }
 
       // Handle 204 No Content responses
@@ -41,6 +41,18 @@ export interface VehicleLogPage {
   last: boolean
 }
 
+export interface VehicleLogCursorPage {
+  content: VehicleLog[]
+  size: number
+  nextCursor: string | null
+  prevCursor: string | null
+  hasNext: boolean
+  hasPrevious: boolean
+  totalElements: number | null
+}
+
+export type VehicleLogScrollScope = 'all' | 'today' | 'weekly' | 'monthly' | 'date-range' | 'search'
+
 export interface VehicleLogStatistics {
   entryCount: number
   exitCount: number
@@ -186,6 +198,43 @@ export const vehicleLogApi = {
     return response.json()
   },
 
+  // Cursor-paginated logs: pass nextCursor/prevCursor of the previous page to move; pages cost the same at any depth.
+  // 'date-range' and 'search' need startDate/endDate; 'search' also takes the search filters.
+  scrollVehicleLogs: async (scope: VehicleLogScrollScope, params: {
+    cursor?: string | null
+    size?: number
+    includeTotal?: boolean
+    licensePlate?: string
+    type?: 'entry' | 'exit'
+    vehicleType?: 'internal' | 'external'
+    driverName?: string
+    startDate?: string
+    endDate?: string
+  } = {}): Promise<VehicleLogCursorPage> => {
+    const searchParams = new URLSearchParams()
+
+    if (params.cursor) searchParams.append('cursor', params.cursor)
+    searchParams.append('size', (params.size || 10).toString())
+    if (params.includeTotal) searchParams.append('includeTotal', 'true')
+    if (params.licensePlate) searchParams.append('licensePlate', params.licensePlate)
+    if (params.type) searchParams.append('type', params.type)
+    if (params.vehicleType) searchParams.append('vehicleType', params.vehicleType)
+    if (params.driverName) searchParams.append('driverName', params.driverName)
+    if (params.startDate) searchParams.append('startDate', params.startDate)
+    if (params.endDate) searchParams.append('endDate', params.endDate)
+
+    const path = scope === 'all' ? 'cursor' : `${scope}/cursor`
+    const response = await fetch(`${API_BASE_URL}/vehicle-logs/${path}?${searchParams.toString()}`, {
+      headers: {
+        ...authApi.getAuthHeaders(),
+      },
+    })
+    if (!response.ok) {
+      throw new Error('Failed to fetch vehicle logs')
+    }
+    return response.json()
+  },
+
   // Search vehicle logs
   searchVehicleLogs: async (params: {
     licensePlate?: string
@@ -312,6 +361,82 @@ export const vehicleLogApi = {
     return response.json()
   },
 
+  // Live stream of newly created logs (server-sent events). Reads the stream with fetch because the API
+  // authenticates through the Authorization header, which EventSource cannot set. Reconnects after errors,
+  // resuming from the last event id; onReset is called when the missed logs are gone and the list should be reloaded.
+  // Returns a function that closes the stream.
+  subscribeVehicleLogs: (
+    filters: { gateLocation?: string; type?: 'entry' | 'exit'; vehicleType?: 'internal' | 'external' },
+    onLog: (log: VehicleLog) => void,
+    onReset?: () => void,
+  ): (() => void) => {
+    const searchParams = new URLSearchParams()
+    if (filters.gateLocation) searchParams.append('gateLocation', filters.gateLocation)
+    if (filters.type) searchParams.append('type', filters.type)
+    if (filters.vehicleType) searchParams.append('vehicleType', filters.vehicleType)
+
+    const controller = new AbortController()
+    let lastEventId: string | null = null
+    let retryMs = 3000
+
+    const dispatch = (block: string) => {
+      let event = 'message'
+      let id: string | null = null
+      const data: string[] = []
+      for (const line of block.split('\n')) {
+        if (line.startsWith(':')) continue
+        const separator = line.indexOf(':')
+        const field = separator === -1 ? line : line.slice(0, separator)
+        const value = separator === -1 ? '' : line.slice(separator + 1).replace(/^ /, '')
+        if (field === 'event') event = value
+        else if (field === 'id') id = value
+        else if (field === 'data') data.push(value)
+        else if (field === 'retry' && /^\d+$/.test(value)) retryMs = Number(value)
+      }
+      if (id !== null) lastEventId = id
+      if (event === 'vehicle-log' && data.length > 0) onLog(JSON.parse(data.join('\n')))
+      else if (event === 'reset') onReset?.()
+    }
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const response = await fetch(`${API_BASE_URL}/vehicle-logs/stream?${searchParams.toString()}`, {
+            headers: {
+              ...authApi.getAuthHeaders(),
+              Accept: 'text/event-stream',
+              ...(lastEventId ? { 'Last-Event-ID': lastEventId } : {}),
+            },
+            signal: controller.signal,
+          })
+          if (!response.ok || !response.body) {
+            throw new Error('Failed to open vehicle log stream')
+          }
+          const reader = response.body.getReader()
+          const decoder = new TextDecoder()
+          let buffer = ''
+          for (;;) {
+            const { done, value } = await reader.read()
+            if (done) break
+            buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, '\n')
+            let end
+            while ((end = buffer.indexOf('\n\n')) !== -1) {
+              dispatch(buffer.slice(0, end))
+              buffer = buffer.slice(end + 2)
+            }
+          }
+        } catch (error) {
+          if (controller.signal.aborted) return
+          console.warn('Vehicle log stream disconnected:', error)
+        }
+        await new Promise(resolve => setTimeout(resolve, retryMs))
+      }
+    }
+
+    connect()
+    return () => controller.abort()
+  },
+
   // Test vehicle check endpoint
   testVehicleCheck: async (licensePlateNumber: string, type: 'entry' | 'exit') => {
     const response = await fetch(`${API_BASE_URL}/vehicle-check/test?licensePlateNumber=${encodeURIComponent(licensePlateNumber)}&type=${type.toLowerCase()}`)
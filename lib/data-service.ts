@@ -650,10 +650,14 @@ class DataService {
         lastMaintenanceDate: updates.lastMaintenanceDate || existingVehicle.lastMaintenanceDate,
         nextMaintenanceDate: updates.nextMaintenanceDate || existingVehicle.nextMaintenanceDate,
         notes: updates.notes || existingVehicle.notes,
+        // The caller's copy, not the one just fetched, so a stale edit is refused
+        version: updates.version,
       }
 
       return await vehicleApi.updateVehicle(id, updatedData)
     } catch (error) {
+      // A version conflict is a real answer from the server, not an outage
+      if ((error as { status?: number }).status === 409) throw error
       console.error('Failed to update vehicle via API, falling back to mock data:', error)
       const index = this.vehicles.findIndex((vehicle) => vehicle.id === id)
       if (index === -1) return null
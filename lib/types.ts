@@ -131,6 +131,7 @@ export interface Vehicle {
   capacity?: number
   notes?: string
   imagePath?: string
+  version?: number
   createdAt: string
   updatedAt: string
 }
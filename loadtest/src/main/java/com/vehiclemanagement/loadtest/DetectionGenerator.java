@@ -0,0 +1,76 @@
+package com.vehiclemanagement.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Produces plate readings the way the gate PCs do: the registered plate formatted like
+ * the OCR output, sometimes with a misread character, or a plate nobody registered.
+ */
+public class DetectionGenerator {
+
+    // Characters the OCR models confuse most often
+    private static final Map<Character, char[]> CONFUSIONS = Map.of(
+            '0', new char[] {'O', 'D'},
+            '1', new char[] {'I', 'L'},
+            '2', new char[] {'Z'},
+            '5', new char[] {'S'},
+            '6', new char[] {'G'},
+            '8', new char[] {'B'},
+            'B', new char[] {'8'},
+            'D', new char[] {'0'},
+            'S', new char[] {'5'});
+
+    private final List<String> registeredPlates;
+    private final double unknownRatio;
+    private final double ocrNoiseRatio;
+
+    public DetectionGenerator(List<String> registeredPlates, double unknownRatio, double ocrNoiseRatio) {
+        this.registeredPlates = new ArrayList<>(registeredPlates);
+        this.unknownRatio = unknownRatio;
+        this.ocrNoiseRatio = ocrNoiseRatio;
+    }
+
+    /**
+     * Pick the plate of the next car: registered or unknown
+     */
+    public String nextCar() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (registeredPlates.isEmpty() || random.nextDouble() < unknownRatio) {
+            return randomPlate(random);
+        }
+        return registeredPlates.get(random.nextInt(registeredPlates.size()));
+    }
+
+    /**
+     * One camera reading of a car's plate, formatted like the OCR output ("76M5-1443")
+     */
+    public String read(String plate) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = plate.toCharArray();
+        if (random.nextDouble() < ocrNoiseRatio) {
+            int position = random.nextInt(chars.length);
+            char[] replacements = CONFUSIONS.get(chars[position]);
+            if (replacements != null) {
+                chars[position] = replacements[random.nextInt(replacements.length)];
+            }
+        }
+        String reading = new String(chars);
+        return reading.length() > 4 ? reading.substring(0, 4) + "-" + reading.substring(4) : reading;
+    }
+
+    private static String randomPlate(ThreadLocalRandom random) {
+        // Vietnamese layout: province code, series letter, series digit, 4-5 digit number
+        StringBuilder plate = new StringBuilder();
+        plate.append(10 + random.nextInt(89));
+        plate.append((char) ('A' + random.nextInt(26)));
+        plate.append(random.nextInt(10));
+        int digits = random.nextBoolean() ? 4 : 5;
+        for (int i = 0; i < digits; i++) {
+            plate.append(random.nextInt(10));
+        }
+        return plate.toString();
+    }
+}
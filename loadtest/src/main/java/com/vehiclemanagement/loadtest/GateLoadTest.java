@@ -0,0 +1,266 @@
+package com.vehiclemanagement.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replays rush-hour gate traffic against the API and prints a throughput / latency report.
+ *
+ * Each simulated car arrives at a random gate (Poisson arrivals), is read by the camera
+ * several times while it waits at the barrier, enters, stays for a while and leaves through
+ * a possibly different gate. Unknown cars are sometimes let in by the guard, which posts an
+ * external log entry like the gate PC does. Monitor screens are simulated by STOMP
+ * subscribers on /topic/vehicle-check.
+ *
+ * Usage: java -jar gate-loadtest.jar [--option=value ...]
+ *   --base-url=http://localhost:8080   API to test
+ *   --duration-s=60                    how long new cars keep arriving
+ *   --cars-per-second=5                mean arrival rate
+ *   --gates=4                          number of gates
+ *   --resends=2-8                      camera readings per passage (min-max)
+ *   --resend-interval-ms=300           time between readings of the same car
+ *   --dwell-ms=5000                    mean time between entry and exit
+ *   --unknown-ratio=0.1                share of cars that are not registered
+ *   --ocr-noise=0.05                   chance a reading has a misread character
+ *   --guard-allow-ratio=0.5            share of unknown cars let in by the guard
+ *   --subscribers=3                    WebSocket monitor screens
+ *   --token=JWT                        bearer token for the allow-list, which requires a login
+ *   --report=path                      also write the report to a file
+ */
+public class GateLoadTest {
+
+    private static final Pattern APPROVED = Pattern.compile("\"approved\"\\s*:\\s*(true|false)");
+    private static final Pattern PLATES = Pattern.compile("\"plates\"\\s*:\\s*\\[([^\\]]*)\\]");
+
+    private final Map<String, String> options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final Map<String, Long> lastCheckNanosByPlate = new ConcurrentHashMap<>();
+
+    private DetectionGenerator generator;
+
+    public GateLoadTest(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new GateLoadTest(options).run();
+    }
+
+    static String normalize(String plate) {
+        return plate.replaceAll("[-._\\s]", "").toUpperCase();
+    }
+
+    public void run() throws Exception {
+        List<String> plates = fetchRegisteredPlates();
+        System.out.printf("Loaded %d registered plates from %s%n", plates.size(), baseUrl);
+        generator = new DetectionGenerator(plates,
+                doubleOption("unknown-ratio", 0.1), doubleOption("ocr-noise", 0.05));
+
+        List<StompListener> listeners = new ArrayList<>();
+        for (int i = 0; i < intOption("subscribers", 3); i++) {
+            StompListener listener = new StompListener(lastCheckNanosByPlate, recorder);
+            try {
+                listener.connect(client, baseUrl);
+                listeners.add(listener);
+            } catch (Exception e) {
+                System.err.println("WebSocket subscriber could not connect: " + e.getMessage());
+            }
+        }
+
+        long durationNanos = TimeUnit.SECONDS.toNanos(intOption("duration-s", 60));
+        double carsPerSecond = doubleOption("cars-per-second", 5);
+        long started = System.nanoTime();
+        int cars = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (System.nanoTime() - started < durationNanos) {
+                executor.submit(this::simulateCar);
+                cars++;
+                // Exponential inter-arrival times give Poisson arrivals
+                double waitSeconds = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / carsPerSecond;
+                Thread.sleep((long) (waitSeconds * 1000));
+            }
+            System.out.printf("%d cars arrived, waiting for them to leave...%n", cars);
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        // Give the last broadcasts time to arrive
+        Thread.sleep(1000);
+        listeners.forEach(StompListener::close);
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Gate load test against %s at %s%n", baseUrl, LocalDateTime.now()));
+        report.append(String.format("%d cars over %.1f s (%.1f cars/s target), %d gates, %d subscribers%n%n",
+                cars, elapsedSeconds, carsPerSecond, intOption("gates", 4), listeners.size()));
+        report.append(recorder.report(elapsedSeconds));
+        report.append(String.format("%nWebSocket messages received: %d%n",
+                listeners.stream().mapToLong(StompListener::getMessageCount).sum()));
+
+        System.out.println();
+        System.out.print(report);
+        String reportPath = options.get("report");
+        if (reportPath != null) {
+            Files.writeString(Path.of(reportPath), report);
+        }
+    }
+
+    private void simulateCar() {
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String plate = generator.nextCar();
+            int gates = intOption("gates", 4);
+            String entryGate = "Cổng " + (1 + random.nextInt(gates));
+
+            boolean admitted = passGate(plate, "entry", entryGate);
+            if (!admitted && random.nextDouble() < doubleOption("guard-allow-ratio", 0.5)) {
+                postExternalLog(plate, "entry", entryGate);
+                admitted = true;
+            }
+            if (!admitted) {
+                return;
+            }
+
+            long dwellMs = (long) (-Math.log(1 - random.nextDouble()) * intOption("dwell-ms", 5000));
+            Thread.sleep(dwellMs);
+
+            String exitGate = "Cổng " + (1 + random.nextInt(gates));
+            if (!passGate(plate, "exit", exitGate)) {
+                postExternalLog(plate, "exit", exitGate);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            recorder.count("client error: " + e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Camera readings of one passage; true once any reading is approved
+     */
+    private boolean passGate(String plate, String type, String gate) throws IOException, InterruptedException {
+        String[] range = option("resends", "2-8").split("-");
+        int min = Integer.parseInt(range[0]);
+        int max = Integer.parseInt(range[range.length - 1]);
+        int readings = min + ThreadLocalRandom.current().nextInt(max - min + 1);
+        boolean approved = false;
+
+        for (int i = 0; i < readings; i++) {
+            String reading = generator.read(plate);
+            URI uri = URI.create(baseUrl + "/api/vehicles/check-vehicle"
+                    + "?licensePlateNumber=" + encode(reading)
+                    + "&type=" + type
+                    + "&gateLocation=" + encode(gate));
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+            long start = System.nanoTime();
+            lastCheckNanosByPlate.put(normalize(plate), start);
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record("check-vehicle " + type, System.nanoTime() - start);
+
+            if (response.statusCode() != 200) {
+                recorder.count("check-vehicle HTTP " + response.statusCode());
+            } else {
+                Matcher matcher = APPROVED.matcher(response.body());
+                boolean readingApproved = matcher.find() && Boolean.parseBoolean(matcher.group(1));
+                recorder.count("check-vehicle " + type + (readingApproved ? " approved" : " rejected"));
+                approved |= readingApproved;
+            }
+            Thread.sleep(intOption("resend-interval-ms", 300));
+        }
+        return approved;
+    }
+
+    /**
+     * What the gate PC posts when the guard lets an unregistered car through
+     */
+    private void postExternalLog(String plate, String type, String gate) throws IOException, InterruptedException {
+        String body = String.format("{\"licensePlateNumber\":\"%s\",\"entryExitTime\":\"%s\",\"type\":\"%s\","
+                        + "\"vehicleType\":\"external\",\"driverName\":\"Khách bên ngoài\","
+                        + "\"purpose\":\"Được phép truy cập bởi bảo vệ\",\"gateLocation\":\"%s\","
+                        + "\"notes\":\"Load test external vehicle\"}",
+                generator.read(plate), LocalDateTime.now(), type, gate);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/vehicle-logs"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        recorder.record("vehicle-logs POST", System.nanoTime() - start);
+        recorder.count("vehicle-logs POST HTTP " + response.statusCode());
+    }
+
+    private List<String> fetchRegisteredPlates() throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/vehicles/allow-list")).GET();
+        String token = option("token", null);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            System.err.printf("Allow-list request failed with HTTP %d; pass --token=<JWT>%n", response.statusCode());
+        }
+        List<String> plates = new ArrayList<>();
+        Matcher matcher = PLATES.matcher(response.body());
+        if (response.statusCode() == 200 && matcher.find()) {
+            for (String plate : matcher.group(1).split(",")) {
+                String trimmed = plate.trim().replace("\"", "");
+                if (!trimmed.isEmpty()) {
+                    plates.add(trimmed);
+                }
+            }
+        }
+        return plates;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        return Double.parseDouble(option(name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.vehiclemanagement.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects latencies and outcome counts per operation and renders the report.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> samplesByOperation = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    public void record(String operation, long latencyNanos) {
+        samplesByOperation.computeIfAbsent(operation, key -> new Samples()).add(latencyNanos);
+    }
+
+    public void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    public String report(double elapsedSeconds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-22s %8s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "req/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        new TreeMap<>(samplesByOperation).forEach((operation, samples) -> {
+            long[] sorted = samples.sorted();
+            if (sorted.length == 0) {
+                return;
+            }
+            report.append(String.format("%-22s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation,
+                    sorted.length,
+                    sorted.length / elapsedSeconds,
+                    Arrays.stream(sorted).average().orElse(0) / 1e6,
+                    percentile(sorted, 0.50) / 1e6,
+                    percentile(sorted, 0.95) / 1e6,
+                    percentile(sorted, 0.99) / 1e6,
+                    sorted[sorted.length - 1] / 1e6));
+        });
+        report.append(String.format("%nOutcomes:%n"));
+        new TreeMap<>(outcomes).forEach((outcome, count) ->
+                report.append(String.format("  %-30s %8d%n", outcome, count.sum())));
+        return report.toString();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static final class Samples {
+        private final List<Long> values = new ArrayList<>();
+
+        synchronized void add(long value) {
+            values.add(value);
+        }
+
+        synchronized long[] sorted() {
+            return values.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.vehiclemanagement.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monitor-screen stand-in: subscribes to /topic/vehicle-check over the raw WebSocket
+ * transport of the SockJS endpoint and measures how long after a gate check its
+ * broadcast arrives.
+ */
+public class StompListener implements WebSocket.Listener {
+
+    private static final Pattern PLATE = Pattern.compile("\"licensePlateNumber\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final Map<String, Long> lastCheckNanosByPlate;
+    private final LatencyRecorder recorder;
+    private final LongAdder messages = new LongAdder();
+    private final StringBuilder buffer = new StringBuilder();
+
+    private WebSocket webSocket;
+
+    public StompListener(Map<String, Long> lastCheckNanosByPlate, LatencyRecorder recorder) {
+        this.lastCheckNanosByPlate = lastCheckNanosByPlate;
+        this.recorder = recorder;
+    }
+
+    public void connect(HttpClient client, String baseUrl) throws Exception {
+        URI uri = URI.create(baseUrl.replaceFirst("^http", "ws") + "/ws/websocket");
+        webSocket = client.newWebSocketBuilder().buildAsync(uri, this).get(10, TimeUnit.SECONDS);
+        webSocket.sendText("CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\n\n\0", true).join();
+        webSocket.sendText("SUBSCRIBE\nid:sub-0\ndestination:/topic/vehicle-check\n\n\0", true).join();
+    }
+
+    public void close() {
+        if (webSocket != null) {
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+
+    public long getMessageCount() {
+        return messages.sum();
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        buffer.append(data);
+        int end;
+        while ((end = buffer.indexOf("\0")) >= 0) {
+            handleFrame(buffer.substring(0, end));
+            buffer.delete(0, end + 1);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    private void handleFrame(String frame) {
+        if (!frame.stripLeading().startsWith("MESSAGE")) {
+            return;
+        }
+        messages.increment();
+        Matcher matcher = PLATE.matcher(frame);
+        if (matcher.find()) {
+            Long checkedAt = lastCheckNanosByPlate.get(GateLoadTest.normalize(matcher.group(1)));
+            if (checkedAt != null) {
+                recorder.record("ws broadcast lag", System.nanoTime() - checkedAt);
+            }
+        }
+    }
+}